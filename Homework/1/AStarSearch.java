@@ -0,0 +1,299 @@
+/** ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ *  File name     :  AStarSearch.java
+ *  Purpose       :  Provides an allocation-free A* graph search over the packed cells of a MazeProblem
+ *  @author       :  Sebastian Grasso / Brett Derham
+ *  Date          :  2026-10-18
+ *  Description   :  An A* graph search whose g-scores, parent links, and open / closed flags live in flat
+ *                   int[] arrays indexed by (cell, keyMask) state, with an IndexedMinHeap as the open
+ *                   list. A search allocates no per-node objects, never expands a state twice under a
+ *                   consistent heuristic, and uses O(states) memory regardless of how many nodes it
+ *                   generates. The arrays are kept between searches and are reset in O(1) by bumping
+ *                   an epoch.
+ *                   Includes the following:
+ *                   
+ *                   AStarSearch (int capacity)
+ *                   // Constructs a new search with scratch space for mazes of up to capacity states
+ *                   
+ *                   int search (MazeProblem problem, int source, Heuristic heuristic)
+ *                   // Runs A* from the source cell until a goal is reached holding every key
+ *                   
+ *                   int search (MazeProblem problem, int source, Heuristic heuristic, JumpPoints jumps)
+ *                   // As above, generating only jump point successors when given the maze's JumpPoints
+ *                   
+ *                   void appendPath (MazeProblem problem, int end, List<String> into)
+ *                   // Appends the actions of the path found by the last search, from its source to end
+ *                   
+ *                   void appendPath (MazeProblem problem, int end, CompactPath.Builder into)
+ *                   // As above, appending a run of moves per parent link onto a CompactPath.Builder
+ *                   
+ *                   SearchStats stats (int pathCost, long wallNanos, long cpuNanos)
+ *                   // Returns the counts of the last search, along with the given cost and times
+ *                   
+ *  Warnings      :  Not thread-safe; each thread must use its own AStarSearch
+ *  Exceptions    :  None
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ *  Revision History
+ *  ---------------
+ *            Rev      Date     Modified by:  Reason for change/modification
+ *           -----  ----------  ------------  -----------------------------------------------------------
+ *  @version 1.0.0  2026-10-18  Authors       Allocation-free A* core for Pathfinder
+ *  @version 1.1.0  2026-10-18  Authors       Single pass over the layered (cell, keyMask) state space
+ *  @version 1.2.0  2026-10-18  Authors       Pluggable Heuristic; states it rules out are never queued
+ *  @version 1.3.0  2026-10-18  Authors       Jump Point Search successors and multi-step parent links
+ *  @version 1.4.0  2026-10-18  Authors       Counts of expansions, generations, and estimates for SearchStats
+ *  @version 1.5.0  2026-10-18  Authors       Paths appended onto a CompactPath.Builder, a jump at a time
+ *  @version 1.5.1  2026-10-18  Authors       Scratch grown so that an OutOfMemoryError leaves it usable
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~ */
+
+
+package pathfinder.informed;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A* graph search over the (cell, keyMask) states of a MazeProblem, backed
+ * entirely by primitive arrays that are reused from one search to the next.
+ */
+final class AStarSearch {
+    
+    // Fields
+    // -----------------------------------------------------------------------------
+    private int[] g, parent, stamp;
+    private int epoch;
+    private final IndexedMinHeap open;
+    private final int[] successors = new int[4];
+    
+    // What the last search did, reported through SearchStats
+    private int expanded, generated, reopened, peakFrontier, evaluations;
+    
+    
+    // Constructor
+    // -----------------------------------------------------------------------------
+    
+    /**
+     * Constructs a new search with scratch space for mazes of up to the given
+     * number of cells; larger mazes grow the scratch space on demand.
+     * 
+     * @param capacity The number of cells to allocate scratch space for
+     */
+    AStarSearch (int capacity) {
+        g = new int[capacity];
+        parent = new int[capacity];
+        stamp = new int[capacity];
+        open = new IndexedMinHeap(capacity);
+    }
+    
+    
+    // Methods
+    // -----------------------------------------------------------------------------
+    
+    /**
+     * Runs A* from the source cell until a goal cell is expanded while holding
+     * every key, so that all of the key phases are solved together in one pass.
+     * 
+     * @param problem The MazeProblem to search
+     * @param source The packed index of the cell to start from
+     * @param heuristic The Heuristic for the problem's maze
+     * @return The (cell, keyMask) state of the goal reached, or -1 if there is none
+     */
+    int search (MazeProblem problem, int source, Heuristic heuristic) {
+        return search(problem, source, heuristic, null);
+    }
+    
+    /**
+     * As search(problem, source, heuristic), but when given the JumpPoints of the
+     * problem's maze only jump point successors are generated, so that a parent
+     * link may span a straight run of several cells.
+     * 
+     * @param jumps The JumpPoints of the problem's maze, or null to expand every neighbor
+     */
+    int search (MazeProblem problem, int source, Heuristic heuristic, JumpPoints jumps) {
+        int keyCount = problem.getKeyCount(), maskBits = problem.getAllKeysMask();
+        ensureCapacity(problem.getStateCount());
+        nextEpoch();
+        open.clear();
+        expanded = generated = reopened = peakFrontier = 0;
+        evaluations = 1;
+        
+        int start = (source << keyCount) | problem.getKeyMask(source, 0),
+            h = heuristic.estimate(source, start & maskBits);
+        if (h == Heuristic.UNREACHABLE) {
+            return -1;
+        }
+        stamp[start] = epoch;
+        g[start] = 0;
+        parent[start] = -1;
+        open.insert(start, key(h, 0));
+        generated = peakFrontier = 1;
+        
+        while (!open.isEmpty()) {
+            int state = open.poll();
+            stamp[state] = -epoch;
+            expanded++;
+            int cell = state >>> keyCount, keyMask = state & maskBits;
+            if (problem.isGoal(cell, keyMask)) {
+                return state;
+            }
+            
+            int gState = g[state];
+            if (jumps == null) {
+                for (int action = MazeProblem.UP; action <= MazeProblem.RIGHT; action++) {
+                    int nextCell = problem.getNeighbor(cell, action);
+                    if (nextCell != -1) {
+                        relax(problem, heuristic, state, gState + problem.getCost(nextCell), nextCell, keyMask);
+                    }
+                }
+            } else {
+                // A jump costs one per open cell crossed, plus the cost of the cell it lands on
+                int from = (parent[state] == -1) ? -1 : parent[state] >>> keyCount,
+                    count = jumps.successors(cell, from, successors);
+                for (int i = 0; i < count; i++) {
+                    int nextCell = successors[i];
+                    relax(problem, heuristic, state, gState + distance(problem, cell, nextCell) - 1
+                          + problem.getCost(nextCell), nextCell, keyMask);
+                }
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * Offers the given route to the next cell: unseen states are added to the
+     * frontier (unless the heuristic rules them out), while states already seen
+     * are only updated when this route to them is strictly cheaper.
+     */
+    private void relax (MazeProblem problem, Heuristic heuristic, int state, int gNext, int nextCell, int keyMask) {
+        int keyCount = problem.getKeyCount(),
+            nextMask = problem.getKeyMask(nextCell, keyMask),
+            next = (nextCell << keyCount) | nextMask,
+            seen = stamp[next];
+        
+        if (seen != epoch && seen != -epoch) {
+            int hNext = heuristic.estimate(nextCell, nextMask);
+            evaluations++;
+            if (hNext == Heuristic.UNREACHABLE) {
+                return;
+            }
+            stamp[next] = epoch;
+            g[next] = gNext;
+            parent[next] = state;
+            open.insert(next, key(gNext + hNext, gNext));
+            generated++;
+            peakFrontier = Math.max(peakFrontier, open.size());
+        } else if (gNext < g[next]) {
+            g[next] = gNext;
+            parent[next] = state;
+            long key = key(gNext + heuristic.estimate(nextCell, nextMask), gNext);
+            evaluations++;
+            if (seen == epoch) {
+                open.decreaseKey(next, key);
+            } else {
+                // Only reachable with an inconsistent heuristic: reopen the state
+                stamp[next] = epoch;
+                open.insert(next, key);
+                reopened++;
+                peakFrontier = Math.max(peakFrontier, open.size());
+            }
+        }
+    }
+    
+    /**
+     * Appends the actions of the path found by the last search, from its source
+     * to the given end cell, onto the given list in O(path length).
+     * 
+     * @param problem The MazeProblem that was last searched
+     * @param end A state expanded by the last search, usually the one it returned
+     * @param into The list of actions to append to
+     */
+    void appendPath (MazeProblem problem, int end, List<String> into) {
+        int start = into.size(), keyCount = problem.getKeyCount();
+        for (int state = end; parent[state] != -1; state = parent[state]) {
+            int from = parent[state] >>> keyCount, to = state >>> keyCount;
+            String action = MazeProblem.ACTIONS[actionBetween(problem, from, to)];
+            for (int steps = distance(problem, from, to); steps > 0; steps--) {
+                into.add(action);
+            }
+        }
+        Collections.reverse(into.subList(start, into.size()));
+    }
+    
+    /**
+     * As appendPath(problem, end, into), appending onto a CompactPath.Builder, so
+     * that each parent link, however long a jump it spans, is a single run.
+     */
+    void appendPath (MazeProblem problem, int end, CompactPath.Builder into) {
+        int start = into.length(), keyCount = problem.getKeyCount();
+        for (int state = end; parent[state] != -1; state = parent[state]) {
+            int from = parent[state] >>> keyCount, to = state >>> keyCount;
+            into.add(actionBetween(problem, from, to), distance(problem, from, to));
+        }
+        into.reverse(start);
+    }
+    
+    /**
+     * @return The cost of the path found by the last search to the given state.
+     */
+    int costTo (int state) {
+        return g[state];
+    }
+    
+    /**
+     * Returns the statistics of the last search: its own counts, along with the
+     * given path cost and times, which are measured by the caller.
+     */
+    SearchStats stats (int pathCost, long wallNanos, long cpuNanos) {
+        return new SearchStats(expanded, generated, reopened, peakFrontier, evaluations, pathCost, wallNanos, cpuNanos);
+    }
+    
+    /**
+     * Returns the action that moves between two cells in the same row or column,
+     * e.g. either end of a jump.
+     */
+    static int actionBetween (MazeProblem problem, int from, int to) {
+        if (problem.rowOf(from) == problem.rowOf(to)) {
+            return (to < from) ? MazeProblem.LEFT : MazeProblem.RIGHT;
+        }
+        return (to < from) ? MazeProblem.UP : MazeProblem.DOWN;
+    }
+    
+    /**
+     * Returns the number of steps between two cells in the same row or column.
+     */
+    private static int distance (MazeProblem problem, int from, int to) {
+        return (problem.rowOf(from) == problem.rowOf(to)) ? Math.abs(to - from)
+                                                          : Math.abs(to - from) / problem.getCols();
+    }
+    
+    /**
+     * Orders the open list by f-score, breaking ties in favor of the deeper node.
+     */
+    private static long key (int f, int g) {
+        return ((long) f << 32) | (Integer.MAX_VALUE - g);
+    }
+    
+    private void ensureCapacity (int capacity) {
+        if (capacity > stamp.length) {
+            // stamp grows last, since its length decides whether to grow: running
+            // out of memory part way leaves the search as it was, to grow next time
+            open.ensureCapacity(capacity);
+            g = Arrays.copyOf(g, capacity);
+            parent = Arrays.copyOf(parent, capacity);
+            stamp = Arrays.copyOf(stamp, capacity);
+        }
+    }
+    
+    /**
+     * Invalidates every g-score, parent link, and flag from the last search in
+     * O(1); the stamps are only cleared when the epoch counter wraps.
+     */
+    private void nextEpoch () {
+        if (epoch == Integer.MAX_VALUE) {
+            Arrays.fill(stamp, 0);
+            epoch = 0;
+        }
+        epoch++;
+    }
+    
+}
@@ -0,0 +1,324 @@
+/** ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ *  File name     :  AnytimeSearch.java
+ *  Purpose       :  Provides Weighted A* and Anytime Repairing A* (ARA*) over the states of a MazeProblem
+ *  @author       :  Sebastian Grasso / Brett Derham
+ *  Date          :  2026-10-18
+ *  Description   :  Searches the same (cell, keyMask) states as AStarSearch, but orders its open list by
+ *                   g + w * h for a weight w >= 1, which reaches a goal after far fewer expansions at the price
+ *                   of a solution costing up to w times the optimal one. A single pass is Weighted A*. ARA*
+ *                   then repeats the pass with smaller and smaller weights, reusing everything the earlier
+ *                   passes learned: states whose cost drops after they were expanded are set aside (the
+ *                   INCONS list) rather than reopened, and are put back on the open list, which is rekeyed for
+ *                   the new weight, before the next pass. Each pass that improves the solution publishes it,
+ *                   with the bound min(w, cost / min(g + h)) taken over the open and set-aside states; the
+ *                   search stops once the bound reaches 1 or the deadline passes, when the pass under way is
+ *                   abandoned. All scratch space is reused from one search to the next, as in AStarSearch.
+ *                   Includes the following:
+ *                   
+ *                   AnytimeSearch ()
+ *                   // Constructs a new search with empty scratch space
+ *                   
+ *                   BoundedSolution search (MazeProblem problem, Heuristic heuristic, double weight,
+ *                                           boolean anytime, long deadline, Consumer<BoundedSolution> onSolution)
+ *                   // Runs Weighted A*, or ARA* until the deadline, returning the best solution found
+ *                   
+ *                   SearchStats stats (int pathCost, long wallNanos, long cpuNanos)
+ *                   // Returns the counts of the last search, along with the given cost and times
+ *                   
+ *  Warnings      :  Weights are rounded to the nearest 1/16; the heuristic must be consistent for the
+ *                   bounds to hold; not thread-safe, each thread must use its own instance
+ *  Exceptions    :  None
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ *  Revision History
+ *  ---------------
+ *            Rev      Date     Modified by:  Reason for change/modification
+ *           -----  ----------  ------------  -----------------------------------------------------------
+ *  @version 1.0.0  2026-10-18  Authors       Weighted A* and ARA* for Pathfinder's bounded-time modes
+ *  @version 1.0.1  2026-10-18  Authors       Scratch grown so that an OutOfMemoryError leaves it usable
+ *  @version 1.0.2  2026-10-18  Authors       Weights rounded down, never above the caller's bound
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~ */
+
+
+package pathfinder.informed;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Weighted A* and ARA* over the (cell, keyMask) states of a MazeProblem.
+ */
+final class AnytimeSearch {
+    
+    // Fields
+    // -----------------------------------------------------------------------------
+    
+    // Weights are fixed-point numbers with this many steps per unit
+    private static final int SCALE = 16;
+    
+    // The low bits of each open list key break ties in favor of the deeper state
+    private static final int TIE_BITS = 27;
+    private static final long TIE_MASK = (1L << TIE_BITS) - 1, MAX_F = (1L << (63 - TIE_BITS)) - 1;
+    
+    // The deadline is only checked once per this many expansions
+    private static final int CLOCK_INTERVAL = 1024;
+    
+    private static final int INFINITE = Integer.MAX_VALUE;
+    
+    // Larger weights are clamped; halving from there takes at most this many passes
+    private static final double MAX_WEIGHT = 1 << 16;
+    private static final int MAX_PASSES = 64;
+    
+    // Per state: its g-score, parent, estimate, and the search, pass, and set-aside
+    // pass it was last touched in
+    private int[] g = new int[0], parent = new int[0], h = new int[0];
+    private int[] stamp = new int[0], closed = new int[0], setAside = new int[0];
+    private int epoch, pass;
+    private final IndexedMinHeap open = new IndexedMinHeap(0);
+    
+    // The states whose g-score dropped after they were closed in this pass (INCONS)
+    private int[] incons = new int[16];
+    private int inconsCount;
+    
+    // The goal state reached most cheaply so far, and its g-score
+    private int goal, goalG;
+    
+    // What the last search did, reported through SearchStats
+    private int expanded, generated, reopened, peakFrontier, evaluations;
+    
+    
+    // Constructor
+    // -----------------------------------------------------------------------------
+    
+    /**
+     * Constructs a new search with empty scratch space, grown to the largest maze
+     * searched and then reused.
+     */
+    AnytimeSearch () {}
+    
+    
+    // Methods
+    // -----------------------------------------------------------------------------
+    
+    /**
+     * Searches from the problem's initial state with the given weight. Weighted
+     * A* stops after the first pass; ARA* keeps lowering the weight, publishing
+     * every improved solution, until the solution is proven optimal or the
+     * deadline passes.
+     * 
+     * @param problem The MazeProblem to search
+     * @param heuristic A consistent Heuristic for the problem's maze
+     * @param weight The weight of the first pass, at least 1; rounded down to a
+     * multiple of 1/SCALE, so that the bound never exceeds it
+     * @param anytime Whether to run ARA* rather than a single pass
+     * @param deadline The System.nanoTime() after which to stop improving the
+     * first solution, for ARA*
+     * @param onSolution Told about each solution as it is found, or null
+     * @return The best solution found, or null if there is none
+     */
+    BoundedSolution search (MazeProblem problem, Heuristic heuristic, double weight, boolean anytime,
+                            long deadline, Consumer<BoundedSolution> onSolution) {
+        long started = System.nanoTime();
+        int w = (int) Math.max(SCALE, Math.floor(Math.min(weight, MAX_WEIGHT) * SCALE));
+        start(problem, heuristic, w);
+        BoundedSolution best = null;
+        
+        while (true) {
+            // The first pass always runs to the end, so that a solution is found if there is one
+            boolean finished = improve(problem, heuristic, w, best != null, deadline);
+            if (goalG != INFINITE) {
+                BoundedSolution found = solution(problem, finished ? (double) w / SCALE : Double.MAX_VALUE,
+                                                 System.nanoTime() - started);
+                if (best != null && found.getBound() > best.getBound()) {
+                    found = new BoundedSolution(found.getPath(), found.getCost(), best.getBound(),
+                                                found.getElapsedNanos());
+                }
+                if (best == null || found.getCost() < best.getCost() || found.getBound() < best.getBound()) {
+                    best = found;
+                    if (onSolution != null) {
+                        onSolution.accept(best);
+                    }
+                }
+            }
+            if (!anytime || !finished || best == null || best.isOptimal() || System.nanoTime() - deadline >= 0) {
+                return best;
+            }
+            
+            // Halve the weight's excess over 1, and skip straight past weights the
+            // solution already meets
+            int bound = (int) Math.floor(best.getBound() * SCALE);
+            w = Math.max(SCALE, Math.min(SCALE + (w - SCALE) / 2, bound));
+            nextPass(w);
+        }
+    }
+    
+    /**
+     * Resets the scratch space and queues the initial state.
+     */
+    private void start (MazeProblem problem, Heuristic heuristic, int w) {
+        int states = problem.getStateCount();
+        if (states > stamp.length) {
+            open.ensureCapacity(states);
+            g = Arrays.copyOf(g, states);
+            parent = Arrays.copyOf(parent, states);
+            h = Arrays.copyOf(h, states);
+            closed = Arrays.copyOf(closed, states);
+            setAside = Arrays.copyOf(setAside, states);
+            stamp = Arrays.copyOf(stamp, states);
+        }
+        if (epoch == Integer.MAX_VALUE || pass > Integer.MAX_VALUE - MAX_PASSES) {
+            Arrays.fill(stamp, 0);
+            Arrays.fill(closed, 0);
+            Arrays.fill(setAside, 0);
+            epoch = pass = 0;
+        }
+        epoch++;
+        pass++;
+        open.clear();
+        inconsCount = 0;
+        goal = -1;
+        goalG = INFINITE;
+        expanded = generated = reopened = peakFrontier = evaluations = 0;
+        
+        int source = problem.INITIAL_CELL, keyCount = problem.getKeyCount(),
+            start = (source << keyCount) | problem.getKeyMask(source, 0);
+        if (touch(problem, heuristic, start, source, start & problem.getAllKeysMask(), 0, -1)) {
+            open.insert(start, key(w, start));
+            generated = peakFrontier = 1;
+        }
+    }
+    
+    /**
+     * One pass with the given weight (ImprovePath): expands states until none on
+     * the open list could lead to a cheaper goal at this weight. States closed in
+     * this pass whose cost drops are set aside for the next pass.
+     * 
+     * @return Whether the pass finished, rather than running into the deadline
+     */
+    private boolean improve (MazeProblem problem, Heuristic heuristic, int w, boolean timed, long deadline) {
+        int keyCount = problem.getKeyCount(), maskBits = problem.getAllKeysMask();
+        while (!open.isEmpty() && (goalG == INFINITE || (long) goalG * SCALE > (open.peekKey() >>> TIE_BITS))) {
+            if (timed && (expanded % CLOCK_INTERVAL) == 0 && expanded > 0 && System.nanoTime() - deadline >= 0) {
+                return false;
+            }
+            int state = open.poll();
+            closed[state] = pass;
+            expanded++;
+            int cell = state >>> keyCount, keyMask = state & maskBits, gState = g[state];
+            for (int action = MazeProblem.UP; action <= MazeProblem.RIGHT; action++) {
+                int nextCell = problem.getNeighbor(cell, action);
+                if (nextCell == -1) {
+                    continue;
+                }
+                int nextMask = problem.getKeyMask(nextCell, keyMask), next = (nextCell << keyCount) | nextMask,
+                    gNext = gState + problem.getCost(nextCell);
+                if (!touch(problem, heuristic, next, nextCell, nextMask, gNext, state)) {
+                    continue;
+                }
+                if (closed[next] != pass) {
+                    if (open.contains(next)) {
+                        open.decreaseKey(next, key(w, next));
+                    } else {
+                        open.insert(next, key(w, next));
+                        generated++;
+                        peakFrontier = Math.max(peakFrontier, open.size());
+                    }
+                } else if (setAside[next] != pass) {
+                    setAside[next] = pass;
+                    if (inconsCount == incons.length) {
+                        incons = Arrays.copyOf(incons, 2 * inconsCount);
+                    }
+                    incons[inconsCount++] = next;
+                }
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Offers the given route to a state, recording it if the state is new to this
+     * search or the route is strictly cheaper, and noting any cheaper goal.
+     * 
+     * @return Whether the route was recorded; never for states the heuristic
+     * rules out
+     */
+    private boolean touch (MazeProblem problem, Heuristic heuristic, int state, int cell, int keyMask,
+                           int gState, int from) {
+        if (stamp[state] != epoch) {
+            stamp[state] = epoch;
+            h[state] = heuristic.estimate(cell, keyMask);
+            evaluations++;
+            g[state] = INFINITE;
+        }
+        if (h[state] == Heuristic.UNREACHABLE || gState >= g[state]) {
+            return false;
+        }
+        g[state] = gState;
+        parent[state] = from;
+        if (gState < goalG && problem.isGoal(cell, keyMask)) {
+            goalG = gState;
+            goal = state;
+        }
+        return true;
+    }
+    
+    /**
+     * Moves the set-aside states back onto the open list and rekeys it for the
+     * given weight, so that the next pass starts with an empty closed set.
+     */
+    private void nextPass (int w) {
+        for (int i = 0; i < inconsCount; i++) {
+            open.insert(incons[i], 0);
+        }
+        reopened += inconsCount;
+        inconsCount = 0;
+        open.rekey(state -> key(w, state));
+        peakFrontier = Math.max(peakFrontier, open.size());
+        pass++;
+    }
+    
+    /**
+     * Builds the current solution by following parents back from the best goal,
+     * with the bound min(passBound, cost / lower bound), where the lower bound on
+     * the optimal cost is the least g + h of any open or set-aside state.
+     */
+    private BoundedSolution solution (MazeProblem problem, double passBound, long elapsedNanos) {
+        int keyCount = problem.getKeyCount(), cost = 0;
+        CompactPath.Builder path = new CompactPath.Builder();
+        for (int state = goal; parent[state] != -1; state = parent[state]) {
+            int from = parent[state] >>> keyCount, to = state >>> keyCount;
+            path.add(AStarSearch.actionBetween(problem, from, to));
+            cost += problem.getCost(to);
+        }
+        path.reverse(0);
+        
+        long lower = Long.MAX_VALUE;
+        for (int slot = 0; slot < open.size(); slot++) {
+            int state = open.idAt(slot);
+            lower = Math.min(lower, (long) g[state] + h[state]);
+        }
+        for (int i = 0; i < inconsCount; i++) {
+            lower = Math.min(lower, (long) g[incons[i]] + h[incons[i]]);
+        }
+        double bound = Math.max(1.0, Math.min(passBound, (lower >= cost) ? 1.0 : (double) cost / lower));
+        return new BoundedSolution(path.build(), cost, bound, elapsedNanos);
+    }
+    
+    /**
+     * Orders the open list by g + w * h in units of 1/SCALE, breaking ties in
+     * favor of the deeper state.
+     */
+    private long key (int w, int state) {
+        long f = Math.min(MAX_F, (long) g[state] * SCALE + (long) w * h[state]);
+        return (f << TIE_BITS) | (TIE_MASK - Math.min(g[state], TIE_MASK));
+    }
+    
+    /**
+     * Returns the statistics of the last search: its own counts, along with the
+     * given path cost and times, which are measured by the caller. States set
+     * aside and put back on the open list between passes count as reopened.
+     */
+    SearchStats stats (int pathCost, long wallNanos, long cpuNanos) {
+        return new SearchStats(expanded, generated, reopened, peakFrontier, evaluations, pathCost, wallNanos, cpuNanos);
+    }
+
+}
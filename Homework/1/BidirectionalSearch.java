@@ -0,0 +1,361 @@
+/** ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ *  File name     :  BidirectionalSearch.java
+ *  Purpose       :  Provides a bidirectional A* search (NBA*) for MazeProblems without keys
+ *  @author       :  Sebastian Grasso / Brett Derham
+ *  Date          :  2026-10-18
+ *  Description   :  Searches forward from the initial cell, guided by the Manhattan distance to the nearest
+ *                   goal, and backward from every goal at once, guided by the Manhattan distance to the
+ *                   initial cell, until the two frontiers prove the best path through any cell where they
+ *                   meet to be optimal. The sequential search is New Bidirectional A* (NBA*): a cell
+ *                   expanded by either side is never expanded by the other, and a side prunes any cell
+ *                   whose own f-score, or whose g-score plus the other side's lowest f-score less the other
+ *                   side's estimate, already reaches the best path found; once every cell left is pruned,
+ *                   that path is optimal. The parallel search runs one plain A* per side on its own thread,
+ *                   sharing only the best path found, and stops as soon as either side's lowest f-score
+ *                   reaches it. Both use O(cells) scratch space per side, reused between searches as in
+ *                   AStarSearch.
+ *                   Includes the following:
+ *                   
+ *                   BidirectionalSearch ()
+ *                   // Constructs a new search with empty scratch space
+ *                   
+ *                   int search (MazeProblem problem, int source)
+ *                   // Runs NBA* from the source cell, returning the cost of the best path or -1
+ *                   
+ *                   int searchParallel (MazeProblem problem, int source, Executor executor)
+ *                   // Runs the two sides concurrently, the backward one on the given executor
+ *                   
+ *                   void appendPath (MazeProblem problem, List<String> into)
+ *                   // Appends the actions of the best path found by the last search
+ *                   
+ *                   SearchStats stats (long wallNanos, long cpuNanos)
+ *                   // Returns the counts of the last search, along with the given times
+ *                   
+ *  Warnings      :  Only for mazes without keys; not thread-safe, each thread must use its own instance
+ *  Exceptions    :  IllegalArgumentException for mazes with keys
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ *  Revision History
+ *  ---------------
+ *            Rev      Date     Modified by:  Reason for change/modification
+ *           -----  ----------  ------------  -----------------------------------------------------------
+ *  @version 1.0.0  2026-10-18  Authors       Bidirectional (NBA*) mode for Pathfinder
+ *  @version 1.0.1  2026-10-18  Authors       Scratch grown so that an OutOfMemoryError leaves it usable
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~ */
+
+
+package pathfinder.informed;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Bidirectional A* between the initial cell of a MazeProblem and its goals.
+ */
+final class BidirectionalSearch {
+    
+    // Fields
+    // -----------------------------------------------------------------------------
+    private static final int INFINITE = Integer.MAX_VALUE;
+    
+    // Volatile access to the int[] scratch of one side from the other side's thread
+    private static final VarHandle INTS = MethodHandles.arrayElementVarHandle(int[].class);
+    
+    private final Side forward = new Side(true), backward = new Side(false);
+    private int epoch;
+    
+    // The cost of the best path found so far, and the cell where its two halves meet
+    private volatile int best;
+    private int meeting;
+    
+    // The parallel search's sides stop as soon as either sets this
+    private volatile boolean stopped;
+    
+    
+    // Constructor
+    // -----------------------------------------------------------------------------
+    
+    /**
+     * Constructs a new search with empty scratch space, grown to the largest maze
+     * searched and then reused.
+     */
+    BidirectionalSearch () {}
+    
+    
+    // Methods
+    // -----------------------------------------------------------------------------
+    
+    /**
+     * Runs NBA* from the source cell to the problem's goals. Since the Manhattan
+     * estimates of both sides are consistent, no cell is ever expanded twice, and
+     * the search ends once either frontier is empty.
+     * 
+     * @param problem The MazeProblem to search, which must have no keys
+     * @param source The packed index of the cell to start from
+     * @return The cost of the best path found, or -1 if there is none
+     */
+    int search (MazeProblem problem, int source) {
+        start(problem, source);
+        while (best != 0 && !forward.open.isEmpty() && !backward.open.isEmpty()) {
+            Side side = (forward.open.size() <= backward.open.size()) ? forward : backward,
+                 other = (side == forward) ? backward : forward;
+            int f = (int) (side.open.peekKey() >>> 32), cell = side.open.poll();
+            side.expanded++;
+            if (isUnsettled(cell)) {
+                side.stamp[cell] = -epoch;
+                int g = side.g[cell];
+                if (f < best && g + other.lowestF - other.estimate(cell) < best) {
+                    for (int action = MazeProblem.UP; action <= MazeProblem.RIGHT; action++) {
+                        int next = problem.getNeighbor(cell, action);
+                        if (next != -1 && isUnsettled(next)) {
+                            side.relax(next, g + side.stepCost(cell, next), cell);
+                            int otherG = other.gOf(next, false);
+                            if (otherG != INFINITE && side.g[next] + otherG < best) {
+                                best = side.g[next] + otherG;
+                                meeting = next;
+                            }
+                        }
+                    }
+                }
+            }
+            if (!side.open.isEmpty()) {
+                side.lowestF = (int) (side.open.peekKey() >>> 32);
+            }
+        }
+        return (best == INFINITE) ? -1 : best;
+    }
+    
+    /**
+     * Runs the forward side of the search on the calling thread and the backward
+     * side on the given executor, each as a plain A* with its own closed set. Each
+     * side checks the other's g-score of every cell it reaches, to find where they
+     * meet, and the search stops as soon as either side's lowest f-score reaches
+     * the best path found, which is then optimal.
+     * 
+     * @param problem The MazeProblem to search, which must have no keys
+     * @param source The packed index of the cell to start from
+     * @param executor The executor to run the backward side on
+     * @return The cost of the best path found, or -1 if there is none
+     */
+    int searchParallel (MazeProblem problem, int source, Executor executor) {
+        start(problem, source);
+        stopped = (best == 0);
+        CompletableFuture<Void> back = CompletableFuture.runAsync(() -> runSide(problem, backward, forward), executor);
+        try {
+            runSide(problem, forward, backward);
+        } finally {
+            stopped = true;
+            back.join();
+        }
+        return (best == INFINITE) ? -1 : best;
+    }
+    
+    /**
+     * Runs one side of the parallel search until it or the other side proves the
+     * best path found optimal, or runs out of cells.
+     */
+    private void runSide (MazeProblem problem, Side side, Side other) {
+        while (!stopped) {
+            if (side.open.isEmpty() || (side.open.peekKey() >>> 32) >= best) {
+                stopped = true;
+                return;
+            }
+            int cell = side.open.poll();
+            side.expanded++;
+            INTS.setVolatile(side.stamp, cell, -epoch);
+            int g = side.g[cell];
+            for (int action = MazeProblem.UP; action <= MazeProblem.RIGHT; action++) {
+                int next = problem.getNeighbor(cell, action);
+                if (next == -1 || side.stamp[next] == -epoch) {
+                    continue;
+                }
+                if (side.relax(next, g + side.stepCost(cell, next), cell)) {
+                    int otherG = other.gOf(next, true);
+                    if (otherG != INFINITE) {
+                        offer(side.g[next] + otherG, next);
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * Records the given path as the best found, if it is better.
+     */
+    private synchronized void offer (int cost, int cell) {
+        if (cost < best) {
+            best = cost;
+            meeting = cell;
+        }
+    }
+    
+    /**
+     * Resets both sides for a new search, queueing the source forward and every
+     * goal backward.
+     */
+    private void start (MazeProblem problem, int source) {
+        if (problem.getKeyCount() != 0) {
+            throw new IllegalArgumentException("Bidirectional search is only for mazes without keys");
+        }
+        if (epoch == Integer.MAX_VALUE) {
+            forward.clearStamps();
+            backward.clearStamps();
+            epoch = 0;
+        }
+        epoch++;
+        best = INFINITE;
+        meeting = -1;
+        Heuristic toGoal = ManhattanHeuristic.of(problem);
+        forward.reset(problem, problem.getCellCount(), cell -> toGoal.estimate(cell, 0));
+        int sourceCol = problem.colOf(source), sourceRow = problem.rowOf(source);
+        backward.reset(problem, problem.getCellCount(),
+                       cell -> ManhattanHeuristic.distance(problem.colOf(cell), problem.rowOf(cell), sourceCol, sourceRow));
+        
+        if (problem.getGoalCells().length == 0) {
+            return;
+        }
+        forward.relax(source, 0, -1);
+        for (int goal : problem.getGoalCells()) {
+            backward.relax(goal, 0, -1);
+        }
+        if (problem.isGoalCell(source)) {
+            best = 0;
+            meeting = source;
+        }
+        forward.lowestF = forward.estimate(source);
+        backward.lowestF = (int) (backward.open.peekKey() >>> 32);
+    }
+    
+    /**
+     * @return Whether neither side has expanded the given cell yet; NBA*'s set M.
+     */
+    private boolean isUnsettled (int cell) {
+        return forward.stamp[cell] != -epoch && backward.stamp[cell] != -epoch;
+    }
+    
+    /**
+     * Appends the actions of the best path found by the last search onto the given
+     * list: forward from the source to where the sides met, and then on to the
+     * goal the backward side came from.
+     * 
+     * @param problem The MazeProblem that was last searched
+     * @param into The list of actions to append to
+     */
+    void appendPath (MazeProblem problem, List<String> into) {
+        int start = into.size();
+        for (int cell = meeting; forward.parent[cell] != -1; cell = forward.parent[cell]) {
+            into.add(MazeProblem.ACTIONS[AStarSearch.actionBetween(problem, forward.parent[cell], cell)]);
+        }
+        Collections.reverse(into.subList(start, into.size()));
+        for (int cell = meeting; backward.parent[cell] != -1; cell = backward.parent[cell]) {
+            into.add(MazeProblem.ACTIONS[AStarSearch.actionBetween(problem, cell, backward.parent[cell])]);
+        }
+    }
+    
+    /**
+     * Returns the statistics of the last search, counted over both sides, along
+     * with the given times, which are measured by the caller.
+     */
+    SearchStats stats (long wallNanos, long cpuNanos) {
+        return new SearchStats(forward.expanded + backward.expanded, forward.generated + backward.generated, 0,
+                               forward.peakFrontier + backward.peakFrontier,
+                               forward.evaluations + backward.evaluations,
+                               (best == INFINITE) ? -1 : best, wallNanos, cpuNanos);
+    }
+
+
+/**
+ * The g-scores, parent links, stamps, and open list of one side, which either
+ * searches forward along moves or backward against them.
+ */
+private final class Side {
+    final boolean isForward;
+    int[] g = new int[0], parent = new int[0], stamp = new int[0];
+    final IndexedMinHeap open = new IndexedMinHeap(0);
+    MazeProblem problem;
+    IntUnaryOperator heuristic;
+    int lowestF;
+    
+    // What the last search did on this side, reported through SearchStats
+    int expanded, generated, peakFrontier, evaluations;
+    
+    Side (boolean isForward) {
+        this.isForward = isForward;
+    }
+    
+    void reset (MazeProblem problem, int capacity, IntUnaryOperator heuristic) {
+        if (capacity > stamp.length) {
+            open.ensureCapacity(capacity);
+            g = Arrays.copyOf(g, capacity);
+            parent = Arrays.copyOf(parent, capacity);
+            stamp = Arrays.copyOf(stamp, capacity);
+        }
+        open.clear();
+        this.problem = problem;
+        this.heuristic = heuristic;
+        expanded = generated = peakFrontier = evaluations = 0;
+    }
+    
+    void clearStamps () {
+        Arrays.fill(stamp, 0);
+    }
+    
+    int estimate (int cell) {
+        evaluations++;
+        return heuristic.applyAsInt(cell);
+    }
+    
+    /**
+     * @return The cost of the move between two neighboring cells in this
+     * side's direction: moving forward into to, or backward out of from.
+     */
+    int stepCost (int from, int to) {
+        return problem.getCost(isForward ? to : from);
+    }
+    
+    /**
+     * Offers the given route to a cell not yet expanded by this side, queueing
+     * or updating it when the route is cheaper than any seen before.
+     * 
+     * @return Whether the route was taken
+     */
+    boolean relax (int cell, int gCell, int from) {
+        boolean seen = stamp[cell] == epoch;
+        if (seen && gCell >= g[cell]) {
+            return false;
+        }
+        INTS.setVolatile(g, cell, gCell);
+        parent[cell] = from;
+        long key = ((long) (gCell + estimate(cell)) << 32) | (Integer.MAX_VALUE - gCell);
+        if (seen) {
+            open.decreaseKey(cell, key);
+        } else {
+            INTS.setVolatile(stamp, cell, epoch);
+            open.insert(cell, key);
+            generated++;
+            peakFrontier = Math.max(peakFrontier, open.size());
+        }
+        return true;
+    }
+    
+    /**
+     * @return This side's g-score of the given cell in the current search, or
+     * INFINITE if it has not reached it; read with volatile semantics when
+     * called from the other side's thread.
+     */
+    int gOf (int cell, boolean concurrent) {
+        int at = concurrent ? (int) INTS.getVolatile(stamp, cell) : stamp[cell];
+        if (at != epoch && at != -epoch) {
+            return INFINITE;
+        }
+        return concurrent ? (int) INTS.getVolatile(g, cell) : g[cell];
+    }
+
+}
+
+}
@@ -0,0 +1,116 @@
+/** ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ *  File name     :  BoundedSolution.java
+ *  Purpose       :  Provides a solution found by a bounded-suboptimal search, along with its bound
+ *  @author       :  Sebastian Grasso / Brett Derham
+ *  Date          :  2026-10-18
+ *  Description   :  An immutable solution from Pathfinder.solveWeighted or solveAnytime: the moves of the
+ *                   path, its cost, and the proven bound on how far that cost can be from the optimal one,
+ *                   i.e. the cost is at most bound times the optimal cost. A bound of 1 means the solution
+ *                   is optimal. Also records how long after the start of the solve it was found.
+ *                   Includes the following:
+ *                   
+ *                   public CompactPath getPath () / public ArrayList<String> getActions ()
+ *                   // Returns the moves of the solution, compact or as actions
+ *                   
+ *                   public int getCost ()
+ *                   // Returns the cost of the solution
+ *                   
+ *                   public double getBound () / public boolean isOptimal ()
+ *                   // Returns the suboptimality bound of the solution / whether it is proven optimal
+ *                   
+ *                   public long getElapsedNanos ()
+ *                   // Returns the time from the start of the solve to when the solution was found
+ *                   
+ *  Warnings      :  None
+ *  Exceptions    :  None
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ *  Revision History
+ *  ---------------
+ *            Rev      Date     Modified by:  Reason for change/modification
+ *           -----  ----------  ------------  -----------------------------------------------------------
+ *  @version 1.0.0  2026-10-18  Authors       Solutions of the weighted and anytime searches
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~ */
+
+
+package pathfinder.informed;
+
+import java.util.ArrayList;
+
+/**
+ * A solution whose cost is within a proven factor of the optimal cost.
+ */
+public final class BoundedSolution {
+    
+    // Fields
+    // -----------------------------------------------------------------------------
+    private final CompactPath path;
+    private final int cost;
+    private final double bound;
+    private final long elapsedNanos;
+    
+    
+    // Constructor
+    // -----------------------------------------------------------------------------
+    
+    BoundedSolution (CompactPath path, int cost, double bound, long elapsedNanos) {
+        this.path = path;
+        this.cost = cost;
+        this.bound = bound;
+        this.elapsedNanos = elapsedNanos;
+    }
+    
+    
+    // Methods
+    // -----------------------------------------------------------------------------
+    
+    /**
+     * @return The moves that lead from the initial to a goal state.
+     */
+    public CompactPath getPath () {
+        return path;
+    }
+    
+    /**
+     * @return The moves of the solution as actions of the format ["R", "R", "L", ...].
+     */
+    public ArrayList<String> getActions () {
+        return path.toActions();
+    }
+    
+    /**
+     * @return The cost of the solution.
+     */
+    public int getCost () {
+        return cost;
+    }
+    
+    /**
+     * @return The suboptimality bound of the solution: its cost is at most this
+     * many times the optimal cost, and never less than 1.
+     */
+    public double getBound () {
+        return bound;
+    }
+    
+    /**
+     * @return Whether the solution is proven optimal, i.e. its bound is 1.
+     */
+    public boolean isOptimal () {
+        return bound <= 1.0;
+    }
+    
+    /**
+     * @return The time from the start of the solve to when this solution was
+     * found, in nanoseconds.
+     */
+    public long getElapsedNanos () {
+        return elapsedNanos;
+    }
+    
+    @Override
+    public String toString () {
+        return "BoundedSolution[cost=" + cost + ", bound=" + bound + ", moves=" + path.length()
+            + ", elapsedNanos=" + elapsedNanos + "]";
+    }
+
+}
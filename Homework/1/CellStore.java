@@ -0,0 +1,93 @@
+/** ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ *  File name     :  CellStore.java
+ *  Purpose       :  Provides the storage behind the grid of cell types of a MazeProblem
+ *  @author       :  Sebastian Grasso / Brett Derham
+ *  Date          :  2026-10-18
+ *  Description   :  A CellStore holds the type (WALL, OPEN, or MUD) of every cell of a maze, by packed cell
+ *                   index. Mazes built in memory keep one byte per cell in an array; mazes opened from a
+ *                   MazeFile read two bits per cell straight out of a memory-mapped file, so that only the
+ *                   tiles a search touches are ever paged in.
+ *                   Includes the following:
+ *                   
+ *                   static CellStore of (byte[] cells)
+ *                   // Returns a store over the given array of cell types, without copying it
+ *                   
+ *                   byte get (int cell)
+ *                   // Returns the type of the given cell
+ *                   
+ *                   int size ()
+ *                   // Returns the number of cells in the store
+ *                   
+ *                   boolean isMapped ()
+ *                   // Returns whether the cells are read from a mapped file rather than held in memory
+ *                   
+ *  Warnings      :  Stores are not copied by MazeProblem; an array store reflects later writes to its array
+ *  Exceptions    :  None
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ *  Revision History
+ *  ---------------
+ *            Rev      Date     Modified by:  Reason for change/modification
+ *           -----  ----------  ------------  -----------------------------------------------------------
+ *  @version 1.0.0  2026-10-18  Authors       Cell storage behind MazeProblem, for in-memory and mapped mazes
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~ */
+
+
+package pathfinder.informed;
+
+/**
+ * The types of the cells of a maze, by packed cell index.
+ */
+interface CellStore {
+    
+    /**
+     * @param cell The packed index of a cell in [0, size())
+     * @return The type of the cell: MazeProblem.WALL, OPEN, or MUD
+     */
+    byte get (int cell);
+    
+    /**
+     * @return The number of cells in the store.
+     */
+    int size ();
+    
+    /**
+     * @return Whether the cells are read from a memory-mapped file, so that
+     * touching all of them may be far slower than touching a few.
+     */
+    default boolean isMapped () {
+        return false;
+    }
+    
+    /**
+     * @param cells The packed grid, holding one type per cell
+     * @return A store reading the given array, which is not copied
+     */
+    static CellStore of (byte[] cells) {
+        return new ArrayStore(cells);
+    }
+
+
+/**
+ * One byte per cell, held in an array on the heap.
+ */
+final class ArrayStore implements CellStore {
+    
+    private final byte[] cells;
+    
+    ArrayStore (byte[] cells) {
+        this.cells = cells;
+    }
+    
+    @Override
+    public byte get (int cell) {
+        return cells[cell];
+    }
+    
+    @Override
+    public int size () {
+        return cells.length;
+    }
+
+}
+
+}
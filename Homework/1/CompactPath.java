@@ -0,0 +1,398 @@
+/** ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ *  File name     :  CompactPath.java
+ *  Purpose       :  Provides a compact, immutable sequence of moves through a maze
+ *  @author       :  Sebastian Grasso / Brett Derham
+ *  Date          :  2026-10-18
+ *  Description   :  Holds a path as action codes (MazeProblem.UP, DOWN, LEFT, RIGHT) rather than as a list
+ *                   of one-character Strings. Moves are packed 2 bits each into a long[], 32 to a word; when
+ *                   the path is made of long straight runs, as most paths through open areas are, it is kept
+ *                   run-length encoded instead, one long per run, whichever is smaller. Paths are built in
+ *                   O(length) by a Builder, which can append whole runs at once and reverse what it holds,
+ *                   and are replayed against the grid by MazeProblem.testSolution(CompactPath) without
+ *                   touching a String.
+ *                   Includes the following:
+ *                   
+ *                   public static CompactPath of (List<String> actions)
+ *                   // Returns the path of the given actions, of the format ["R", "R", "L", ...]
+ *                   
+ *                   public ArrayList<String> toActions ()
+ *                   // Returns the path as actions, in the format Pathfinder.solve returns
+ *                   
+ *                   public int length () / public int getAction (int i)
+ *                   // Returns the number of moves in the path / the action code of its i-th move
+ *                   
+ *                   public int getRunCount () / public boolean isRunLength ()
+ *                   // Returns the number of straight runs in the path / whether it is stored as runs
+ *                   
+ *                   public CompactPath suffix (int from)
+ *                   // Returns the moves of the path from the given one to the end
+ *                   
+ *                   public static final class Builder
+ *                   // Builds a CompactPath move by move, or run by run, in O(length)
+ *                   
+ *  Warnings      :  None
+ *  Exceptions    :  IllegalArgumentException for unknown actions or negative run lengths
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ *  Revision History
+ *  ---------------
+ *            Rev      Date     Modified by:  Reason for change/modification
+ *           -----  ----------  ------------  -----------------------------------------------------------
+ *  @version 1.0.0  2026-10-18  Authors       2-bit packed and run-length encoded paths
+ *  @version 1.1.0  2026-10-18  Authors       Suffixes, for the sub-path hits of RouteCache
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~ */
+
+
+package pathfinder.informed;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A path through a maze, as packed action codes or runs of them.
+ */
+public final class CompactPath {
+    
+    // Fields
+    // -----------------------------------------------------------------------------
+    
+    // Packed words hold this many 2-bit moves each
+    private static final int MOVES_PER_WORD = 32;
+    
+    private final int length;
+    private final boolean runLength;
+    
+    // Packed, move i is bits 2(i % 32) and up of word i / 32; run-length encoded,
+    // word r is (end << 2 | action) for the run of moves ending before end
+    private final long[] words;
+    
+    
+    // Constructor
+    // -----------------------------------------------------------------------------
+    
+    private CompactPath (int length, boolean runLength, long[] words) {
+        this.length = length;
+        this.runLength = runLength;
+        this.words = words;
+    }
+    
+    /**
+     * @param actions A list of actions of the format ["R", "R", "L", ...]
+     * @return The path of the given actions
+     * @throws IllegalArgumentException If an action is not one of "U", "D", "L", or "R"
+     */
+    public static CompactPath of (List<String> actions) {
+        Builder builder = new Builder(actions.size());
+        for (String action : actions) {
+            int code = codeOf(action);
+            if (code == -1) {
+                throw new IllegalArgumentException("Unknown action: " + action);
+            }
+            builder.add(code);
+        }
+        return builder.build();
+    }
+    
+    
+    // Methods
+    // -----------------------------------------------------------------------------
+    
+    /**
+     * @return The number of moves in the path.
+     */
+    public int length () {
+        return length;
+    }
+    
+    /**
+     * @param i The index of a move in [0, length())
+     * @return The action code of the move: MazeProblem.UP, DOWN, LEFT, or RIGHT
+     */
+    public int getAction (int i) {
+        if (i < 0 || i >= length) {
+            throw new IndexOutOfBoundsException("Move " + i + " of a path of " + length);
+        }
+        return runLength ? (int) (words[runOf(i)] & 3) : moveAt(words, i);
+    }
+    
+    /**
+     * Returns the number of moves from the given one to the end of its straight
+     * run, the given one included, so that a path can be walked run by run.
+     * 
+     * @param i The index of a move in [0, length())
+     */
+    int runFrom (int i) {
+        if (runLength) {
+            return (int) (words[runOf(i)] >>> 2) - i;
+        }
+        int action = moveAt(words, i), end = i + 1;
+        while (end < length && moveAt(words, end) == action) {
+            end++;
+        }
+        return end - i;
+    }
+    
+    /**
+     * @return The number of straight runs of the same move in the path.
+     */
+    public int getRunCount () {
+        return runLength ? words.length : countRuns(words, length);
+    }
+    
+    /**
+     * @return Whether the path is stored as runs of moves, rather than packed
+     * move by move.
+     */
+    public boolean isRunLength () {
+        return runLength;
+    }
+    
+    /**
+     * @param from The index of a move in [0, length()]
+     * @return The moves of the path from the given one to the end, e.g. the rest
+     * of a route from a cell it passes through
+     */
+    public CompactPath suffix (int from) {
+        if (from < 0 || from > length) {
+            throw new IndexOutOfBoundsException("Move " + from + " of a path of " + length);
+        }
+        Builder builder = new Builder(length - from);
+        for (int i = from; i < length; ) {
+            int run = runFrom(i);
+            builder.add(getAction(i), run);
+            i += run;
+        }
+        return builder.build();
+    }
+    
+    /**
+     * @return The number of longs the path is stored in.
+     */
+    int getWordCount () {
+        return words.length;
+    }
+    
+    /**
+     * @return The path as a list of actions of the format ["R", "R", "L", ...],
+     * as Pathfinder.solve returns it.
+     */
+    public ArrayList<String> toActions () {
+        ArrayList<String> actions = new ArrayList<>(length);
+        for (int i = 0; i < length; ) {
+            String action = MazeProblem.ACTIONS[getAction(i)];
+            for (int run = runFrom(i); run > 0; run--, i++) {
+                actions.add(action);
+            }
+        }
+        return actions;
+    }
+    
+    /**
+     * @return The index of the run holding move i, by binary search over the ends
+     * of the runs.
+     */
+    private int runOf (int i) {
+        int low = 0, high = words.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if ((words[mid] >>> 2) <= i) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+    
+    /**
+     * @return The action code of the given one-character action, or -1 if it is
+     * not one of "U", "D", "L", or "R".
+     */
+    static int codeOf (String action) {
+        if (action == null || action.length() != 1) {
+            return -1;
+        }
+        switch (action.charAt(0)) {
+            case 'U': return MazeProblem.UP;
+            case 'D': return MazeProblem.DOWN;
+            case 'L': return MazeProblem.LEFT;
+            case 'R': return MazeProblem.RIGHT;
+            default:  return -1;
+        }
+    }
+    
+    private static int moveAt (long[] words, int i) {
+        return (int) (words[i >>> 5] >>> ((i & (MOVES_PER_WORD - 1)) << 1)) & 3;
+    }
+    
+    private static int countRuns (long[] words, int length) {
+        int runs = (length == 0) ? 0 : 1;
+        for (int i = 1; i < length; i++) {
+            if (moveAt(words, i) != moveAt(words, i - 1)) {
+                runs++;
+            }
+        }
+        return runs;
+    }
+    
+    @Override
+    public boolean equals (Object other) {
+        if (!(other instanceof CompactPath)) {
+            return false;
+        }
+        CompactPath path = (CompactPath) other;
+        if (path.length != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (path.getAction(i) != getAction(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    @Override
+    public int hashCode () {
+        int hash = length;
+        for (int i = 0; i < length; ) {
+            int run = runFrom(i);
+            hash = 31 * (31 * hash + getAction(i)) + run;
+            i += run;
+        }
+        return hash;
+    }
+    
+    /**
+     * @return The path as one character per move, e.g. "RRUL".
+     */
+    @Override
+    public String toString () {
+        StringBuilder moves = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            moves.append(MazeProblem.ACTIONS[getAction(i)]);
+        }
+        return moves.toString();
+    }
+
+
+/**
+ * Builds a CompactPath by appending moves, or whole runs of them, packed 2 bits
+ * each as they arrive.
+ */
+public static final class Builder {
+    
+    private long[] words;
+    private int length;
+    
+    /**
+     * Constructs an empty builder.
+     */
+    public Builder () {
+        this(MOVES_PER_WORD);
+    }
+    
+    /**
+     * Constructs an empty builder with room for the given number of moves.
+     */
+    public Builder (int capacity) {
+        words = new long[Math.max(1, -Math.floorDiv(-capacity, MOVES_PER_WORD))];
+    }
+    
+    /**
+     * @return The number of moves appended so far.
+     */
+    public int length () {
+        return length;
+    }
+    
+    /**
+     * Appends one move.
+     * 
+     * @param action The action code: MazeProblem.UP, DOWN, LEFT, or RIGHT
+     * @return This builder
+     */
+    public Builder add (int action) {
+        return add(action, 1);
+    }
+    
+    /**
+     * Appends a straight run of the same move.
+     * 
+     * @param action The action code: MazeProblem.UP, DOWN, LEFT, or RIGHT
+     * @param count The number of times to make the move
+     * @return This builder
+     */
+    public Builder add (int action, int count) {
+        if (action < MazeProblem.UP || action > MazeProblem.RIGHT || count < 0) {
+            throw new IllegalArgumentException("Invalid run of " + count + " of action " + action);
+        }
+        ensureCapacity(length + count);
+        for (; count > 0; count--, length++) {
+            words[length >>> 5] |= (long) action << ((length & (MOVES_PER_WORD - 1)) << 1);
+        }
+        return this;
+    }
+    
+    /**
+     * Empties the builder, so that it can build another path in the same space.
+     */
+    void clear () {
+        Arrays.fill(words, 0, -Math.floorDiv(-length, MOVES_PER_WORD), 0L);
+        length = 0;
+    }
+    
+    /**
+     * Reverses the order of the moves from the given one to the last, e.g. those
+     * appended while walking parent links back from the end of a path.
+     * 
+     * @param from The index of the first move to reverse
+     */
+    void reverse (int from) {
+        for (int i = from, j = length - 1; i < j; i++, j--) {
+            int a = moveAt(words, i), b = moveAt(words, j);
+            set(i, b);
+            set(j, a);
+        }
+    }
+    
+    private void set (int i, int action) {
+        int shift = (i & (MOVES_PER_WORD - 1)) << 1;
+        words[i >>> 5] = (words[i >>> 5] & ~(3L << shift)) | ((long) action << shift);
+    }
+    
+    private void ensureCapacity (int moves) {
+        if (moves < 0) {
+            throw new IllegalArgumentException("Path too long");
+        }
+        int needed = -Math.floorDiv(-moves, MOVES_PER_WORD);
+        if (needed > words.length) {
+            words = Arrays.copyOf(words, Math.max(needed, 2 * words.length));
+        }
+    }
+    
+    /**
+     * Builds the path of the moves appended so far, run-length encoded if that
+     * takes fewer words than packing them. The builder may be reused after.
+     * 
+     * @return The path
+     */
+    public CompactPath build () {
+        int runs = countRuns(words, length), packed = -Math.floorDiv(-length, MOVES_PER_WORD);
+        if (runs >= packed) {
+            return new CompactPath(length, false, Arrays.copyOf(words, packed));
+        }
+        long[] ends = new long[runs];
+        for (int i = 0, r = 0; i < length; r++) {
+            int action = moveAt(words, i);
+            do {
+                i++;
+            } while (i < length && moveAt(words, i) == action);
+            ends[r] = ((long) i << 2) | action;
+        }
+        return new CompactPath(length, true, ends);
+    }
+
+}
+
+}
@@ -0,0 +1,472 @@
+/** ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ *  File name     :  DistanceField.java
+ *  Purpose       :  Provides a multi-goal distance field over a MazeProblem, built in parallel by row bands
+ *  @author       :  Sebastian Grasso / Brett Derham
+ *  Date          :  2026-10-18
+ *  Description   :  Holds, for every cell, the cost of the cheapest path to the nearest of a set of target
+ *                   cells (by default the goals) and which target that is, so that both can be read in O(1).
+ *                   The field is built by a single backward Dijkstra seeded from every target at once, with
+ *                   the maze split into bands of rows across a ForkJoinPool: each band runs Dijkstra over its
+ *                   own rows, and hands cells it improves in a neighboring band to that band's inbox. Bands
+ *                   wake whenever their inbox fills, and the build ends once every band is idle. Distances
+ *                   only ever decrease (by compare-and-set), so the field converges to the exact costs.
+ *                   Includes the following:
+ *                   
+ *                   static DistanceField of (MazeProblem problem)
+ *                   // Returns the (cached) distance field to the goals of the given problem's maze
+ *                   
+ *                   static DistanceField build (MazeProblem problem, int[] targets, ForkJoinPool pool)
+ *                   // Builds the distance field to the given target cells on the given pool
+ *                   
+ *                   public int distanceToGoal (int cell) / public int nearestGoal (int cell)
+ *                   // Returns the cost to / the packed index of the nearest target from the given cell
+ *                   
+ *                   public ArrayList<String> pathToGoal (int cell)
+ *                   // Returns the actions of a cheapest path from the given cell to its nearest target
+ *                   
+ *                   public int estimate (int cell, int keyMask)
+ *                   // Returns the distance to the nearest goal; exact once every key is held
+ *                   
+ *  Warnings      :  None
+ *  Exceptions    :  None
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ *  Revision History
+ *  ---------------
+ *            Rev      Date     Modified by:  Reason for change/modification
+ *           -----  ----------  ------------  -----------------------------------------------------------
+ *  @version 1.0.0  2026-10-18  Authors       Parallel multi-goal distance fields
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~ */
+
+
+package pathfinder.informed;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Distance-to-nearest-target field over the cells of a MazeProblem. The field
+ * to the goals is an admissible, consistent Heuristic for any key mask, and a
+ * perfect one once every key is held.
+ */
+public final class DistanceField implements Heuristic {
+    
+    // Fields
+    // -----------------------------------------------------------------------------
+    
+    // Mazes smaller than this are built in a single band on the calling thread
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+    
+    // Each thread of the pool gets this many bands, so that bands whose rows are
+    // mostly walls do not leave threads idle
+    private static final int BANDS_PER_THREAD = 4;
+    
+    // Marks a cell whose nearest target has not been resolved yet
+    private static final int UNRESOLVED = -2;
+    
+    private static final VarHandle CELLS = MethodHandles.arrayElementVarHandle(int[].class);
+    
+    private final MazeProblem problem;
+    private final int[] dist, nearest;
+    
+    
+    // Constructor
+    // -----------------------------------------------------------------------------
+    
+    private DistanceField (MazeProblem problem, int[] dist, int[] nearest) {
+        this.problem = problem;
+        this.dist = dist;
+        this.nearest = nearest;
+    }
+    
+    /**
+     * Returns the distance field to the goals of the given problem's maze, built
+     * once on the common pool and then shared by every problem over the same maze.
+     */
+    public static DistanceField of (MazeProblem problem) {
+        return problem.derive(DistanceField.class, p -> build(p, p.getGoalCells(), ForkJoinPool.commonPool()));
+    }
+    
+    /**
+     * Builds the distance field to the given target cells, splitting the maze into
+     * bands of rows across the given pool.
+     * 
+     * @param problem The MazeProblem whose cells are measured
+     * @param targets The packed indexes of the (open) cells to measure to
+     * @param pool The pool to build the field on
+     * @return The distance field to the nearest target
+     */
+    static DistanceField build (MazeProblem problem, int[] targets, ForkJoinPool pool) {
+        int cellCount = problem.getCellCount(), rows = problem.getRows(), cols = problem.getCols();
+        int[] dist = new int[cellCount];
+        Arrays.fill(dist, UNREACHABLE);
+        
+        int bandCount = (cellCount < PARALLEL_THRESHOLD || rows == 0) ? 1
+                      : Math.min(rows, pool.getParallelism() * BANDS_PER_THREAD);
+        int rowsPerBand = (bandCount == 1) ? Math.max(rows, 1) : -Math.floorDiv(-rows, bandCount);
+        bandCount = (rows == 0) ? 1 : -Math.floorDiv(-rows, rowsPerBand);
+        
+        Build build = new Build(problem, dist, bandCount, rowsPerBand * cols);
+        for (int target : targets) {
+            dist[target] = 0;
+            build.bandOf(target).post(target);
+        }
+        if (bandCount == 1) {
+            build.bands[0].runInline();
+        } else {
+            build.start(pool);
+            build.done.join();
+        }
+        
+        int[] nearest = new int[cellCount];
+        Arrays.fill(nearest, UNRESOLVED);
+        for (int target : targets) {
+            nearest[target] = target;
+        }
+        DistanceField field = new DistanceField(problem, dist, nearest);
+        if (bandCount == 1) {
+            field.resolveNearest(0, cellCount);
+        } else {
+            CompletableFuture<?>[] passes = new CompletableFuture<?>[bandCount];
+            for (int b = 0; b < bandCount; b++) {
+                int first = b * build.bandSize, end = Math.min(cellCount, first + build.bandSize);
+                passes[b] = CompletableFuture.runAsync(() -> field.resolveNearest(first, end), pool);
+            }
+            CompletableFuture.allOf(passes).join();
+        }
+        return field;
+    }
+    
+    
+    // Methods
+    // -----------------------------------------------------------------------------
+    
+    /**
+     * @return The cost of the cheapest path from the given cell to its nearest
+     * target, or UNREACHABLE if none can be reached.
+     */
+    public int distanceToGoal (int cell) {
+        return dist[cell];
+    }
+    
+    /**
+     * @return The packed index of the target nearest to the given cell, or -1 if
+     * none can be reached.
+     */
+    public int nearestGoal (int cell) {
+        return nearest[cell];
+    }
+    
+    /**
+     * Walks down the field from the given cell, at each step moving to a neighbor
+     * that is exactly the cost of the move closer, until a target is reached.
+     * 
+     * @param cell The packed index of the cell to start from
+     * @return The actions leading to the nearest target, or null if none can be reached
+     */
+    public ArrayList<String> pathToGoal (int cell) {
+        if (dist[cell] == UNREACHABLE) {
+            return null;
+        }
+        ArrayList<String> path = new ArrayList<>();
+        while (dist[cell] != 0) {
+            int action = downhill(cell);
+            path.add(MazeProblem.ACTIONS[action]);
+            cell = problem.getNeighbor(cell, action);
+        }
+        return path;
+    }
+    
+    /**
+     * The distance to the nearest goal never overestimates the cost of finishing,
+     * whatever keys are still missing, and is exact once every key is held.
+     */
+    @Override
+    public int estimate (int cell, int keyMask) {
+        return dist[cell];
+    }
+    
+    /**
+     * @return The first action from the given (reachable, non-target) cell onto a
+     * neighbor that lies on a cheapest path to the nearest target.
+     */
+    private int downhill (int cell) {
+        for (int action = MazeProblem.UP; action <= MazeProblem.RIGHT; action++) {
+            int next = problem.getNeighbor(cell, action);
+            if (next != -1 && dist[next] != UNREACHABLE && dist[next] + problem.getCost(next) == dist[cell]) {
+                return action;
+            }
+        }
+        throw new IllegalStateException("Distance field is inconsistent at cell " + cell);
+    }
+    
+    /**
+     * Resolves the nearest target of every cell in [first, end) by following the
+     * downhill chain from each cell until it meets a resolved cell, and then
+     * labelling the whole chain. The downhill choice is deterministic, so bands
+     * that meet on a shared chain write the same labels.
+     */
+    private void resolveNearest (int first, int end) {
+        int[] chain = new int[16];
+        for (int start = first; start < end; start++) {
+            if (nearest[start] != UNRESOLVED) {
+                continue;
+            }
+            if (dist[start] == UNREACHABLE) {
+                nearest[start] = -1;
+                continue;
+            }
+            int length = 0, cell = start;
+            while (nearest[cell] == UNRESOLVED) {
+                if (length == chain.length) {
+                    chain = Arrays.copyOf(chain, length * 2);
+                }
+                chain[length++] = cell;
+                cell = problem.getNeighbor(cell, downhill(cell));
+            }
+            int label = nearest[cell];
+            while (length > 0) {
+                nearest[chain[--length]] = label;
+            }
+        }
+    }
+    
+    
+    /**
+     * The shared state of one parallel build: the distance array and the bands.
+     */
+    private static final class Build {
+        
+        final MazeProblem problem;
+        final int[] dist;
+        final int bandSize;
+        final Band[] bands;
+        final AtomicInteger active = new AtomicInteger();
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+        ForkJoinPool pool;
+        
+        Build (MazeProblem problem, int[] dist, int bandCount, int bandSize) {
+            this.problem = problem;
+            this.dist = dist;
+            this.bandSize = Math.max(bandSize, 1);
+            bands = new Band[bandCount];
+            for (int b = 0; b < bandCount; b++) {
+                bands[b] = new Band(this, b * this.bandSize, Math.min(dist.length, (b + 1) * this.bandSize));
+            }
+        }
+        
+        Band bandOf (int cell) {
+            return bands[cell / bandSize];
+        }
+        
+        /**
+         * Schedules every band that was seeded with a target, or finishes at once
+         * if none were.
+         */
+        void start (ForkJoinPool pool) {
+            this.pool = pool;
+            active.incrementAndGet();
+            for (Band band : bands) {
+                band.wake();
+            }
+            finished();
+        }
+        
+        void finished () {
+            if (active.decrementAndGet() == 0) {
+                done.complete(null);
+            }
+        }
+        
+        /**
+         * Lowers the distance of the given cell to d if that is an improvement.
+         * 
+         * @return Whether the distance was lowered
+         */
+        boolean lower (int cell, int d) {
+            int current = (int) CELLS.getVolatile(dist, cell);
+            while (d < current) {
+                if (CELLS.compareAndSet(dist, cell, current, d)) {
+                    return true;
+                }
+                current = (int) CELLS.getVolatile(dist, cell);
+            }
+            return false;
+        }
+        
+    }
+    
+    
+    /**
+     * A band of whole rows, owning the cells [first, end). Runs Dijkstra over its
+     * own cells with a lazily-deleted heap, and posts cells it improves outside of
+     * the band to the owning band's inbox.
+     */
+    private static final class Band implements Runnable {
+        
+        private final Build build;
+        private final int first, end;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        
+        // Cells posted by other bands (or seeded), guarded by this
+        private int[] inbox = new int[16];
+        private int inboxSize;
+        
+        // Entries of (distance << 32 | cell); an entry is stale once the cell's
+        // distance has dropped below the one it was queued with
+        private long[] heap = new long[16];
+        private int heapSize;
+        
+        Band (Build build, int first, int end) {
+            this.build = build;
+            this.first = first;
+            this.end = end;
+        }
+        
+        /**
+         * Adds the given cell, whose distance has just been lowered, to the inbox
+         * and makes sure the band is scheduled to process it.
+         */
+        void post (int cell) {
+            synchronized (this) {
+                if (inboxSize == inbox.length) {
+                    inbox = Arrays.copyOf(inbox, inboxSize * 2);
+                }
+                inbox[inboxSize++] = cell;
+            }
+            if (build.pool != null) {
+                wake();
+            }
+        }
+        
+        void wake () {
+            synchronized (this) {
+                if (inboxSize == 0) {
+                    return;
+                }
+            }
+            if (scheduled.compareAndSet(false, true)) {
+                build.active.incrementAndGet();
+                build.pool.execute(this);
+            }
+        }
+        
+        @Override
+        public void run () {
+            try {
+                while (true) {
+                    drainInbox();
+                    relax();
+                    scheduled.set(false);
+                    synchronized (this) {
+                        if (inboxSize == 0) {
+                            break;
+                        }
+                    }
+                    // More cells arrived while finishing; carry on unless a new
+                    // run has already been scheduled to handle them
+                    if (!scheduled.compareAndSet(false, true)) {
+                        break;
+                    }
+                }
+                build.finished();
+            } catch (Throwable t) {
+                build.done.completeExceptionally(t);
+            }
+        }
+        
+        /**
+         * Runs the band to completion on the calling thread; only used when the
+         * band is the only one, so nothing is ever posted to it from outside.
+         */
+        void runInline () {
+            drainInbox();
+            relax();
+        }
+        
+        private void drainInbox () {
+            synchronized (this) {
+                for (int i = 0; i < inboxSize; i++) {
+                    push(inbox[i]);
+                }
+                inboxSize = 0;
+            }
+        }
+        
+        /**
+         * Backward Dijkstra over the band: from a settled cell, each neighbor can
+         * reach it by paying the cell's own cost.
+         */
+        private void relax () {
+            MazeProblem problem = build.problem;
+            int[] dist = build.dist;
+            while (heapSize > 0) {
+                long top = pop();
+                int cell = (int) top, d = (int) (top >>> 32);
+                if ((int) CELLS.getVolatile(dist, cell) != d) {
+                    continue;
+                }
+                int dNext = d + problem.getCost(cell);
+                for (int action = MazeProblem.UP; action <= MazeProblem.RIGHT; action++) {
+                    int next = problem.getNeighbor(cell, action);
+                    if (next == -1 || !build.lower(next, dNext)) {
+                        continue;
+                    }
+                    if (next >= first && next < end) {
+                        push(next, dNext);
+                    } else {
+                        build.bandOf(next).post(next);
+                    }
+                }
+            }
+        }
+        
+        private void push (int cell) {
+            push(cell, (int) CELLS.getVolatile(build.dist, cell));
+        }
+        
+        private void push (int cell, int d) {
+            if (heapSize == heap.length) {
+                heap = Arrays.copyOf(heap, heapSize * 2);
+            }
+            long entry = ((long) d << 32) | cell;
+            int slot = heapSize++;
+            while (slot > 0) {
+                int parent = (slot - 1) >>> 1;
+                if (heap[parent] <= entry) {
+                    break;
+                }
+                heap[slot] = heap[parent];
+                slot = parent;
+            }
+            heap[slot] = entry;
+        }
+        
+        private long pop () {
+            long top = heap[0], last = heap[--heapSize];
+            int slot = 0, half = heapSize >>> 1;
+            while (slot < half) {
+                int child = 2 * slot + 1;
+                if (child + 1 < heapSize && heap[child + 1] < heap[child]) {
+                    child++;
+                }
+                if (last <= heap[child]) {
+                    break;
+                }
+                heap[slot] = heap[child];
+                slot = child;
+            }
+            if (heapSize > 0) {
+                heap[slot] = last;
+            }
+            return top;
+        }
+        
+    }
+    
+}
@@ -0,0 +1,206 @@
+/** ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ *  File name     :  DynamicMaze.java
+ *  Purpose       :  Provides a mutable maze whose walls and mud can change between searches
+ *  @author       :  Sebastian Grasso / Brett Derham
+ *  Date          :  2026-10-18
+ *  Description   :  A maze whose open, wall, and mud cells can be changed in place, one cell at a time, while
+ *                   its initial, key, and goal cells stay put. Every change is reported to the registered
+ *                   listeners (e.g., an IncrementalPlanner) so that they can repair their state rather than
+ *                   start over. An immutable MazeProblem of the current maze can be taken at any time for
+ *                   the other solvers.
+ *                   Includes the following:
+ *                   
+ *                   public DynamicMaze (String[] maze) / DynamicMaze (MazeProblem problem)
+ *                   // Constructs a mutable copy of the given maze
+ *                   
+ *                   public void setCell (int col, int row, char type)
+ *                   // Changes the cell at (col, row) to an open ('.'), wall ('X'), or mud ('M') cell
+ *                   
+ *                   public byte getType (int col, int row)
+ *                   // Returns the current type of the cell at (col, row)
+ *                   
+ *                   public MazeProblem snapshot ()
+ *                   // Returns an immutable MazeProblem of the maze as it is now
+ *                   
+ *                   public void addListener (Listener listener) / removeListener (Listener listener)
+ *                   // Registers / unregisters a listener for cell changes
+ *                   
+ *  Warnings      :  Not thread-safe; edits and the searches over them must not run concurrently
+ *  Exceptions    :  IllegalArgumentException when a cell is out of bounds, is the initial, a key, or a
+ *                   goal cell, or is given an unknown type
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ *  Revision History
+ *  ---------------
+ *            Rev      Date     Modified by:  Reason for change/modification
+ *           -----  ----------  ------------  -----------------------------------------------------------
+ *  @version 1.0.0  2026-10-18  Authors       Mutable maze with change notification
+ *  @version 1.0.1  2026-10-18  Authors       Hooks run on each new snapshot, to seed its derived values
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~ */
+
+
+package pathfinder.informed;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A maze whose open, wall, and mud cells can change over time.
+ */
+public final class DynamicMaze {
+    
+    /**
+     * Receives every change made to a DynamicMaze, right after it is made.
+     */
+    public interface Listener {
+        
+        /**
+         * @param cell The packed index of the cell that changed
+         * @param previous The cell's type before the change
+         * @param current The cell's type after the change
+         */
+        void cellChanged (int cell, byte previous, byte current);
+    
+    }
+    
+    
+    // Fields
+    // -----------------------------------------------------------------------------
+    private final byte[] cells;
+    
+    // A MazeProblem over the live, mutable grid, for the package's searches; it is
+    // never handed out, since its derived tables would go stale after an edit
+    private final MazeProblem live;
+    
+    // The initial, key, and goal cells, which may not be edited
+    private final BitSet fixed;
+    
+    private final List<Listener> listeners = new ArrayList<Listener>();
+    
+    // Run on each new snapshot, e.g. to seed it with values kept up to date by edits
+    private final List<Consumer<MazeProblem>> snapshotHooks = new ArrayList<Consumer<MazeProblem>>();
+    
+    // The last snapshot taken, until the next edit
+    private MazeProblem snapshot;
+    
+    
+    // Constructors
+    // -----------------------------------------------------------------------------
+    
+    /**
+     * Constructs a mutable copy of the given maze, in the format accepted by
+     * MazeProblem.
+     */
+    public DynamicMaze (String[] maze) {
+        this(new MazeProblem(maze));
+    }
+    
+    /**
+     * Constructs a mutable copy of the given problem's maze, starting from its
+     * initial state.
+     */
+    public DynamicMaze (MazeProblem problem) {
+        cells = new byte[problem.getCellCount()];
+        for (int cell = 0; cell < cells.length; cell++) {
+            cells[cell] = problem.getType(cell);
+        }
+        live = new MazeProblem(cells, problem.getRows(), problem.getCols(), problem.INITIAL_CELL,
+                               problem.getKeyCells(), problem.getGoalCells());
+        fixed = new BitSet(cells.length);
+        for (int[] special : new int[][] { problem.getKeyCells(), problem.getGoalCells() }) {
+            for (int cell : special) {
+                fixed.set(cell);
+            }
+        }
+        if (problem.INITIAL_CELL != -1) {
+            fixed.set(problem.INITIAL_CELL);
+        }
+        snapshot = problem;
+    }
+    
+    
+    // Methods
+    // -----------------------------------------------------------------------------
+    
+    /**
+     * Changes the cell at (col, row) and notifies every listener; setting a cell
+     * to the type it already has does nothing.
+     * 
+     * @param col The column of the cell to change
+     * @param row The row of the cell to change
+     * @param type '.' for an open cell, 'X' for a wall, or 'M' for mud
+     */
+    public void setCell (int col, int row, char type) {
+        if (col < 0 || col >= live.getCols() || row < 0 || row >= live.getRows()) {
+            throw new IllegalArgumentException("(" + col + ", " + row + ") is outside of the maze");
+        }
+        int cell = live.index(col, row);
+        if (fixed.get(cell)) {
+            throw new IllegalArgumentException("The initial, key, and goal cells cannot be changed");
+        }
+        
+        byte current;
+        switch (type) {
+            case '.': current = MazeProblem.OPEN; break;
+            case 'X': current = MazeProblem.WALL; break;
+            case 'M': current = MazeProblem.MUD;  break;
+            default: throw new IllegalArgumentException("Unknown cell type: " + type);
+        }
+        byte previous = cells[cell];
+        if (previous == current) {
+            return;
+        }
+        cells[cell] = current;
+        snapshot = null;
+        for (Listener listener : listeners) {
+            listener.cellChanged(cell, previous, current);
+        }
+    }
+    
+    /**
+     * @return The current type of the cell at (col, row): MazeProblem.WALL, OPEN, or MUD.
+     */
+    public byte getType (int col, int row) {
+        return live.getType(live.index(col, row));
+    }
+    
+    /**
+     * Returns an immutable MazeProblem of the maze as it is now, which later edits
+     * do not affect. The same snapshot is returned until the next edit.
+     */
+    public MazeProblem snapshot () {
+        if (snapshot == null) {
+            snapshot = new MazeProblem(cells.clone(), live.getRows(), live.getCols(), live.INITIAL_CELL,
+                                       live.getKeyCells(), live.getGoalCells());
+            for (Consumer<MazeProblem> hook : snapshotHooks) {
+                hook.accept(snapshot);
+            }
+        }
+        return snapshot;
+    }
+    
+    public void addListener (Listener listener) {
+        listeners.add(listener);
+    }
+    
+    public void removeListener (Listener listener) {
+        listeners.remove(listener);
+    }
+    
+    /**
+     * Runs the given hook on every snapshot taken from now on, as it is created.
+     */
+    void onSnapshot (Consumer<MazeProblem> hook) {
+        snapshotHooks.add(hook);
+    }
+    
+    /**
+     * @return A MazeProblem over the live grid, which reflects every edit as it is
+     * made; only for searches that never derive tables from it.
+     */
+    MazeProblem live () {
+        return live;
+    }
+
+}
@@ -0,0 +1,681 @@
+/** ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ *  File name     :  ExternalSearch.java
+ *  Purpose       :  Provides an external-memory Dijkstra over the states of a MazeProblem, for mazes whose
+ *                   search does not fit on the heap
+ *  @author       :  Sebastian Grasso / Brett Derham
+ *  Date          :  2026-10-18
+ *  Description   :  Dial's bucketed Dijkstra (as in MazeDistances) over (cell, keyMask) states, with its
+ *                   frontier and settled states kept in files rather than arrays. Each distance d modulo 4 has a
+ *                   bucket file, to which the successors of the layer at d - 1 and d - 3 are appended unsorted, as
+ *                   (state, parent) pairs; duplicates are not looked up as they are generated, but removed
+ *                   all at once when the bucket's turn comes (delayed duplicate detection): the bucket is
+ *                   sorted by state with an external merge sort, duplicates are dropped, and so are the states
+ *                   already settled in the last six layers. No other layer can hold a state again, since a
+ *                   state and any predecessor with the same key mask are at most 3 apart, and so a duplicate is
+ *                   generated at most 6 after the state was settled; the few states at key cells, which can
+ *                   also be reached from predecessors with fewer keys, are tracked in memory instead. What is
+ *                   left is the layer at d, appended sorted to a single file of every layer as it is expanded,
+ *                   with its start recorded in an index file, so that once a goal is settled the path is read
+ *                   back from the goal, one binary search within a layer per move. The bucket is then emptied
+ *                   in place for d + 4. The search keeps six files, however long its paths, plus the runs of
+ *                   buckets too large to sort in memory; each is read and written sequentially through a
+ *                   fixed-size buffer, and the heap used is bounded by the given memory limit, however large
+ *                   the maze.
+ *                   Includes the following:
+ *                   
+ *                   ExternalSearch (Path workDir, long memoryBytes)
+ *                   // Constructs a search that keeps its files under workDir, using about memoryBytes of heap
+ *                   
+ *                   CompactPath search (MazeProblem problem, int source)
+ *                   // Returns an optimal path from the source to a goal, or null if there is none
+ *                   
+ *                   SearchStats stats (long wallNanos, long cpuNanos)
+ *                   // Returns the counts of the last search, along with the given times
+ *                   
+ *  Warnings      :  Needs about 8 bytes of disk per state settled and per successor generated; the states
+ *                   settled at key cells are held in memory, up to keys * 2^keys bits, outside the limit
+ *  Exceptions    :  IOException when a file cannot be written or read; IllegalArgumentException for memory
+ *                   limits below MIN_MEMORY
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ *  Revision History
+ *  ---------------
+ *            Rev      Date     Modified by:  Reason for change/modification
+ *           -----  ----------  ------------  -----------------------------------------------------------
+ *  @version 1.0.0  2026-10-18  Authors       Out-of-core search for Pathfinder.solveExternal
+ *  @version 1.1.0  2026-10-18  Authors       Layers appended to one file through an index; buckets reused
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~ */
+
+
+package pathfinder.informed;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Dial's Dijkstra over the (cell, keyMask) states of a MazeProblem, with its
+ * buckets and layers in files and delayed duplicate detection.
+ */
+final class ExternalSearch {
+    
+    // Fields
+    // -----------------------------------------------------------------------------
+    
+    // One bucket per distance modulo the largest move cost plus one
+    private static final int BUCKETS = 4;
+    
+    // A state can only be generated again within this many of its own distance
+    private static final int WINDOW = 6;
+    
+    // Every file is read and written through a buffer of this many bytes
+    private static final int BUFFER = 64 * 1024;
+    
+    // The buffers in use while a layer is expanded, besides those of the merge: the
+    // four buckets, the layers and their index, the window of layers before the
+    // one expanded, and the bucket being sorted
+    private static final int OPEN_FILES = BUCKETS + 2 + WINDOW + 1;
+    
+    // The smallest memory limit, leaving room for the sort and a merge of 20 runs
+    static final long MIN_MEMORY = 64L * BUFFER;
+    
+    // The parent recorded for the source, which has none
+    private static final int NO_PARENT = -1;
+    
+    private final Path workDir;
+    private final int sortLongs, fanIn;
+    
+    // The files of the search under way, the buffer its buckets are sorted in, and
+    // the one they are read into it through
+    private Path dir;
+    private long[] chunk = new long[0];
+    private final ByteBuffer sortBuffer = ByteBuffer.allocate(BUFFER);
+    private int files;
+    
+    // What the last search did, reported through SearchStats
+    private long expanded, generated, peakFrontier;
+    private int pathCost;
+    
+    
+    // Constructor
+    // -----------------------------------------------------------------------------
+    
+    /**
+     * Constructs a search that keeps its files in a new directory under the given
+     * one, deleted again once each search is over. Half of the memory limit is
+     * used to sort buckets, the rest for the buffers of the files open at once.
+     * 
+     * @param workDir The directory to keep the search's files under
+     * @param memoryBytes The heap the search may use, at least MIN_MEMORY
+     */
+    ExternalSearch (Path workDir, long memoryBytes) {
+        if (memoryBytes < MIN_MEMORY) {
+            throw new IllegalArgumentException("Memory limit must be at least " + MIN_MEMORY + " bytes");
+        }
+        this.workDir = workDir;
+        this.sortLongs = (int) Math.min(Integer.MAX_VALUE - 8, memoryBytes / 2 / Long.BYTES);
+        this.fanIn = (int) Math.min(1024, memoryBytes / 2 / BUFFER - OPEN_FILES - 1);
+    }
+    
+    
+    // Methods
+    // -----------------------------------------------------------------------------
+    
+    /**
+     * Runs the search from the given cell until the first layer holding a goal
+     * state, and reads the path to it back from the layer files.
+     * 
+     * @param problem The MazeProblem to search
+     * @param source The packed index of the cell to start from
+     * @return The moves of an optimal path to a goal, or null if none can be
+     * reached
+     * @throws IOException If a file of the search cannot be written or read
+     */
+    CompactPath search (MazeProblem problem, int source) throws IOException {
+        expanded = generated = peakFrontier = 0;
+        pathCost = -1;
+        files = 0;
+        dir = Files.createTempDirectory(workDir, "search");
+        try {
+            return run(problem, source);
+        } finally {
+            try (Stream<Path> leftover = Files.list(dir)) {
+                for (Path file : (Iterable<Path>) leftover::iterator) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            Files.deleteIfExists(dir);
+            dir = null;
+        }
+    }
+    
+    private CompactPath run (MazeProblem problem, int source) throws IOException {
+        int keyCount = problem.getKeyCount(), maskBits = problem.getAllKeysMask();
+        BitSet settledKeys = new BitSet();
+        
+        // Every layer settled so far, appended in order of distance to one file, and
+        // the index of where each one starts in it; only the starts of the layers
+        // in the window are kept in memory, in a ring
+        long[] starts = new long[WINDOW + 1];
+        ByteBuffer[] windowBuffers = new ByteBuffer[WINDOW];
+        for (int i = 0; i < WINDOW; i++) {
+            windowBuffers[i] = ByteBuffer.allocate(BUFFER);
+        }
+        
+        // The buckets of the distances still to come, by distance modulo BUCKETS,
+        // each emptied in place once it is sorted
+        LongWriter[] buckets = new LongWriter[BUCKETS];
+        long[] pending = new long[BUCKETS];
+        try (LongWriter layers = new LongWriter(newFile()); LongWriter index = new LongWriter(newFile())) {
+            for (int b = 0; b < BUCKETS; b++) {
+                buckets[b] = new LongWriter(newFile());
+            }
+            int start = (source << keyCount) | problem.getKeyMask(source, 0);
+            buckets[0].write(pair(start, NO_PARENT));
+            pending[0] = generated = peakFrontier = 1;
+            
+            for (int d = 0; pending[0] + pending[1] + pending[2] + pending[3] > 0; d++) {
+                int b = d % BUCKETS;
+                starts[d % starts.length] = layers.size();
+                index.write(layers.size());
+                int goal = -1;
+                
+                LongReader[] earlier = new LongReader[Math.min(d, WINDOW)];
+                for (int i = 0; i < earlier.length; i++) {
+                    int layer = d - earlier.length + i;
+                    earlier[i] = layers.reader(starts[layer % starts.length], starts[(layer + 1) % starts.length],
+                                               windowBuffers[i]);
+                }
+                try (Merge window = new Merge(earlier, List.of()); LongReader sorted = sort(buckets[b])) {
+                    buckets[b].clear();
+                    pending[b] = 0;
+                    for (int last = -1; sorted.hasNext(); ) {
+                        long entry = sorted.next();
+                        int state = stateOf(entry);
+                        if (state == last || window.contains(state)) {
+                            continue;
+                        }
+                        last = state;
+                        int cell = state >>> keyCount, keyMask = state & maskBits,
+                            key = problem.getKeyMask(cell, 0);
+                        if (key != 0) {
+                            int bit = (Integer.numberOfTrailingZeros(key) << keyCount) | keyMask;
+                            if (settledKeys.get(bit)) {
+                                continue;
+                            }
+                            settledKeys.set(bit);
+                        }
+                        layers.write(entry);
+                        expanded++;
+                        if (goal == -1 && problem.isGoal(cell, keyMask)) {
+                            goal = state;
+                        }
+                        for (int action = MazeProblem.UP; action <= MazeProblem.RIGHT; action++) {
+                            int nextCell = problem.getNeighbor(cell, action);
+                            if (nextCell == -1) {
+                                continue;
+                            }
+                            int next = (nextCell << keyCount) | problem.getKeyMask(nextCell, keyMask),
+                                nb = (d + problem.getCost(nextCell)) % BUCKETS;
+                            buckets[nb].write(pair(next, state));
+                            pending[nb]++;
+                            generated++;
+                        }
+                    }
+                }
+                peakFrontier = Math.max(peakFrontier, pending[0] + pending[1] + pending[2] + pending[3]);
+                if (goal != -1) {
+                    pathCost = d;
+                    return pathTo(problem, layers, index, goal, d);
+                }
+            }
+            return null;
+        } finally {
+            for (LongWriter bucket : buckets) {
+                if (bucket != null) {
+                    bucket.close();
+                }
+            }
+        }
+    }
+    
+    /**
+     * Reads the path to the given state back from the layers: the state's parent
+     * is looked up in the layer of its distance, found through the index, which
+     * then leads to the parent's layer by the cost of the move between them.
+     */
+    private CompactPath pathTo (MazeProblem problem, LongWriter layers, LongWriter index, int goal, int distance)
+            throws IOException {
+        layers.flush();
+        index.flush();
+        int keyCount = problem.getKeyCount();
+        CompactPath.Builder path = new CompactPath.Builder();
+        ByteBuffer probe = ByteBuffer.allocate(Long.BYTES);
+        for (int state = goal, d = distance; ; ) {
+            long from = index.read(d, probe), to = (d == distance) ? layers.size() : index.read(d + 1, probe);
+            int parent = parentIn(layers, from, to, state, probe);
+            if (parent == NO_PARENT) {
+                break;
+            }
+            int fromCell = parent >>> keyCount, toCell = state >>> keyCount;
+            path.add(AStarSearch.actionBetween(problem, fromCell, toCell));
+            d -= problem.getCost(toCell);
+            state = parent;
+        }
+        path.reverse(0);
+        return path.build();
+    }
+    
+    /**
+     * @return The parent recorded for the given state in the layer held by the
+     * longs [from, to) of the layers file, which is sorted, by binary search.
+     */
+    private static int parentIn (LongWriter layers, long from, long to, int state, ByteBuffer probe)
+            throws IOException {
+        long low = from, high = to - 1;
+        while (low <= high) {
+            long mid = (low + high) >>> 1;
+            long entry = layers.read(mid, probe);
+            if (stateOf(entry) < state) {
+                low = mid + 1;
+            } else if (stateOf(entry) > state) {
+                high = mid - 1;
+            } else {
+                return (int) entry;
+            }
+        }
+        throw new IOException("State " + state + " is missing from its layer");
+    }
+    
+    /**
+     * Sorts the given bucket by state: in memory if it fits in the sort buffer,
+     * and otherwise as sorted runs of that size, merged fanIn at a time until few
+     * enough are left to merge while reading. The runs are deleted as they are
+     * merged; the bucket itself is left as it is, for the caller to empty.
+     * 
+     * @return A reader over the bucket's pairs in order of state, which no longer
+     * depends on the bucket
+     */
+    private LongReader sort (LongWriter bucket) throws IOException {
+        long count = bucket.size();
+        if (chunk.length < Math.min(count, sortLongs)) {
+            chunk = new long[(int) Math.min(Math.max(count, 2L * chunk.length), sortLongs)];
+        }
+        List<Path> runs = new ArrayList<>();
+        try (LongReader in = bucket.reader(0, count, sortBuffer)) {
+            while (in.hasNext()) {
+                int n = 0;
+                while (n < chunk.length && in.hasNext()) {
+                    chunk[n++] = in.next();
+                }
+                Arrays.sort(chunk, 0, n);
+                if (runs.isEmpty() && !in.hasNext()) {
+                    return LongReader.of(chunk, n);
+                }
+                Path run = newFile();
+                try (LongWriter out = new LongWriter(run)) {
+                    for (int i = 0; i < n; i++) {
+                        out.write(chunk[i]);
+                    }
+                }
+                runs.add(run);
+            }
+        }
+        if (runs.isEmpty()) {
+            return LongReader.of(chunk, 0);
+        }
+        while (runs.size() > fanIn) {
+            List<Path> merged = new ArrayList<>();
+            for (int i = 0; i < runs.size(); i += fanIn) {
+                List<Path> group = runs.subList(i, Math.min(runs.size(), i + fanIn));
+                Path run = newFile();
+                try (Merge merge = Merge.open(group); LongWriter out = new LongWriter(run)) {
+                    while (merge.hasNext()) {
+                        out.write(merge.next());
+                    }
+                }
+                for (Path done : group) {
+                    Files.delete(done);
+                }
+                merged.add(run);
+            }
+            runs = merged;
+        }
+        return Merge.open(runs).deleting();
+    }
+    
+    private Path newFile () {
+        return dir.resolve((files++) + ".bin");
+    }
+    
+    private static long pair (int state, int parent) {
+        return ((long) state << 32) | (parent & 0xFFFFFFFFL);
+    }
+    
+    private static int stateOf (long pair) {
+        return (int) (pair >>> 32);
+    }
+    
+    /**
+     * Returns the statistics of the last search, along with the given times,
+     * which are measured by the caller. The peak frontier counts the pairs waiting
+     * in bucket files, duplicates included; counts beyond Integer.MAX_VALUE are
+     * clamped to it.
+     */
+    SearchStats stats (long wallNanos, long cpuNanos) {
+        return new SearchStats(clamp(expanded), clamp(generated), 0, clamp(peakFrontier), 0, pathCost,
+                               wallNanos, cpuNanos);
+    }
+    
+    private static int clamp (long count) {
+        return (int) Math.min(count, Integer.MAX_VALUE);
+    }
+
+
+/**
+ * Appends longs to a file through a buffer, sequentially, and reads back what
+ * it holds at given positions, without disturbing the writes.
+ */
+private static final class LongWriter implements AutoCloseable {
+    
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER);
+    
+    // The number of longs written, including those still in the buffer
+    private long size;
+    
+    LongWriter (Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+    
+    void write (long value) throws IOException {
+        if (!buffer.hasRemaining()) {
+            flush();
+        }
+        buffer.putLong(value);
+        size++;
+    }
+    
+    /**
+     * @return The number of longs written since the file was created or cleared.
+     */
+    long size () {
+        return size;
+    }
+    
+    void flush () throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+    
+    /**
+     * Flushes the file and returns a reader over its longs [from, to), through
+     * the given buffer; closing the reader leaves this file open.
+     */
+    LongReader reader (long from, long to, ByteBuffer readBuffer) throws IOException {
+        flush();
+        return new LongReader(channel, from * Long.BYTES, to * Long.BYTES, readBuffer, false);
+    }
+    
+    /**
+     * @return The long at the given position, which must have been flushed.
+     */
+    long read (long position, ByteBuffer probe) throws IOException {
+        probe.clear();
+        while (probe.hasRemaining()) {
+            if (channel.read(probe, position * Long.BYTES + probe.position()) == -1) {
+                throw new EOFException("Truncated search file");
+            }
+        }
+        return probe.getLong(0);
+    }
+    
+    /**
+     * Empties the file, to be written again from the start.
+     */
+    void clear () throws IOException {
+        buffer.clear();
+        channel.truncate(0);
+        channel.position(0);
+        size = 0;
+    }
+    
+    /**
+     * Flushes and closes the file; closing it again does nothing.
+     */
+    @Override
+    public void close () throws IOException {
+        if (channel.isOpen()) {
+            try {
+                flush();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+}
+
+
+/**
+ * Reads longs sequentially through a buffer, from a whole file or a range of
+ * one; or from an array, for buckets sorted in memory.
+ */
+private static class LongReader implements AutoCloseable {
+    
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final boolean owned;
+    
+    // The byte offsets of the next byte to read, and of the end of the range
+    private long position, end;
+    
+    LongReader (Path file) throws IOException {
+        this(FileChannel.open(file, StandardOpenOption.READ), 0, -1, ByteBuffer.allocate(BUFFER), true);
+    }
+    
+    /**
+     * Reads the bytes [from, to) of the given channel, or from from to its end if
+     * to is -1, by position; the channel is closed with the reader if owned.
+     */
+    LongReader (FileChannel channel, long from, long to, ByteBuffer buffer, boolean owned) throws IOException {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.owned = owned;
+        this.position = from;
+        this.end = (to == -1) ? channel.size() : to;
+        buffer.clear();
+        buffer.flip();
+    }
+    
+    private LongReader () {
+        channel = null;
+        buffer = null;
+        owned = false;
+    }
+    
+    /**
+     * @return A reader over the first count longs of the given array.
+     */
+    static LongReader of (long[] values, int count) {
+        return new LongReader() {
+            private int next;
+            
+            @Override
+            boolean hasNext () {
+                return next < count;
+            }
+            
+            @Override
+            long next () {
+                return values[next++];
+            }
+        };
+    }
+    
+    boolean hasNext () throws IOException {
+        if (buffer.remaining() >= Long.BYTES) {
+            return true;
+        }
+        buffer.compact();
+        while (buffer.position() < Long.BYTES && position < end) {
+            buffer.limit((int) Math.min(buffer.capacity(), buffer.position() + (end - position)));
+            int read = channel.read(buffer, position);
+            if (read == -1) {
+                throw new EOFException("Truncated search file");
+            }
+            position += read;
+        }
+        buffer.flip();
+        if (buffer.remaining() >= Long.BYTES) {
+            return true;
+        }
+        if (buffer.hasRemaining()) {
+            throw new EOFException("Truncated search file");
+        }
+        return false;
+    }
+    
+    /**
+     * @return The next long; hasNext must have returned true.
+     */
+    long next () throws IOException {
+        return buffer.getLong();
+    }
+    
+    @Override
+    public void close () throws IOException {
+        if (owned) {
+            channel.close();
+        }
+    }
+
+}
+
+
+/**
+ * Merges sorted readers into one sorted stream through an IndexedMinHeap of
+ * their next longs, or answers whether a state is in any of them, for a window
+ * of layers read in step with the sorted bucket.
+ */
+private static final class Merge extends LongReader {
+    
+    private final List<Path> files;
+    private final LongReader[] readers;
+    private final IndexedMinHeap heads;
+    private boolean deleting;
+    
+    /**
+     * Merges the given readers, which are closed with the merge; the given files
+     * are those deleted, if deleting is asked for.
+     */
+    Merge (LongReader[] readers, List<Path> files) throws IOException {
+        super();
+        this.files = files;
+        this.readers = readers;
+        heads = new IndexedMinHeap(Math.max(1, readers.length));
+        try {
+            for (int i = 0; i < readers.length; i++) {
+                advance(i);
+            }
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+    
+    /**
+     * @return A merge of the given files.
+     */
+    static Merge open (List<Path> files) throws IOException {
+        LongReader[] readers = new LongReader[files.size()];
+        try {
+            for (int i = 0; i < readers.length; i++) {
+                readers[i] = new LongReader(files.get(i));
+            }
+        } catch (IOException e) {
+            for (LongReader reader : readers) {
+                if (reader != null) {
+                    reader.close();
+                }
+            }
+            throw e;
+        }
+        return new Merge(readers, files);
+    }
+    
+    /**
+     * Deletes the merged files once the merge is closed.
+     * 
+     * @return This merge
+     */
+    Merge deleting () {
+        deleting = true;
+        return this;
+    }
+    
+    @Override
+    boolean hasNext () {
+        return !heads.isEmpty();
+    }
+    
+    @Override
+    long next () throws IOException {
+        long value = heads.peekKey();
+        advance(heads.poll());
+        return value;
+    }
+    
+    /**
+     * Skips every pair of a state less than the given one, which must be no less
+     * than the state of the last call, and returns whether a pair of the given
+     * state is next in any of the readers.
+     */
+    boolean contains (int state) throws IOException {
+        while (!heads.isEmpty() && stateOf(heads.peekKey()) < state) {
+            advance(heads.poll());
+        }
+        return !heads.isEmpty() && stateOf(heads.peekKey()) == state;
+    }
+    
+    private void advance (int i) throws IOException {
+        if (readers[i].hasNext()) {
+            heads.insert(i, readers[i].next());
+        }
+    }
+    
+    @Override
+    public void close () throws IOException {
+        IOException failure = null;
+        for (LongReader reader : readers) {
+            try {
+                if (reader != null) {
+                    reader.close();
+                }
+            } catch (IOException e) {
+                failure = (failure == null) ? e : failure;
+            }
+        }
+        for (int i = 0; deleting && i < files.size(); i++) {
+            Files.deleteIfExists(files.get(i));
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+}
+
+}
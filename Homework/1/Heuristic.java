@@ -0,0 +1,48 @@
+/** ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ *  File name     :  Heuristic.java
+ *  Purpose       :  Provides the interface for the admissible heuristics that guide the A* searches
+ *  @author       :  Sebastian Grasso / Brett Derham
+ *  Date          :  2026-10-18
+ *  Description   :  A Heuristic estimates the cost of finishing a MazeProblem from a (cell, keyMask) state.
+ *                   Implementations are built for one maze and may be shared by any number of searches
+ *                   and threads over that maze, whatever their initial states.
+ *                   Includes the following:
+ *                   
+ *                   int estimate (int cell, int keyMask)
+ *                   // Returns a lower bound on the cost of reaching a goal holding every key
+ *                   
+ *  Warnings      :  Estimates must never overestimate, or solutions may not be optimal
+ *  Exceptions    :  None
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ *  Revision History
+ *  ---------------
+ *            Rev      Date     Modified by:  Reason for change/modification
+ *           -----  ----------  ------------  -----------------------------------------------------------
+ *  @version 1.0.0  2026-10-18  Authors       Pluggable heuristics for Pathfinder
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~ */
+
+
+package pathfinder.informed;
+
+/**
+ * Admissible estimate of the cost of finishing a MazeProblem from a given
+ * (cell, keyMask) state.
+ */
+public interface Heuristic {
+    
+    // Returned for states from which no goal can be reached at all
+    int UNREACHABLE = Integer.MAX_VALUE;
+    
+    /**
+     * Returns a lower bound on the cost of reaching a goal, holding every key,
+     * from the given cell while holding the given keys. Implementations should
+     * also be consistent (never dropping by more than the cost of a move), so
+     * that A* never needs to expand a state twice.
+     * 
+     * @param cell The packed index of the cell to estimate from
+     * @param keyMask The keys already held
+     * @return The estimated cost, or UNREACHABLE if no goal can be reached
+     */
+    int estimate (int cell, int keyMask);
+    
+}
@@ -0,0 +1,590 @@
+/** ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ *  File name     :  HierarchicalMap.java
+ *  Purpose       :  Provides the cluster abstraction of a MazeProblem for hierarchical (HPA*) path-finding
+ *  @author       :  Sebastian Grasso / Brett Derham
+ *  Date          :  2026-10-18
+ *  Description   :  Partitions the maze into square clusters. Wherever two neighboring clusters share a run
+ *                   of open cells along their border, one transition (or, for wide runs, one at each end)
+ *                   becomes an entrance: a pair of abstract nodes, one on either side. Keys and goals are
+ *                   abstract nodes of their clusters too. The cheapest cost between every two nodes of a
+ *                   cluster, staying inside it, is computed once per cluster. A query then connects its
+ *                   start to the nodes of its own cluster, runs A* over the small abstract graph of
+ *                   (node, keyMask) states, and refines only the chosen hops back into moves, one cluster
+ *                   at a time, so its cost grows with the length of the path rather than the area of the
+ *                   maze. Paths are near-optimal: they may cost slightly more than Pathfinder.solve's.
+ *                   Includes the following:
+ *                   
+ *                   public static HierarchicalMap of (MazeProblem problem)
+ *                   // Returns the (cached) map with the default cluster size for the given problem's maze
+ *                   
+ *                   public static HierarchicalMap of (MazeProblem problem, int clusterSize)
+ *                   // Returns the (cached) map with the given cluster size for the given problem's maze
+ *                   
+ *                   public HierarchicalMap update (MazeProblem edited, int col, int row)
+ *                   // Returns the map of a maze differing from this one at (col, row), rebuilding only
+ *                      the clusters that cell can affect
+ *                   
+ *                   public ArrayList<String> findPath (int source)
+ *                   // Returns a path from the given cell that collects every key and ends on a goal
+ *                   
+ *                   public int getClusterSize ()
+ *                   public int getNodeCount ()
+ *                   
+ *                   static SearchStats lastStats (int pathCost, long wallNanos, long cpuNanos)
+ *                   // Returns the counts of the calling thread's last abstract search
+ *                   
+ *  Warnings      :  Paths are not guaranteed to be optimal
+ *  Exceptions    :  IllegalArgumentException when the cluster size is not positive, or an edited maze
+ *                   does not have the same dimensions, keys, and goals
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ *  Revision History
+ *  ---------------
+ *            Rev      Date     Modified by:  Reason for change/modification
+ *           -----  ----------  ------------  -----------------------------------------------------------
+ *  @version 1.0.0  2026-10-18  Authors       Hierarchical path-finding over cached clusters
+ *  @version 1.1.0  2026-10-18  Authors       Counts of the abstract search for SearchStats
+ *  @version 1.1.1  2026-10-18  Authors       Scratch grown so that an OutOfMemoryError leaves it usable
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~ */
+
+
+package pathfinder.informed;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Cluster abstraction of a maze for hierarchical path-finding. Immutable, and
+ * safe to query from any number of threads.
+ */
+public final class HierarchicalMap {
+    
+    // Fields
+    // -----------------------------------------------------------------------------
+    static final int DEFAULT_CLUSTER_SIZE = 16;
+    
+    // Border runs of open cells at least this long get a transition at each end,
+    // shorter ones a single transition in the middle
+    private static final int WIDE_ENTRANCE = 6;
+    
+    private static final int UNREACHABLE = Integer.MAX_VALUE;
+    
+    // Per-thread scratch space for the abstract search, reused from one query to
+    // the next
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+    
+    private final MazeProblem problem;
+    private final int size, clusterRows, clusterCols;
+    private final Cluster[] clusters;
+    
+    // Abstract node ids of cluster c are base[c] up to base[c + 1]
+    private final int[] base;
+    
+    
+    // Constructors
+    // -----------------------------------------------------------------------------
+    
+    /**
+     * Builds the map of the given problem's maze, every cluster from scratch.
+     */
+    private HierarchicalMap (MazeProblem problem, int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("The cluster size must be positive");
+        }
+        this.problem = problem;
+        this.size = size;
+        this.clusterRows = -Math.floorDiv(-problem.getRows(), size);
+        this.clusterCols = -Math.floorDiv(-problem.getCols(), size);
+        this.clusters = new Cluster[clusterRows * clusterCols];
+        for (int c = 0; c < clusters.length; c++) {
+            clusters[c] = buildCluster(c);
+        }
+        this.base = offsets(clusters);
+    }
+    
+    /**
+     * Builds the map of an edited maze from the map of the original, rebuilding
+     * only the cluster holding the edited cell and those sharing a border with it
+     * at that cell.
+     */
+    private HierarchicalMap (MazeProblem edited, HierarchicalMap original, int col, int row) {
+        this.problem = edited;
+        this.size = original.size;
+        this.clusterRows = original.clusterRows;
+        this.clusterCols = original.clusterCols;
+        this.clusters = original.clusters.clone();
+        
+        int cr = row / size, cc = col / size;
+        clusters[cr * clusterCols + cc] = buildCluster(cr * clusterCols + cc);
+        if (row % size == 0 && cr > 0) {
+            clusters[(cr - 1) * clusterCols + cc] = buildCluster((cr - 1) * clusterCols + cc);
+        }
+        if (row % size == size - 1 && cr < clusterRows - 1) {
+            clusters[(cr + 1) * clusterCols + cc] = buildCluster((cr + 1) * clusterCols + cc);
+        }
+        if (col % size == 0 && cc > 0) {
+            clusters[cr * clusterCols + cc - 1] = buildCluster(cr * clusterCols + cc - 1);
+        }
+        if (col % size == size - 1 && cc < clusterCols - 1) {
+            clusters[cr * clusterCols + cc + 1] = buildCluster(cr * clusterCols + cc + 1);
+        }
+        this.base = offsets(clusters);
+    }
+    
+    /**
+     * Returns the map, with the default cluster size, for the given problem's maze,
+     * built once and then shared by every problem over the same maze.
+     */
+    public static HierarchicalMap of (MazeProblem problem) {
+        return of(problem, DEFAULT_CLUSTER_SIZE);
+    }
+    
+    /**
+     * Returns the map, with the given cluster size, for the given problem's maze,
+     * built once and then shared by every problem over the same maze.
+     */
+    public static HierarchicalMap of (MazeProblem problem, int clusterSize) {
+        return problem.derive(Arrays.asList(HierarchicalMap.class, clusterSize),
+                              p -> new HierarchicalMap(p, clusterSize));
+    }
+    
+    
+    // Methods
+    // -----------------------------------------------------------------------------
+    
+    /**
+     * Returns the map of the given edited maze, which must differ from this map's
+     * maze only in the type of the cell at (col, row). Only the clusters that cell
+     * can affect are rebuilt; the rest are shared with this map. The result is
+     * cached on the edited problem, so that a later of(edited) returns it.
+     * 
+     * @param edited The MazeProblem of the edited maze
+     * @param col The column of the edited cell
+     * @param row The row of the edited cell
+     * @return The map of the edited maze
+     */
+    public HierarchicalMap update (MazeProblem edited, int col, int row) {
+        if (edited.getRows() != problem.getRows() || edited.getCols() != problem.getCols()
+            || !Arrays.equals(edited.getKeyCells(), problem.getKeyCells())
+            || !Arrays.equals(edited.getGoalCells(), problem.getGoalCells())) {
+            throw new IllegalArgumentException("The edited maze must keep the same dimensions, keys, and goals");
+        }
+        if (col < 0 || col >= problem.getCols() || row < 0 || row >= problem.getRows()) {
+            throw new IllegalArgumentException("(" + col + ", " + row + ") is outside of the maze");
+        }
+        return edited.derive(Arrays.asList(HierarchicalMap.class, size),
+                             e -> new HierarchicalMap(e, this, col, row));
+    }
+    
+    /**
+     * Returns a path from the given cell that collects every key and ends on a
+     * goal, or null if there is none.
+     * 
+     * @param source The packed index of the cell to start from
+     * @return An ArrayList of Strings representing the actions of the path, of the
+     * format: ["R", "R", "L", ...]
+     */
+    public ArrayList<String> findPath (int source) {
+        if (problem.getType(source) == MazeProblem.WALL) {
+            return null;
+        }
+        Scratch scratch = SCRATCH.get();
+        int[] nodes = search(source, scratch);
+        if (nodes == null) {
+            return null;
+        }
+        
+        ArrayList<String> path = new ArrayList<String>();
+        for (int i = 1; i < nodes.length; i++) {
+            int from = nodes[i - 1], to = nodes[i];
+            if (clusterOf(from) == clusterOf(to)) {
+                refine(from, to, path);
+            } else {
+                path.add(MazeProblem.ACTIONS[AStarSearch.actionBetween(problem, from, to)]);
+            }
+        }
+        return path;
+    }
+    
+    public int getClusterSize () {
+        return size;
+    }
+    
+    /**
+     * @return The number of abstract nodes (entrance sides, keys, and goals) in the map.
+     */
+    public int getNodeCount () {
+        return base[clusters.length];
+    }
+    
+    /**
+     * Returns the statistics of the last abstract search run by findPath on the
+     * calling thread, along with the given path cost and times, which are
+     * measured by the caller. The searches within clusters are not counted.
+     */
+    static SearchStats lastStats (int pathCost, long wallNanos, long cpuNanos) {
+        Scratch scratch = SCRATCH.get();
+        return new SearchStats(scratch.expanded, scratch.generated, 0, scratch.peakFrontier, scratch.evaluations,
+                               pathCost, wallNanos, cpuNanos);
+    }
+    
+    /**
+     * Runs A* over the (node, keyMask) states of the abstract graph, plus the
+     * given source cell as an extra node linked to the nodes of its cluster.
+     * 
+     * @return The cells of the nodes on the path found, starting with the source,
+     * or null if there is none
+     */
+    private int[] search (int source, Scratch scratch) {
+        int keyCount = problem.getKeyCount(), maskBits = problem.getAllKeysMask(),
+            nodeCount = getNodeCount(), startNode = nodeCount;
+        Heuristic heuristic = ManhattanHeuristic.of(problem);
+        scratch.reset((nodeCount + 1) << keyCount);
+        
+        int sourceCluster = clusterOf(source);
+        int[] sourceCosts = costsFrom(sourceCluster, source, null);
+        Cluster home = clusters[sourceCluster];
+        
+        int start = (startNode << keyCount) | problem.getKeyMask(source, 0),
+            h = heuristic.estimate(source, start & maskBits);
+        scratch.evaluations++;
+        if (h == Heuristic.UNREACHABLE) {
+            return null;
+        }
+        scratch.open(start, 0, -1, h);
+        
+        while (!scratch.heap.isEmpty()) {
+            int state = scratch.close(), node = state >>> keyCount, keyMask = state & maskBits,
+                cell = (node == startNode) ? source : cellOf(node), gState = scratch.g[state];
+            if (problem.isGoal(cell, keyMask)) {
+                return trace(scratch, state, keyCount, startNode, source);
+            }
+            
+            if (node == startNode) {
+                for (int j = 0; j < home.nodes.length; j++) {
+                    int cost = sourceCosts[local(sourceCluster, home.nodes[j])];
+                    if (cost != UNREACHABLE) {
+                        relax(scratch, heuristic, state, gState + cost, base[sourceCluster] + j, keyMask);
+                    }
+                }
+                continue;
+            }
+            
+            // Hops across the cluster, then steps over its borders
+            int c = clusterOf(cell), i = node - base[c];
+            Cluster cluster = clusters[c];
+            int n = cluster.nodes.length;
+            for (int j = 0; j < n; j++) {
+                int cost = cluster.costs[i * n + j];
+                if (j != i && cost != UNREACHABLE) {
+                    relax(scratch, heuristic, state, gState + cost, base[c] + j, keyMask);
+                }
+            }
+            for (int action = MazeProblem.UP; action <= MazeProblem.RIGHT; action++) {
+                int next = problem.getNeighbor(cell, action);
+                if (next == -1 || clusterOf(next) == c) {
+                    continue;
+                }
+                int other = clusterOf(next), j = Arrays.binarySearch(clusters[other].nodes, next);
+                if (j >= 0) {
+                    relax(scratch, heuristic, state, gState + problem.getCost(next), base[other] + j, keyMask);
+                }
+            }
+        }
+        return null;
+    }
+    
+    private void relax (Scratch scratch, Heuristic heuristic, int state, int gNext, int node, int keyMask) {
+        int keyCount = problem.getKeyCount(), cell = cellOf(node),
+            nextMask = problem.getKeyMask(cell, keyMask),
+            next = (node << keyCount) | nextMask;
+        if (scratch.isClosed(next)) {
+            return;
+        }
+        if (!scratch.isOpen(next)) {
+            int h = heuristic.estimate(cell, nextMask);
+            scratch.evaluations++;
+            if (h != Heuristic.UNREACHABLE) {
+                scratch.open(next, gNext, state, gNext + h);
+            }
+        } else if (gNext < scratch.g[next]) {
+            scratch.lower(next, gNext, state, gNext + heuristic.estimate(cell, nextMask));
+            scratch.evaluations++;
+        }
+    }
+    
+    private int[] trace (Scratch scratch, int end, int keyCount, int startNode, int source) {
+        ArrayList<Integer> cells = new ArrayList<Integer>();
+        for (int state = end; state != -1; state = scratch.parent[state]) {
+            int node = state >>> keyCount;
+            cells.add((node == startNode) ? source : cellOf(node));
+        }
+        Collections.reverse(cells);
+        return cells.stream().mapToInt(Integer::intValue).toArray();
+    }
+    
+    /**
+     * Appends the moves of the cheapest path from one cell to another, staying
+     * inside their (shared) cluster.
+     */
+    private void refine (int from, int to, ArrayList<String> into) {
+        int c = clusterOf(from);
+        int[] parents = new int[area(c)];
+        costsFrom(c, from, parents);
+        int start = into.size();
+        for (int cell = to; cell != from; ) {
+            int prev = parents[local(c, cell)];
+            into.add(MazeProblem.ACTIONS[AStarSearch.actionBetween(problem, prev, cell)]);
+            cell = prev;
+        }
+        Collections.reverse(into.subList(start, into.size()));
+    }
+    
+    
+    // Cluster construction
+    // -----------------------------------------------------------------------------
+    
+    /**
+     * The abstract nodes of one cluster, and the cheapest costs between them.
+     */
+    private static final class Cluster {
+        // The packed cells of the cluster's nodes, in ascending order
+        final int[] nodes;
+        
+        // costs[i * nodes.length + j] is the cheapest cost from node i to node j
+        // inside the cluster, or UNREACHABLE
+        final int[] costs;
+        
+        Cluster (int[] nodes, int[] costs) {
+            this.nodes = nodes;
+            this.costs = costs;
+        }
+    }
+    
+    private Cluster buildCluster (int c) {
+        int cr = c / clusterCols, cc = c % clusterCols,
+            top = cr * size, left = cc * size,
+            bottom = Math.min(top + size, problem.getRows()) - 1,
+            right = Math.min(left + size, problem.getCols()) - 1;
+        
+        int[] found = new int[4 * size + 8];
+        int count = 0;
+        if (cr > 0) {
+            count = addEntrances(found, count, problem.index(left, top), 1, right - left + 1, -problem.getCols());
+        }
+        if (cr < clusterRows - 1) {
+            count = addEntrances(found, count, problem.index(left, bottom), 1, right - left + 1, problem.getCols());
+        }
+        if (cc > 0) {
+            count = addEntrances(found, count, problem.index(left, top), problem.getCols(), bottom - top + 1, -1);
+        }
+        if (cc < clusterCols - 1) {
+            count = addEntrances(found, count, problem.index(right, top), problem.getCols(), bottom - top + 1, 1);
+        }
+        for (int[] special : new int[][] { problem.getKeyCells(), problem.getGoalCells() }) {
+            for (int cell : special) {
+                if (clusterOf(cell) == c) {
+                    if (count == found.length) {
+                        found = Arrays.copyOf(found, 2 * count);
+                    }
+                    found[count++] = cell;
+                }
+            }
+        }
+        int[] nodes = Arrays.stream(found, 0, count).sorted().distinct().toArray();
+        
+        int n = nodes.length;
+        int[] costs = new int[n * n];
+        for (int i = 0; i < n; i++) {
+            int[] dist = costsFrom(c, nodes[i], null);
+            for (int j = 0; j < n; j++) {
+                costs[i * n + j] = dist[local(c, nodes[j])];
+            }
+        }
+        return new Cluster(nodes, costs);
+    }
+    
+    /**
+     * Adds the entrance cells along one side of a cluster: the cells, from first
+     * and stepping by step, whose neighbor across the border (at offset across)
+     * is open too. Both clusters scan a shared border in the same order, so they
+     * always agree on where its transitions are.
+     */
+    private int addEntrances (int[] into, int count, int first, int step, int length, int across) {
+        int runStart = -1;
+        for (int i = 0; i <= length; i++) {
+            int cell = first + i * step;
+            boolean open = i < length && problem.getType(cell) != MazeProblem.WALL
+                           && problem.getType(cell + across) != MazeProblem.WALL;
+            if (open && runStart == -1) {
+                runStart = i;
+            } else if (!open && runStart != -1) {
+                int runEnd = i - 1;
+                if (runEnd - runStart + 1 >= WIDE_ENTRANCE) {
+                    into[count++] = first + runStart * step;
+                    into[count++] = first + runEnd * step;
+                } else {
+                    into[count++] = first + ((runStart + runEnd) / 2) * step;
+                }
+                runStart = -1;
+            }
+        }
+        return count;
+    }
+    
+    /**
+     * Runs Dijkstra's algorithm from the given cell over the cells of its cluster.
+     * 
+     * @param parents If not null, receives the local parent link of each cell
+     * @return The cheapest cost to each cell of the cluster, by local index
+     */
+    private int[] costsFrom (int c, int source, int[] parents) {
+        int area = area(c);
+        int[] dist = new int[area];
+        Arrays.fill(dist, UNREACHABLE);
+        IndexedMinHeap heap = new IndexedMinHeap(area);
+        
+        dist[local(c, source)] = 0;
+        heap.insert(local(c, source), 0);
+        while (!heap.isEmpty()) {
+            int at = heap.poll(), cell = global(c, at);
+            for (int action = MazeProblem.UP; action <= MazeProblem.RIGHT; action++) {
+                int next = problem.getNeighbor(cell, action);
+                if (next == -1 || clusterOf(next) != c) {
+                    continue;
+                }
+                int to = local(c, next), cost = dist[at] + problem.getCost(next);
+                if (cost < dist[to]) {
+                    if (dist[to] == UNREACHABLE) {
+                        heap.insert(to, cost);
+                    } else {
+                        heap.decreaseKey(to, cost);
+                    }
+                    dist[to] = cost;
+                    if (parents != null) {
+                        parents[to] = cell;
+                    }
+                }
+            }
+        }
+        return dist;
+    }
+    
+    
+    // Indexing
+    // -----------------------------------------------------------------------------
+    
+    private static int[] offsets (Cluster[] clusters) {
+        int[] base = new int[clusters.length + 1];
+        for (int c = 0; c < clusters.length; c++) {
+            base[c + 1] = base[c] + clusters[c].nodes.length;
+        }
+        return base;
+    }
+    
+    private int clusterOf (int cell) {
+        return (problem.rowOf(cell) / size) * clusterCols + problem.colOf(cell) / size;
+    }
+    
+    /**
+     * @return The packed cell of the given abstract node id.
+     */
+    private int cellOf (int node) {
+        int lo = 0, hi = clusters.length - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (base[mid] <= node) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return clusters[lo].nodes[node - base[lo]];
+    }
+    
+    private int width (int c) {
+        return Math.min(size, problem.getCols() - (c % clusterCols) * size);
+    }
+    
+    private int area (int c) {
+        return width(c) * Math.min(size, problem.getRows() - (c / clusterCols) * size);
+    }
+    
+    private int local (int c, int cell) {
+        return (problem.rowOf(cell) - (c / clusterCols) * size) * width(c)
+               + problem.colOf(cell) - (c % clusterCols) * size;
+    }
+    
+    private int global (int c, int local) {
+        return problem.index((c % clusterCols) * size + local % width(c),
+                             (c / clusterCols) * size + local / width(c));
+    }
+    
+    
+    // Search scratch space
+    // -----------------------------------------------------------------------------
+    
+    /**
+     * Epoch-stamped g-scores and parent links for the abstract search, reset in
+     * O(1) between queries in the same way as AStarSearch.
+     */
+    private static final class Scratch {
+        int[] g = new int[0], parent = new int[0], stamp = new int[0];
+        int epoch;
+        final IndexedMinHeap heap = new IndexedMinHeap(0);
+        
+        // What the last search did, reported through SearchStats
+        int expanded, generated, peakFrontier, evaluations;
+        
+        void reset (int capacity) {
+            if (capacity > stamp.length) {
+                heap.ensureCapacity(capacity);
+                g = Arrays.copyOf(g, capacity);
+                parent = Arrays.copyOf(parent, capacity);
+                stamp = Arrays.copyOf(stamp, capacity);
+            }
+            if (epoch == Integer.MAX_VALUE) {
+                Arrays.fill(stamp, 0);
+                epoch = 0;
+            }
+            epoch++;
+            heap.clear();
+            expanded = generated = peakFrontier = evaluations = 0;
+        }
+        
+        boolean isOpen (int state) {
+            return stamp[state] == epoch;
+        }
+        
+        boolean isClosed (int state) {
+            return stamp[state] == -epoch;
+        }
+        
+        void open (int state, int gState, int from, int f) {
+            stamp[state] = epoch;
+            g[state] = gState;
+            parent[state] = from;
+            heap.insert(state, key(f, gState));
+            generated++;
+            peakFrontier = Math.max(peakFrontier, heap.size());
+        }
+        
+        void lower (int state, int gState, int from, int f) {
+            g[state] = gState;
+            parent[state] = from;
+            heap.decreaseKey(state, key(f, gState));
+        }
+        
+        int close () {
+            int state = heap.poll();
+            stamp[state] = -epoch;
+            expanded++;
+            return state;
+        }
+        
+        private static long key (int f, int g) {
+            return ((long) f << 32) | (Integer.MAX_VALUE - g);
+        }
+    }
+
+}
@@ -0,0 +1,339 @@
+/** ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ *  File name     :  IncrementalPlanner.java
+ *  Purpose       :  Provides incremental replanning (LPA*) over a DynamicMaze
+ *  @author       :  Sebastian Grasso / Brett Derham
+ *  Date          :  2026-10-18
+ *  Description   :  Lifelong Planning A* over the (cell, keyMask) states of a DynamicMaze, searching backward
+ *                   from a virtual goal (every goal cell reached holding every key) toward the initial state.
+ *                   The planner keeps the cost-to-go of every state it has settled between plans. When a cell
+ *                   changes, only the states whose moves enter or leave that cell are re-examined, and the
+ *                   repair spreads only as far as the costs actually change, so a small edit is replanned in
+ *                   time proportional to the region it affects rather than the whole maze. Each plan also
+ *                   reports the first step of the previous plan that the edits since then invalidated.
+ *                   Includes the following:
+ *                   
+ *                   public IncrementalPlanner (DynamicMaze maze)
+ *                   // Constructs a planner from the maze's initial state, listening for its edits
+ *                   
+ *                   public ArrayList<String> plan ()
+ *                   // Returns an optimal path for the maze as it is now, repairing the last one
+ *                   
+ *                   public int getInvalidatedStep ()
+ *                   // Returns the first step of the previous plan invalidated by the edits before this one
+ *                   
+ *                   public int getExpansions ()
+ *                   // Returns the number of states the last plan expanded
+ *                   
+ *                   public void close ()
+ *                   // Stops listening for the maze's edits
+ *                   
+ *  Warnings      :  Not thread-safe; uses O(states) memory for as long as it is kept
+ *  Exceptions    :  None
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ *  Revision History
+ *  ---------------
+ *            Rev      Date     Modified by:  Reason for change/modification
+ *           -----  ----------  ------------  -----------------------------------------------------------
+ *  @version 1.0.0  2026-10-18  Authors       Incremental replanning over a DynamicMaze
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~ */
+
+
+package pathfinder.informed;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Lifelong Planning A* from the initial state of a DynamicMaze to its goals.
+ */
+public final class IncrementalPlanner implements DynamicMaze.Listener {
+    
+    // Fields
+    // -----------------------------------------------------------------------------
+    private static final int INFINITE = Integer.MAX_VALUE;
+    
+    private final DynamicMaze maze;
+    private final MazeProblem problem;
+    private final int keyCount, maskBits, source, start;
+    
+    // g is the settled cost from each state to the virtual goal, rhs the one-step
+    // lookahead cost from its successors; a state is consistent when they agree
+    private final int[] g, rhs;
+    private final IndexedMinHeap open;
+    
+    // Cells edited since the last plan, in order, with no repeats
+    private final BitSet edited;
+    private int[] edits = new int[16];
+    private int editCount;
+    
+    // The cells visited by the last plan, starting from the initial cell
+    private int[] lastCells = new int[0];
+    private final BitSet onLastPlan;
+    
+    private int invalidatedStep = -1, expansions;
+    
+    
+    // Constructor
+    // -----------------------------------------------------------------------------
+    
+    /**
+     * Constructs a planner from the given maze's initial state to its goals, and
+     * registers it to hear about the maze's edits. No search is run until the
+     * first call to plan.
+     * 
+     * @param maze The DynamicMaze to plan over
+     */
+    public IncrementalPlanner (DynamicMaze maze) {
+        this.maze = maze;
+        this.problem = maze.live();
+        this.keyCount = problem.getKeyCount();
+        this.maskBits = problem.getAllKeysMask();
+        this.source = problem.INITIAL_CELL;
+        this.start = (source == -1) ? -1 : (source << keyCount) | problem.getKeyMask(source, 0);
+        
+        int states = problem.getStateCount();
+        g = new int[states];
+        rhs = new int[states];
+        Arrays.fill(g, INFINITE);
+        Arrays.fill(rhs, INFINITE);
+        open = new IndexedMinHeap(states);
+        edited = new BitSet(problem.getCellCount());
+        onLastPlan = new BitSet(problem.getCellCount());
+        
+        // The virtual goal is one free step past every goal cell held with all keys
+        for (int goal : problem.getGoalCells()) {
+            int state = (goal << keyCount) | maskBits;
+            rhs[state] = 0;
+            open.insert(state, key(state));
+        }
+        maze.addListener(this);
+    }
+    
+    
+    // Methods
+    // -----------------------------------------------------------------------------
+    
+    /**
+     * Returns an optimal path from the initial state for the maze as it is now.
+     * The first call searches from scratch; later calls only repair the states
+     * affected by the edits made since the previous call.
+     * 
+     * @return An ArrayList of Strings representing actions that lead from the initial to
+     * the goal state, of the format: ["R", "R", "L", ...], or null if there is none
+     */
+    public ArrayList<String> plan () {
+        invalidatedStep = -1;
+        for (int e = 0; e < editCount; e++) {
+            int cell = edits[e];
+            if (onLastPlan.get(cell)) {
+                for (int step = 1; step < lastCells.length; step++) {
+                    if (lastCells[step] == cell && (invalidatedStep == -1 || step - 1 < invalidatedStep)) {
+                        invalidatedStep = step - 1;
+                    }
+                }
+            }
+            repair(cell);
+            edited.clear(cell);
+        }
+        editCount = 0;
+        
+        expansions = 0;
+        if (start == -1) {
+            return null;
+        }
+        computeShortestPath();
+        return extractPath();
+    }
+    
+    /**
+     * Returns the index of the first action of the previous plan that the edits
+     * applied by the last call to plan invalidated, i.e. that moves into a cell
+     * whose type has since changed; or -1 if the previous plan was untouched.
+     */
+    public int getInvalidatedStep () {
+        return invalidatedStep;
+    }
+    
+    /**
+     * @return The number of states expanded by the last call to plan.
+     */
+    public int getExpansions () {
+        return expansions;
+    }
+    
+    /**
+     * Stops listening for the maze's edits; the planner cannot be used afterward.
+     */
+    public void close () {
+        maze.removeListener(this);
+    }
+    
+    @Override
+    public void cellChanged (int cell, byte previous, byte current) {
+        if (!edited.get(cell)) {
+            edited.set(cell);
+            if (editCount == edits.length) {
+                edits = Arrays.copyOf(edits, 2 * editCount);
+            }
+            edits[editCount++] = cell;
+        }
+    }
+    
+    /**
+     * Re-examines every state whose moves enter or leave the given cell: the cell
+     * itself and its neighbors, in every key layer.
+     */
+    private void repair (int cell) {
+        for (int keyMask = 0; keyMask <= maskBits; keyMask++) {
+            updateState((cell << keyCount) | keyMask);
+        }
+        int col = problem.colOf(cell), row = problem.rowOf(cell);
+        int[] around = { col > 0 ? cell - 1 : -1,
+                         col < problem.getCols() - 1 ? cell + 1 : -1,
+                         row > 0 ? cell - problem.getCols() : -1,
+                         row < problem.getRows() - 1 ? cell + problem.getCols() : -1 };
+        for (int neighbor : around) {
+            if (neighbor != -1) {
+                for (int keyMask = 0; keyMask <= maskBits; keyMask++) {
+                    updateState((neighbor << keyCount) | keyMask);
+                }
+            }
+        }
+    }
+    
+    private void computeShortestPath () {
+        while (!open.isEmpty() && (open.peekKey() < key(start) || rhs[start] != g[start])) {
+            int state = open.poll();
+            expansions++;
+            if (g[state] > rhs[state]) {
+                g[state] = rhs[state];
+            } else {
+                g[state] = INFINITE;
+                updateState(state);
+            }
+            updatePredecessors(state);
+        }
+    }
+    
+    /**
+     * Recomputes the lookahead cost of the given state from its successors, and
+     * queues it if that leaves it inconsistent.
+     */
+    private void updateState (int state) {
+        int cell = state >>> keyCount, keyMask = state & maskBits;
+        if (!problem.isGoal(cell, keyMask)) {
+            int best = INFINITE;
+            if (problem.getType(cell) != MazeProblem.WALL) {
+                for (int action = MazeProblem.UP; action <= MazeProblem.RIGHT; action++) {
+                    int next = problem.getNeighbor(cell, action);
+                    if (next == -1) {
+                        continue;
+                    }
+                    int to = g[(next << keyCount) | problem.getKeyMask(next, keyMask)];
+                    if (to != INFINITE) {
+                        best = Math.min(best, to + problem.getCost(next));
+                    }
+                }
+            }
+            rhs[state] = best;
+        }
+        
+        if (open.contains(state)) {
+            if (g[state] == rhs[state]) {
+                open.remove(state);
+            } else {
+                open.update(state, key(state));
+            }
+        } else if (g[state] != rhs[state]) {
+            open.insert(state, key(state));
+        }
+    }
+    
+    /**
+     * Updates every state with a move into the given one: the open neighbors of its
+     * cell, holding either the same keys or, when its cell is a key, all but that key.
+     */
+    private void updatePredecessors (int state) {
+        int cell = state >>> keyCount, keyMask = state & maskBits;
+        if (problem.getType(cell) == MazeProblem.WALL) {
+            return;
+        }
+        int key = problem.getKeyMask(cell, 0);
+        if ((keyMask & key) != key) {
+            return;
+        }
+        for (int action = MazeProblem.UP; action <= MazeProblem.RIGHT; action++) {
+            int prev = problem.getNeighbor(cell, action);
+            if (prev == -1) {
+                continue;
+            }
+            updateState((prev << keyCount) | keyMask);
+            if (key != 0) {
+                updateState((prev << keyCount) | (keyMask & ~key));
+            }
+        }
+    }
+    
+    /**
+     * Follows the cheapest successors from the initial state to a goal, and records
+     * the cells visited so that later edits can be matched against them.
+     */
+    private ArrayList<String> extractPath () {
+        onLastPlan.clear();
+        if (g[start] == INFINITE) {
+            lastCells = new int[0];
+            return null;
+        }
+        
+        ArrayList<String> path = new ArrayList<String>();
+        int[] cells = new int[16];
+        int count = 0, state = start;
+        cells[count++] = source;
+        while (!problem.isGoal(state >>> keyCount, state & maskBits)) {
+            int cell = state >>> keyCount, keyMask = state & maskBits,
+                bestAction = -1, bestState = -1;
+            long best = Long.MAX_VALUE;
+            for (int action = MazeProblem.UP; action <= MazeProblem.RIGHT; action++) {
+                int next = problem.getNeighbor(cell, action);
+                if (next == -1) {
+                    continue;
+                }
+                int to = (next << keyCount) | problem.getKeyMask(next, keyMask);
+                if (g[to] != INFINITE && (long) g[to] + problem.getCost(next) < best) {
+                    best = (long) g[to] + problem.getCost(next);
+                    bestAction = action;
+                    bestState = to;
+                }
+            }
+            path.add(MazeProblem.ACTIONS[bestAction]);
+            state = bestState;
+            if (count == cells.length) {
+                cells = Arrays.copyOf(cells, 2 * count);
+            }
+            cells[count++] = state >>> keyCount;
+        }
+        lastCells = Arrays.copyOf(cells, count);
+        for (int cell : lastCells) {
+            onLastPlan.set(cell);
+        }
+        return path;
+    }
+    
+    /**
+     * Orders the open list by [min(g, rhs) + h, min(g, rhs)], where h is the
+     * Manhattan distance back to the initial cell.
+     */
+    private long key (int state) {
+        int cost = Math.min(g[state], rhs[state]);
+        if (cost == INFINITE || source == -1) {
+            return ((long) INFINITE << 32) | INFINITE;
+        }
+        int cell = state >>> keyCount;
+        long f = Math.min((long) cost + ManhattanHeuristic.distance(problem.colOf(cell), problem.rowOf(cell),
+                                                                    problem.colOf(source), problem.rowOf(source)),
+                          INFINITE);
+        return (f << 32) | cost;
+    }
+
+}
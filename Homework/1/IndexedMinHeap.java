@@ -0,0 +1,264 @@
+/** ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ *  File name     :  IndexedMinHeap.java
+ *  Purpose       :  Provides a primitive, indexed binary min-heap used as the open list of the searches
+ *  @author       :  Sebastian Grasso / Brett Derham
+ *  Date          :  2026-10-18
+ *  Description   :  A binary min-heap of int ids ordered by long keys, which tracks the heap position of
+ *                   every id so that keys can be decreased in place. All storage lives in flat primitive
+ *                   arrays that are reused across searches, so no objects are allocated per entry.
+ *                   Includes the following:
+ *                   
+ *                   IndexedMinHeap (int capacity)
+ *                   // Constructs a new, empty heap able to hold ids in [0, capacity)
+ *                   
+ *                   void ensureCapacity (int capacity)
+ *                   // Grows the heap so that it can hold ids in [0, capacity)
+ *                   
+ *                   void insert (int id, long key) / void decreaseKey (int id, long key)
+ *                   // Adds an id to the heap / lowers the key of an id already in the heap
+ *                   
+ *                   void update (int id, long key) / boolean contains (int id) / void remove (int id)
+ *                   // Changes the key of / tests for / removes an id anywhere in the heap
+ *                   
+ *                   int poll () / int peek () / long peekKey ()
+ *                   // Removes / inspects the id with the smallest key
+ *                   
+ *                   int idAt (int slot) / void rekey (IntToLongFunction key)
+ *                   // Returns the id in a slot, to visit every id / replaces every key at once in O(size)
+ *                   
+ *  Warnings      :  Ids must be in [0, capacity); an id may only be in the heap once at a time
+ *  Exceptions    :  None
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ *  Revision History
+ *  ---------------
+ *            Rev      Date     Modified by:  Reason for change/modification
+ *           -----  ----------  ------------  -----------------------------------------------------------
+ *  @version 1.0.0  2026-10-18  Authors       Open list for the allocation-free A* search
+ *  @version 1.1.0  2026-10-18  Authors       Arbitrary key updates and removal for incremental replanning
+ *  @version 1.2.0  2026-10-18  Authors       Visiting and rekeying every id, for the passes of ARA*
+ *  @version 1.2.1  2026-10-18  Authors       Scratch grown so that an OutOfMemoryError leaves it usable
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~ */
+
+
+package pathfinder.informed;
+
+import java.util.Arrays;
+import java.util.function.IntToLongFunction;
+
+/**
+ * Binary min-heap of int ids ordered by long keys, with decrease-key support.
+ */
+final class IndexedMinHeap {
+    
+    // Fields
+    // -----------------------------------------------------------------------------
+    private int[] ids;      // heap slot -> id
+    private long[] keys;    // heap slot -> key
+    private int[] slots;    // id -> heap slot, only meaningful while the id is in the heap
+    private int size;
+    
+    
+    // Constructor
+    // -----------------------------------------------------------------------------
+    
+    /**
+     * Constructs a new, empty heap able to hold ids in [0, capacity).
+     * 
+     * @param capacity One more than the largest id that will be inserted
+     */
+    IndexedMinHeap (int capacity) {
+        ids = new int[Math.max(capacity, 1)];
+        keys = new long[ids.length];
+        slots = new int[ids.length];
+    }
+    
+    
+    // Methods
+    // -----------------------------------------------------------------------------
+    
+    /**
+     * Grows the heap so that it can hold ids in [0, capacity); existing entries
+     * are kept.
+     */
+    void ensureCapacity (int capacity) {
+        if (capacity > slots.length) {
+            // slots grows last, since its length decides whether to grow
+            ids = Arrays.copyOf(ids, capacity);
+            keys = Arrays.copyOf(keys, capacity);
+            slots = Arrays.copyOf(slots, capacity);
+        }
+    }
+    
+    /**
+     * Empties the heap in O(1).
+     */
+    void clear () {
+        size = 0;
+    }
+    
+    boolean isEmpty () {
+        return size == 0;
+    }
+    
+    int size () {
+        return size;
+    }
+    
+    /**
+     * @return The id with the smallest key, without removing it.
+     */
+    int peek () {
+        return ids[0];
+    }
+    
+    /**
+     * @return The smallest key in the heap.
+     */
+    long peekKey () {
+        return keys[0];
+    }
+    
+    /**
+     * Adds the given id to the heap; the id must not already be in it.
+     */
+    void insert (int id, long key) {
+        int slot = size++;
+        ids[slot] = id;
+        keys[slot] = key;
+        slots[id] = slot;
+        siftUp(slot);
+    }
+    
+    /**
+     * Lowers the key of the given id, which must currently be in the heap.
+     */
+    void decreaseKey (int id, long key) {
+        int slot = slots[id];
+        keys[slot] = key;
+        siftUp(slot);
+    }
+    
+    /**
+     * Changes the key of the given id, which must currently be in the heap, in
+     * either direction.
+     */
+    void update (int id, long key) {
+        int slot = slots[id];
+        long old = keys[slot];
+        keys[slot] = key;
+        if (key < old) {
+            siftUp(slot);
+        } else {
+            siftDown(slot);
+        }
+    }
+    
+    /**
+     * @return Whether the given id is currently in the heap.
+     */
+    boolean contains (int id) {
+        int slot = slots[id];
+        return slot < size && ids[slot] == id;
+    }
+    
+    /**
+     * Removes the given id, which must currently be in the heap.
+     */
+    void remove (int id) {
+        int slot = slots[id];
+        size--;
+        if (slot < size) {
+            long key = keys[slot];
+            ids[slot] = ids[size];
+            keys[slot] = keys[size];
+            slots[ids[slot]] = slot;
+            if (keys[slot] < key) {
+                siftUp(slot);
+            } else {
+                siftDown(slot);
+            }
+        }
+    }
+    
+    /**
+     * Removes and returns the id with the smallest key.
+     */
+    int poll () {
+        int top = ids[0];
+        size--;
+        if (size > 0) {
+            ids[0] = ids[size];
+            keys[0] = keys[size];
+            slots[ids[0]] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+    
+    /**
+     * @return The id in the given slot, in [0, size()); visiting every slot visits
+     * every id in the heap, in no particular order.
+     */
+    int idAt (int slot) {
+        return ids[slot];
+    }
+    
+    /**
+     * Replaces the key of every id in the heap with the one the given function
+     * gives it, and restores the heap order bottom-up in O(size), rather than
+     * updating the ids one at a time.
+     */
+    void rekey (IntToLongFunction key) {
+        for (int slot = 0; slot < size; slot++) {
+            keys[slot] = key.applyAsLong(ids[slot]);
+        }
+        for (int slot = (size >>> 1) - 1; slot >= 0; slot--) {
+            siftDown(slot);
+        }
+    }
+    
+    private void siftUp (int slot) {
+        int id = ids[slot];
+        long key = keys[slot];
+        while (slot > 0) {
+            int parent = (slot - 1) >>> 1;
+            if (keys[parent] <= key) {
+                break;
+            }
+            move(parent, slot);
+            slot = parent;
+        }
+        place(id, key, slot);
+    }
+    
+    private void siftDown (int slot) {
+        int id = ids[slot];
+        long key = keys[slot];
+        int half = size >>> 1;
+        while (slot < half) {
+            int child = 2 * slot + 1;
+            if (child + 1 < size && keys[child + 1] < keys[child]) {
+                child++;
+            }
+            if (key <= keys[child]) {
+                break;
+            }
+            move(child, slot);
+            slot = child;
+        }
+        place(id, key, slot);
+    }
+    
+    private void move (int from, int to) {
+        ids[to] = ids[from];
+        keys[to] = keys[from];
+        slots[ids[to]] = to;
+    }
+    
+    private void place (int id, long key, int slot) {
+        ids[slot] = id;
+        keys[slot] = key;
+        slots[id] = slot;
+    }
+    
+}
@@ -0,0 +1,172 @@
+/** ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ *  File name     :  JumpPoints.java
+ *  Purpose       :  Provides Jump Point Search successor pruning for the uniform-cost regions of a maze
+ *  @author       :  Sebastian Grasso / Brett Derham
+ *  Date          :  2026-10-18
+ *  Description   :  Jump Point Search for 4-connected grids. Rather than generating every neighbor, a node
+ *                   jumps in a straight line across open cells until it reaches a cell where a cheapest path
+ *                   might have to turn: horizontal jumps stop where a wall behind opens up above or below,
+ *                   and vertical jumps stop wherever a horizontal jump would find something. Symmetric
+ *                   paths through open areas are skipped entirely.
+ *                   Cells where the cost changes (mud, and open cells next to mud), keys, and goals are
+ *                   special: every jump stops on them, and they are expanded in all four directions like
+ *                   an ordinary search, so mud is only ever entered one step at a time.
+ *                   Includes the following:
+ *                   
+ *                   static JumpPoints of (MazeProblem problem)
+ *                   // Returns the (cached) jump point tables for the given problem's maze
+ *                   
+ *                   int successors (int cell, int from, int[] into)
+ *                   // Writes the jump point successors of a cell, reached from another, into the given array
+ *                   
+ *  Warnings      :  None
+ *  Exceptions    :  None
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ *  Revision History
+ *  ---------------
+ *            Rev      Date     Modified by:  Reason for change/modification
+ *           -----  ----------  ------------  -----------------------------------------------------------
+ *  @version 1.0.0  2026-10-18  Authors       Jump Point Search mode
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~ */
+
+
+package pathfinder.informed;
+
+import java.util.BitSet;
+
+/**
+ * Jump Point Search successor generation over the cells of a MazeProblem.
+ */
+final class JumpPoints {
+    
+    // Fields
+    // -----------------------------------------------------------------------------
+    private final MazeProblem problem;
+    
+    // Mud cells, open cells next to mud, keys, and goals
+    private final BitSet special;
+    
+    
+    // Constructor
+    // -----------------------------------------------------------------------------
+    
+    private JumpPoints (MazeProblem problem) {
+        this.problem = problem;
+        this.special = new BitSet(problem.getCellCount());
+        for (int cell = 0; cell < problem.getCellCount(); cell++) {
+            if (problem.getType(cell) != MazeProblem.MUD) {
+                continue;
+            }
+            special.set(cell);
+            for (int action = MazeProblem.UP; action <= MazeProblem.RIGHT; action++) {
+                int next = problem.getNeighbor(cell, action);
+                if (next != -1) {
+                    special.set(next);
+                }
+            }
+        }
+        for (int key : problem.getKeyCells()) {
+            special.set(key);
+        }
+        for (int goal : problem.getGoalCells()) {
+            special.set(goal);
+        }
+    }
+    
+    /**
+     * Returns the jump point tables for the given problem's maze, built once and
+     * then shared by every problem over the same maze.
+     */
+    static JumpPoints of (MazeProblem problem) {
+        return problem.derive(JumpPoints.class, JumpPoints::new);
+    }
+    
+    
+    // Methods
+    // -----------------------------------------------------------------------------
+    
+    /**
+     * Writes the successors of the given cell into the given array. The start of
+     * a search and special cells are expanded in all four directions; any other
+     * cell was reached by a straight jump from the given cell, and only jumps on
+     * in the directions a cheapest path could still take.
+     * 
+     * @param cell The packed index of the cell to expand
+     * @param from The packed index of the cell it was jumped to from, or -1 for the start
+     * @param into An array of at least 4 slots to write the successor cells into
+     * @return The number of successors written
+     */
+    int successors (int cell, int from, int[] into) {
+        int count = 0;
+        if (from == -1 || special.get(cell)) {
+            for (int action = MazeProblem.UP; action <= MazeProblem.RIGHT; action++) {
+                count = add(into, count, jump(cell, action));
+            }
+            return count;
+        }
+        
+        if (problem.rowOf(cell) == problem.rowOf(from)) {
+            // Arrived horizontally: carry on, and turn only onto forced neighbors
+            int action = (cell > from) ? MazeProblem.RIGHT : MazeProblem.LEFT;
+            count = add(into, count, jump(cell, action));
+            for (int turn = MazeProblem.UP; turn <= MazeProblem.DOWN; turn++) {
+                if (isForced(cell, action, turn)) {
+                    count = add(into, count, jump(cell, turn));
+                }
+            }
+        } else {
+            // Arrived vertically: carry on, or branch off horizontally either way
+            int action = (cell > from) ? MazeProblem.DOWN : MazeProblem.UP;
+            count = add(into, count, jump(cell, action));
+            count = add(into, count, jump(cell, MazeProblem.LEFT));
+            count = add(into, count, jump(cell, MazeProblem.RIGHT));
+        }
+        return count;
+    }
+    
+    private static int add (int[] into, int count, int cell) {
+        if (cell != -1) {
+            into[count++] = cell;
+        }
+        return count;
+    }
+    
+    /**
+     * Jumps from the given cell in the direction of the given action, over cells
+     * whose every neighbor costs the same to enter.
+     * 
+     * @return The first jump point reached, or -1 if the jump runs into a wall
+     */
+    private int jump (int cell, int action) {
+        boolean horizontal = action == MazeProblem.LEFT || action == MazeProblem.RIGHT;
+        while (true) {
+            cell = problem.getNeighbor(cell, action);
+            if (cell == -1 || special.get(cell)) {
+                return cell;
+            }
+            if (horizontal) {
+                if (isForced(cell, action, MazeProblem.UP) || isForced(cell, action, MazeProblem.DOWN)) {
+                    return cell;
+                }
+            } else if (jump(cell, MazeProblem.LEFT) != -1 || jump(cell, MazeProblem.RIGHT) != -1) {
+                return cell;
+            }
+        }
+    }
+    
+    /**
+     * Returns whether a horizontal jump arriving at the given cell must consider
+     * turning: the cell on that side is open, but the one diagonally behind it is
+     * blocked (by a wall, the edge of the maze, or mud), so no cheaper path could
+     * have turned earlier.
+     */
+    private boolean isForced (int cell, int action, int turn) {
+        if (problem.getNeighbor(cell, turn) == -1) {
+            return false;
+        }
+        int behind = cell + ((action == MazeProblem.RIGHT) ? -1 : 1),
+            diagonal = problem.getNeighbor(behind, turn);
+        return diagonal == -1 || problem.getType(diagonal) == MazeProblem.MUD;
+    }
+    
+}
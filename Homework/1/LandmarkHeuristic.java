@@ -0,0 +1,223 @@
+/** ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ *  File name     :  LandmarkHeuristic.java
+ *  Purpose       :  Provides the landmark (ALT) triangle-inequality heuristic for the MazeProblem
+ *  @author       :  Sebastian Grasso / Brett Derham
+ *  Date          :  2026-10-18
+ *  Description   :  Picks a handful of landmark cells spread across the maze, and stores the exact cost from
+ *                   each landmark to every cell and from every cell back to it. For any cell v and target t,
+ *                   the triangle inequality then bounds the cost of reaching t from v from below by
+ *                   d(L, t) - d(L, v) and by d(v, L) - d(t, L). Costs two ints per cell per landmark, no
+ *                   matter how many goals and keys the maze has, and the bound is never weaker than Manhattan.
+ *                   Includes the following:
+ *                   
+ *                   static LandmarkHeuristic of (MazeProblem problem)
+ *                   // Returns the (cached) landmark heuristic, with the default landmark count, for the maze
+ *                   
+ *                   static LandmarkHeuristic of (MazeProblem problem, int landmarks)
+ *                   // Returns the (cached) landmark heuristic with the given landmark count, for the maze
+ *                   
+ *                   public int estimate (int cell, int keyMask)
+ *                   // Returns the landmark lower bound on the cost of finishing from (cell, keyMask)
+ *                   
+ *  Warnings      :  None
+ *  Exceptions    :  IllegalArgumentException when the landmark count is not positive
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ *  Revision History
+ *  ---------------
+ *            Rev      Date     Modified by:  Reason for change/modification
+ *           -----  ----------  ------------  -----------------------------------------------------------
+ *  @version 1.0.0  2026-10-18  Authors       Landmark (ALT) heuristic
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~ */
+
+
+package pathfinder.informed;
+
+import java.util.Arrays;
+
+/**
+ * Landmark (ALT) heuristic, combined with the Manhattan heuristic by taking the
+ * larger of the two bounds.
+ */
+public final class LandmarkHeuristic implements Heuristic {
+    
+    // Fields
+    // -----------------------------------------------------------------------------
+    static final int DEFAULT_LANDMARKS = 8;
+    
+    private final MazeProblem problem;
+    private final ManhattanHeuristic manhattan;
+    private final int allKeys;
+    private final int[] landmarks;
+    
+    // fromLandmark[l][v] is the cost from landmark l to cell v; toLandmark[l][v]
+    // is the cost from cell v to landmark l
+    private final int[][] fromLandmark, toLandmark;
+    
+    // Per landmark: the cheapest cost from it to a goal, and the dearest cost from
+    // a goal to it; goals cut off from a landmark are left out of both
+    private final int[] landmarkToGoals, goalsToLandmark;
+    
+    // Per key: its cell, and a lower bound on the cost on from it to a goal
+    private final int[] keys, keyToGoal;
+    
+    
+    // Constructor
+    // -----------------------------------------------------------------------------
+    
+    /**
+     * Constructs the landmark heuristic for the given problem's maze. Landmarks
+     * are chosen by farthest-point selection: the first is the cell farthest from
+     * the goals, and each next one the cell farthest from every landmark so far.
+     * 
+     * @param problem The MazeProblem to build the heuristic for
+     * @param count The largest number of landmarks to place
+     */
+    LandmarkHeuristic (MazeProblem problem, int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("At least one landmark is required");
+        }
+        this.problem = problem;
+        this.manhattan = ManhattanHeuristic.of(problem);
+        this.allKeys = problem.getAllKeysMask();
+        
+        int[] goals = problem.getGoalCells();
+        int[] closest = MazeDistances.from(problem, goals.length > 0 ? goals : firstOpenCell(problem));
+        int[] chosen = new int[count];
+        int[][] from = new int[count][];
+        int placed = 0;
+        while (placed < count) {
+            int farthest = farthest(closest);
+            if (farthest == -1) {
+                break;
+            }
+            chosen[placed] = farthest;
+            from[placed] = MazeDistances.from(problem, new int[] { farthest });
+            for (int v = 0; v < closest.length; v++) {
+                closest[v] = Math.min(closest[v], from[placed][v]);
+            }
+            placed++;
+        }
+        landmarks = Arrays.copyOf(chosen, placed);
+        fromLandmark = Arrays.copyOf(from, placed);
+        toLandmark = new int[placed][];
+        landmarkToGoals = new int[placed];
+        goalsToLandmark = new int[placed];
+        for (int l = 0; l < placed; l++) {
+            toLandmark[l] = MazeDistances.to(problem, new int[] { landmarks[l] });
+            landmarkToGoals[l] = UNREACHABLE;
+            goalsToLandmark[l] = -1;
+            for (int goal : goals) {
+                if (fromLandmark[l][goal] != UNREACHABLE) {
+                    landmarkToGoals[l] = Math.min(landmarkToGoals[l], fromLandmark[l][goal]);
+                    goalsToLandmark[l] = Math.max(goalsToLandmark[l], toLandmark[l][goal]);
+                }
+            }
+        }
+        
+        keys = problem.getKeyCells();
+        keyToGoal = new int[keys.length];
+        for (int k = 0; k < keys.length; k++) {
+            keyToGoal[k] = toGoals(keys[k]);
+        }
+    }
+    
+    /**
+     * Returns the landmark heuristic, with the default number of landmarks, for
+     * the given problem's maze, built once and then shared by every problem over
+     * the same maze.
+     */
+    public static LandmarkHeuristic of (MazeProblem problem) {
+        return of(problem, DEFAULT_LANDMARKS);
+    }
+    
+    /**
+     * Returns the landmark heuristic, with the given number of landmarks, for the
+     * given problem's maze, built once and then shared by every problem over the
+     * same maze.
+     */
+    public static LandmarkHeuristic of (MazeProblem problem, int landmarks) {
+        return problem.derive(Arrays.asList(LandmarkHeuristic.class, landmarks),
+                              p -> new LandmarkHeuristic(p, landmarks));
+    }
+    
+    
+    // Methods
+    // -----------------------------------------------------------------------------
+    
+    /**
+     * The larger of the Manhattan estimate, the landmark bound on the cost to the
+     * closest goal, and, for each key still to collect, the landmark bound on the
+     * cost to the key plus the bound on from it to a goal. Including the goal
+     * bound keeps the estimate consistent as keys are picked up.
+     */
+    @Override
+    public int estimate (int cell, int keyMask) {
+        int best = manhattan.estimate(cell, keyMask);
+        if (best == UNREACHABLE) {
+            return UNREACHABLE;
+        }
+        best = Math.max(best, toGoals(cell));
+        int missing = allKeys & ~keyMask;
+        for (int k = 0; missing != 0 && k < keys.length; k++) {
+            if ((missing & (1 << k)) != 0) {
+                best = Math.max(best, toCell(cell, keys[k]) + keyToGoal[k]);
+            }
+        }
+        return best;
+    }
+    
+    /**
+     * @return The landmark lower bound on the cost from cell v to the closest goal.
+     */
+    private int toGoals (int v) {
+        int best = 0;
+        for (int l = 0; l < landmarks.length; l++) {
+            int fromL = fromLandmark[l][v], toL = toLandmark[l][v];
+            if (fromL == UNREACHABLE || landmarkToGoals[l] == UNREACHABLE) {
+                continue;
+            }
+            best = Math.max(best, Math.max(landmarkToGoals[l] - fromL, toL - goalsToLandmark[l]));
+        }
+        return best;
+    }
+    
+    /**
+     * @return The landmark lower bound on the cost from cell v to cell t.
+     */
+    private int toCell (int v, int t) {
+        int best = 0;
+        for (int l = 0; l < landmarks.length; l++) {
+            int fromL = fromLandmark[l][v], fromLt = fromLandmark[l][t];
+            if (fromL == UNREACHABLE || fromLt == UNREACHABLE) {
+                continue;
+            }
+            best = Math.max(best, Math.max(fromLt - fromL, toLandmark[l][v] - toLandmark[l][t]));
+        }
+        return best;
+    }
+    
+    /**
+     * @return The reachable cell with the largest finite distance, or -1 if every
+     * reachable cell is already at distance 0.
+     */
+    private static int farthest (int[] dist) {
+        int best = -1, bestDist = 0;
+        for (int v = 0; v < dist.length; v++) {
+            if (dist[v] != UNREACHABLE && dist[v] > bestDist) {
+                best = v;
+                bestDist = dist[v];
+            }
+        }
+        return best;
+    }
+    
+    private static int[] firstOpenCell (MazeProblem problem) {
+        for (int v = 0; v < problem.getCellCount(); v++) {
+            if (problem.getType(v) != MazeProblem.WALL) {
+                return new int[] { v };
+            }
+        }
+        return new int[0];
+    }
+    
+}
@@ -0,0 +1,126 @@
+/** ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ *  File name     :  MazeDistances.java
+ *  Purpose       :  Provides exact single- and multi-source distance tables over the cells of a MazeProblem
+ *  @author       :  Sebastian Grasso / Brett Derham
+ *  Date          :  2026-10-18
+ *  Description   :  Dijkstra's algorithm over the cells of a maze, run either forward from a set of sources
+ *                   or backward to a set of targets. Since every move costs 1 or 3, the priority queue is a
+ *                   ring of four FIFO buckets (Dial's algorithm), so each run is O(cells).
+ *                   Includes the following:
+ *                   
+ *                   static int[] from (MazeProblem problem, int[] sources)
+ *                   // Returns the cost of the cheapest path from any source to every cell
+ *                   
+ *                   static int[] to (MazeProblem problem, int[] targets)
+ *                   // Returns the cost of the cheapest path from every cell to any target
+ *                   
+ *  Warnings      :  Cells that cannot be reached are given the distance UNREACHABLE
+ *  Exceptions    :  None
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ *  Revision History
+ *  ---------------
+ *            Rev      Date     Modified by:  Reason for change/modification
+ *           -----  ----------  ------------  -----------------------------------------------------------
+ *  @version 1.0.0  2026-10-18  Authors       Exact distance tables for the heuristics
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~ */
+
+
+package pathfinder.informed;
+
+import java.util.Arrays;
+
+/**
+ * Exact distance tables over the cells of a MazeProblem, computed with Dial's
+ * bucketed variant of Dijkstra's algorithm.
+ */
+final class MazeDistances {
+    
+    // Distance given to cells that cannot be reached
+    static final int UNREACHABLE = Heuristic.UNREACHABLE;
+    
+    // One bucket per distance modulo the largest move cost plus one
+    private static final int BUCKETS = 4;
+    
+    private MazeDistances () {}
+    
+    /**
+     * Returns the cost of the cheapest path from any of the given sources to each
+     * cell of the maze, where a path pays the cost of every cell it moves into.
+     * 
+     * @param problem The MazeProblem whose cells are measured
+     * @param sources The packed indexes of the cells to measure from
+     * @return An int[] of distances indexed by cell
+     */
+    static int[] from (MazeProblem problem, int[] sources) {
+        return run(problem, sources, false);
+    }
+    
+    /**
+     * Returns the cost of the cheapest path from each cell of the maze to any of
+     * the given targets, where a path pays the cost of every cell it moves into.
+     * 
+     * @param problem The MazeProblem whose cells are measured
+     * @param targets The packed indexes of the cells to measure to
+     * @return An int[] of distances indexed by cell
+     */
+    static int[] to (MazeProblem problem, int[] targets) {
+        return run(problem, targets, true);
+    }
+    
+    private static int[] run (MazeProblem problem, int[] seeds, boolean backward) {
+        int[] dist = new int[problem.getCellCount()];
+        Arrays.fill(dist, UNREACHABLE);
+        
+        // Bucket d % BUCKETS holds the cells whose tentative distance is d; since no
+        // move costs more than BUCKETS - 1, the buckets never hold two distances at once
+        int[][] buckets = new int[BUCKETS][16];
+        int[] sizes = new int[BUCKETS];
+        int pending = 0;
+        for (int seed : seeds) {
+            if (dist[seed] != 0) {
+                dist[seed] = 0;
+                buckets[0] = push(buckets[0], sizes[0]++, seed);
+                pending++;
+            }
+        }
+        
+        for (int d = 0; pending > 0; d++) {
+            int b = d % BUCKETS;
+            // Moves cost at least 1, so nothing is added to this bucket while it drains
+            for (int i = 0; i < sizes[b]; i++) {
+                int cell = buckets[b][i];
+                pending--;
+                if (dist[cell] != d) {
+                    continue;
+                }
+                // Forward, moving into next costs next's cost; backward, the path
+                // continues from next into cell, which costs cell's cost
+                int backwardCost = problem.getCost(cell);
+                for (int action = MazeProblem.UP; action <= MazeProblem.RIGHT; action++) {
+                    int next = problem.getNeighbor(cell, action);
+                    if (next == -1) {
+                        continue;
+                    }
+                    int dNext = d + (backward ? backwardCost : problem.getCost(next));
+                    if (dNext < dist[next]) {
+                        dist[next] = dNext;
+                        int nb = dNext % BUCKETS;
+                        buckets[nb] = push(buckets[nb], sizes[nb]++, next);
+                        pending++;
+                    }
+                }
+            }
+            sizes[b] = 0;
+        }
+        return dist;
+    }
+    
+    private static int[] push (int[] bucket, int size, int cell) {
+        if (size == bucket.length) {
+            bucket = Arrays.copyOf(bucket, size * 2);
+        }
+        bucket[size] = cell;
+        return bucket;
+    }
+    
+}
@@ -0,0 +1,273 @@
+/** ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ *  File name     :  MazeFile.java
+ *  Purpose       :  Provides the compact binary, tiled, memory-mapped file format for MazeProblem grids
+ *  @author       :  Sebastian Grasso / Brett Derham
+ *  Date          :  2026-10-18
+ *  Description   :  Saves a maze as 2 bits per cell (WALL, OPEN, or MUD), in square tiles of a fixed power-
+ *                   of-two size, after a header recording the maze's dimensions, the tile size, and the
+ *                   coordinates of its initial, key, and goal cells. Tiles start on page boundaries, and the
+ *                   default tile of 128 x 128 cells fills exactly one 4 KiB page. Opening a file maps it and
+ *                   reads only the header: cells are read from the mapping as the search asks for them, so
+ *                   startup takes next to no time however big the maze, only the tiles a search touches are
+ *                   paged in, and the OS page cache shares one copy of the file between every process that
+ *                   has it open.
+ *                   Includes the following:
+ *                   
+ *                   public static void write (MazeProblem problem, Path file)
+ *                   public static void write (MazeProblem problem, Path file, int tileSize)
+ *                   // Saves the given problem's maze to the given file, replacing it atomically
+ *                   
+ *                   public static MazeProblem open (Path file)
+ *                   // Memory-maps the maze saved in the given file
+ *                   
+ *  Warnings      :  Cells are not validated when a file is opened; the unused fourth 2-bit code reads as a
+ *                   wall. The file must not be modified while it is open.
+ *  Exceptions    :  IOException when a file cannot be read or written, or does not hold a maze;
+ *                   IllegalArgumentException for tile sizes that are not a power of two in [4, 4096]
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ *  Revision History
+ *  ---------------
+ *            Rev      Date     Modified by:  Reason for change/modification
+ *           -----  ----------  ------------  -----------------------------------------------------------
+ *  @version 1.0.0  2026-10-18  Authors       Binary tiled maze files, opened by memory-mapping
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~ */
+
+
+package pathfinder.informed;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Binary maze files of 2-bit cells in memory-mapped tiles.
+ */
+public final class MazeFile {
+    
+    // Fields
+    // -----------------------------------------------------------------------------
+    
+    // File layout: a header of MAGIC, VERSION, rows, cols, tile size, the initial
+    // cell's (col, row) or (-1, -1), the key and goal counts, and then the (col,
+    // row) of each key and goal, as big-endian ints; then the tiles, in row-major
+    // order, from the first page boundary after the header
+    private static final int MAGIC = 0x4D415A45, VERSION = 1, FIXED_HEADER = 9 * Integer.BYTES, PAGE = 4096;
+    
+    public static final int DEFAULT_TILE_SIZE = 128;
+    private static final int MIN_TILE_SIZE = 4, MAX_TILE_SIZE = 4096;
+    
+    // The cell type of each 2-bit code
+    private static final byte[] TYPES = { MazeProblem.WALL, MazeProblem.OPEN, MazeProblem.MUD, MazeProblem.WALL };
+    
+    private MazeFile () {}
+    
+    
+    // Methods
+    // -----------------------------------------------------------------------------
+    
+    /**
+     * Saves the given problem's maze to the given file, in tiles of the default
+     * size.
+     * 
+     * @see #write(MazeProblem, Path, int)
+     */
+    public static void write (MazeProblem problem, Path file) throws IOException {
+        write(problem, file, DEFAULT_TILE_SIZE);
+    }
+    
+    /**
+     * Saves the given problem's maze to the given file, in square tiles of the
+     * given size; tiles along the right and bottom edges are padded with walls.
+     * The file is written beside the target and moved over it atomically where the
+     * file system allows, so that a concurrent open never sees a partial maze.
+     * 
+     * @param problem The MazeProblem whose maze to save
+     * @param file The file to save it to
+     * @param tileSize The width and height of each tile, in cells: a power of two
+     * from 4 to 4096
+     * @throws IOException If the file cannot be written
+     */
+    public static void write (MazeProblem problem, Path file, int tileSize) throws IOException {
+        if (tileSize < MIN_TILE_SIZE || tileSize > MAX_TILE_SIZE || Integer.bitCount(tileSize) != 1) {
+            throw new IllegalArgumentException("Tile size must be a power of two from 4 to 4096");
+        }
+        int rows = problem.getRows(), cols = problem.getCols(),
+            tileRows = -Math.floorDiv(-rows, tileSize), tileCols = -Math.floorDiv(-cols, tileSize),
+            tileBytes = tileSize * tileSize / 4;
+        int[] keys = problem.getKeyCells(), goals = problem.getGoalCells();
+        int headerSize = headerSize(keys.length, goals.length);
+        if (dataOffset(headerSize) + (long) tileRows * tileCols * tileBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Maze too large for a single mapped file");
+        }
+        
+        ByteBuffer header = ByteBuffer.allocate(dataOffset(headerSize));
+        int initial = problem.INITIAL_CELL;
+        header.putInt(MAGIC).putInt(VERSION).putInt(rows).putInt(cols).putInt(tileSize)
+              .putInt((initial == -1) ? -1 : problem.colOf(initial)).putInt((initial == -1) ? -1 : problem.rowOf(initial))
+              .putInt(keys.length).putInt(goals.length);
+        for (int cell : keys) {
+            header.putInt(problem.colOf(cell)).putInt(problem.rowOf(cell));
+        }
+        for (int cell : goals) {
+            header.putInt(problem.colOf(cell)).putInt(problem.rowOf(cell));
+        }
+        header.clear();
+        
+        Path absolute = file.toAbsolutePath(),
+             temp = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE,
+                                                        StandardOpenOption.TRUNCATE_EXISTING)) {
+                writeFully(channel, header);
+                ByteBuffer tile = ByteBuffer.allocate(tileBytes);
+                for (int tileRow = 0; tileRow < tileRows; tileRow++) {
+                    for (int tileCol = 0; tileCol < tileCols; tileCol++) {
+                        packTile(problem, tileCol * tileSize, tileRow * tileSize, tileSize, tile.array());
+                        tile.clear();
+                        writeFully(channel, tile);
+                    }
+                }
+                channel.force(true);
+            }
+            try {
+                Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException unsupported) {
+                Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+    
+    /**
+     * Memory-maps the maze saved in the given file. Only the header is read here;
+     * every cell is read from the mapping when it is first asked for.
+     * 
+     * @param file The file the maze was saved to by write
+     * @return The MazeProblem of the saved maze
+     * @throws IOException If the file cannot be read, or does not hold a maze
+     */
+    public static MazeProblem open (Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < FIXED_HEADER || size > Integer.MAX_VALUE) {
+                throw new IOException(file + " is not a maze file");
+            }
+            ByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int magic = map.getInt(), version = map.getInt(), rows = map.getInt(), cols = map.getInt(),
+                tileSize = map.getInt(), initialCol = map.getInt(), initialRow = map.getInt(),
+                keyCount = map.getInt(), goalCount = map.getInt();
+            if (magic != MAGIC || version != VERSION || rows < 0 || cols < 0 || (long) rows * cols > Integer.MAX_VALUE
+                || tileSize < MIN_TILE_SIZE || tileSize > MAX_TILE_SIZE || Integer.bitCount(tileSize) != 1
+                || keyCount < 0 || keyCount > 30 || goalCount < 0 || goalCount > (size - FIXED_HEADER) / 8) {
+                throw new IOException(file + " is not a maze file");
+            }
+            
+            int tileRows = -Math.floorDiv(-rows, tileSize), tileCols = -Math.floorDiv(-cols, tileSize),
+                tileBytes = tileSize * tileSize / 4, offset = dataOffset(headerSize(keyCount, goalCount));
+            if (size != offset + (long) tileRows * tileCols * tileBytes) {
+                throw new IOException(file + " is not a maze file");
+            }
+            int[] keys = new int[keyCount], goals = new int[goalCount];
+            for (int[] cells : new int[][] { keys, goals }) {
+                for (int i = 0; i < cells.length; i++) {
+                    cells[i] = cellOf(file, map.getInt(), map.getInt(), rows, cols);
+                }
+            }
+            int initial = (initialCol == -1 && initialRow == -1) ? -1 : cellOf(file, initialCol, initialRow, rows, cols);
+            
+            try {
+                return new MazeProblem(new TiledStore(map, offset, rows, cols, tileSize, tileCols),
+                                       rows, cols, initial, keys, goals, false);
+            } catch (IllegalArgumentException invalid) {
+                throw new IOException(file + " is not a valid maze: " + invalid.getMessage(), invalid);
+            }
+        }
+    }
+    
+    /**
+     * Packs the cells of the tile whose top left cell is (left, top) into the
+     * given array, 4 cells per byte from the lowest bits up, in row-major order.
+     */
+    private static void packTile (MazeProblem problem, int left, int top, int tileSize, byte[] into) {
+        int rows = problem.getRows(), cols = problem.getCols();
+        for (int r = 0, at = 0; r < tileSize; r++) {
+            for (int c = 0; c < tileSize; c += 4, at++) {
+                int packed = 0;
+                for (int i = 0; i < 4; i++) {
+                    int row = top + r, col = left + c + i;
+                    int type = (row < rows && col < cols) ? problem.getType(problem.index(col, row)) : MazeProblem.WALL;
+                    packed |= type << (2 * i);
+                }
+                into[at] = (byte) packed;
+            }
+        }
+    }
+    
+    private static void writeFully (FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+    
+    private static int cellOf (Path file, int col, int row, int rows, int cols) throws IOException {
+        if (col < 0 || col >= cols || row < 0 || row >= rows) {
+            throw new IOException(file + " is not a maze file");
+        }
+        return row * cols + col;
+    }
+    
+    private static int headerSize (int keyCount, int goalCount) {
+        return FIXED_HEADER + 2 * Integer.BYTES * (keyCount + goalCount);
+    }
+    
+    private static int dataOffset (int headerSize) {
+        return -Math.floorDiv(-headerSize, PAGE) * PAGE;
+    }
+
+
+/**
+ * The cells of a maze file, read from its mapping on demand.
+ */
+private static final class TiledStore implements CellStore {
+    
+    private final ByteBuffer map;
+    private final int offset, rows, cols, shift, mask, tileCols, tileBytes;
+    
+    TiledStore (ByteBuffer map, int offset, int rows, int cols, int tileSize, int tileCols) {
+        this.map = map;
+        this.offset = offset;
+        this.rows = rows;
+        this.cols = cols;
+        this.shift = Integer.numberOfTrailingZeros(tileSize);
+        this.mask = tileSize - 1;
+        this.tileCols = tileCols;
+        this.tileBytes = tileSize * tileSize / 4;
+    }
+    
+    @Override
+    public byte get (int cell) {
+        int row = cell / cols, col = cell - row * cols,
+            tile = (row >>> shift) * tileCols + (col >>> shift),
+            local = ((row & mask) << shift) | (col & mask);
+        byte packed = map.get(offset + tile * tileBytes + (local >>> 2));
+        return TYPES[(packed >>> ((local & 3) << 1)) & 3];
+    }
+    
+    @Override
+    public int size () {
+        return rows * cols;
+    }
+    
+    @Override
+    public boolean isMapped () {
+        return true;
+    }
+
+}
+
+}
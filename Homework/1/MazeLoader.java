@@ -0,0 +1,262 @@
+/** ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ *  File name     :  MazeLoader.java
+ *  Purpose       :  Provides a single-pass loader of text mazes from files and streams into a MazeProblem
+ *  @author       :  Sebastian Grasso / Brett Derham
+ *  Date          :  2026-10-18
+ *  Description   :  Reads a maze in the same text format as MazeProblem (String[] maze), one row per line,
+ *                   straight into the packed byte[] grid of a MazeProblem, without building a String per row.
+ *                   Every byte is looked at exactly once: it is validated, written as a cell type, and, for
+ *                   'I', 'K', and 'G' cells, recorded as the initial, a key, or a goal in the same pass, so
+ *                   the MazeProblem is built without scanning the grid again. Files are memory-mapped and
+ *                   sized up front, so the grid is allocated once at its final size; streams grow it as
+ *                   they go.
+ *                   Includes the following:
+ *                   
+ *                   public static MazeProblem load (Path file)
+ *                   // Memory-maps and loads the maze in the given file
+ *                   
+ *                   public static MazeProblem load (InputStream in)
+ *                   // Loads the maze read from the given stream, up to its end
+ *                   
+ *  Warnings      :  Lines may end with "\n" or "\r\n"; blank lines are only allowed at the end
+ *  Exceptions    :  IOException when the maze cannot be read; IllegalArgumentException when it is formatted
+ *                   invalidly, naming the row and column of the first bad character
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ *  Revision History
+ *  ---------------
+ *            Rev      Date     Modified by:  Reason for change/modification
+ *           -----  ----------  ------------  -----------------------------------------------------------
+ *  @version 1.0.0  2026-10-18  Authors       Streaming and memory-mapped maze loading
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~ */
+
+
+package pathfinder.informed;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Loads text mazes from files and streams in a single pass.
+ */
+public final class MazeLoader {
+    
+    // Fields
+    // -----------------------------------------------------------------------------
+    
+    // What each byte of the input means; anything else is invalid
+    private static final byte INVALID = -1, INITIAL = 3, KEY = 4, GOAL = 5, NEWLINE = 6, RETURN = 7;
+    private static final byte[] CODES = new byte[256];
+    static {
+        Arrays.fill(CODES, INVALID);
+        CODES['X'] = MazeProblem.WALL;
+        CODES['.'] = MazeProblem.OPEN;
+        CODES['M'] = MazeProblem.MUD;
+        CODES['I'] = INITIAL;
+        CODES['K'] = KEY;
+        CODES['G'] = GOAL;
+        CODES['\n'] = NEWLINE;
+        CODES['\r'] = RETURN;
+    }
+    
+    // Mapped files are copied out in chunks of this many bytes, and at most this
+    // many bytes of a file are mapped at once
+    private static final int CHUNK = 1 << 16, REGION = 1 << 30;
+    
+    // The grid being filled, and how many of its cells are filled so far
+    private byte[] cells;
+    private int count;
+    
+    // The position of the next byte; cols is -1 until the first line has ended
+    private int row, col, cols = -1;
+    private boolean afterReturn, blankLine;
+    
+    private int initial = -1, keyCount, goalCount;
+    private int[] keys = new int[4], goals = new int[4];
+    
+    
+    // Constructor
+    // -----------------------------------------------------------------------------
+    
+    private MazeLoader (int capacity) {
+        cells = new byte[capacity];
+    }
+    
+    
+    // Methods
+    // -----------------------------------------------------------------------------
+    
+    /**
+     * Loads the maze in the given file, which is memory-mapped and read once from
+     * start to end; the grid is sized from the file's length and its first line,
+     * so it is allocated exactly once.
+     * 
+     * @param file The text file holding the maze
+     * @return The MazeProblem of the maze
+     * @throws IOException If the file cannot be read
+     */
+    public static MazeProblem load (Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            MazeLoader loader = new MazeLoader(0);
+            byte[] chunk = new byte[CHUNK];
+            for (long offset = 0; offset < size; offset += REGION) {
+                MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, offset,
+                                                      Math.min(REGION, size - offset));
+                if (offset == 0) {
+                    loader.cells = new byte[capacityOf(region, size)];
+                }
+                while (region.hasRemaining()) {
+                    int length = Math.min(CHUNK, region.remaining());
+                    region.get(chunk, 0, length);
+                    loader.feed(chunk, length);
+                }
+            }
+            return loader.finish();
+        }
+    }
+    
+    /**
+     * Loads the maze read from the given stream, up to its end; the stream is not
+     * closed. The grid is grown as rows arrive, so loading from a file by path
+     * needs less memory for the largest mazes.
+     * 
+     * @param in The stream holding the maze
+     * @return The MazeProblem of the maze
+     * @throws IOException If the stream cannot be read
+     */
+    public static MazeProblem load (InputStream in) throws IOException {
+        MazeLoader loader = new MazeLoader(CHUNK);
+        byte[] chunk = new byte[CHUNK];
+        for (int length; (length = in.read(chunk)) != -1; ) {
+            loader.feed(chunk, length);
+        }
+        return loader.finish();
+    }
+    
+    /**
+     * Returns the number of cells in a mapped maze of the given total size, from
+     * the length of its first line; or the size itself if the maze is one line.
+     * Any blank lines at the end make this an overestimate, trimmed by finish.
+     */
+    private static int capacityOf (MappedByteBuffer start, long size) {
+        int width = 0, limit = start.limit();
+        while (width < limit && start.get(width) != '\n') {
+            width++;
+        }
+        if (width == limit) {
+            return (int) Math.min(size, Integer.MAX_VALUE - 8);
+        }
+        int lineLength = width + 1, rowWidth = (width > 0 && start.get(width - 1) == '\r') ? width - 1 : width;
+        long rows = (size + lineLength - 1) / lineLength;
+        return (int) Math.min(rows * rowWidth, Integer.MAX_VALUE - 8);
+    }
+    
+    /**
+     * Validates and stores the given bytes of the maze, continuing from wherever
+     * the last chunk left off.
+     */
+    private void feed (byte[] chunk, int length) {
+        for (int i = 0; i < length; i++) {
+            byte code = CODES[chunk[i] & 0xFF];
+            if (afterReturn && code != NEWLINE) {
+                throw invalid();
+            }
+            if (code <= MazeProblem.MUD && code >= 0) {
+                store(code);
+                continue;
+            }
+            switch (code) {
+                case INITIAL:
+                    initial = count;
+                    store(MazeProblem.OPEN);
+                    break;
+                case KEY:
+                    keys = append(keys, keyCount++, count);
+                    store(MazeProblem.OPEN);
+                    break;
+                case GOAL:
+                    goals = append(goals, goalCount++, count);
+                    store(MazeProblem.OPEN);
+                    break;
+                case NEWLINE:
+                    endLine();
+                    break;
+                case RETURN:
+                    afterReturn = true;
+                    break;
+                default:
+                    throw invalid();
+            }
+        }
+    }
+    
+    /**
+     * Writes the next cell of the current row, growing the grid if it is full.
+     */
+    private void store (byte type) {
+        if (blankLine || (cols != -1 && col == cols)) {
+            throw invalid();
+        }
+        if (count == cells.length) {
+            if (count == Integer.MAX_VALUE - 8) {
+                throw new IllegalArgumentException("Maze too large to load");
+            }
+            cells = Arrays.copyOf(cells, (int) Math.min(Integer.MAX_VALUE - 8, Math.max(16, 2L * count)));
+        }
+        cells[count++] = type;
+        col++;
+    }
+    
+    private void endLine () {
+        afterReturn = false;
+        if (col == 0 && row > 0) {
+            // Only the blank lines at the very end of the maze are allowed
+            blankLine = true;
+            return;
+        }
+        if (cols == -1) {
+            cols = col;
+        } else if (col != cols) {
+            throw invalid();
+        }
+        row++;
+        col = 0;
+    }
+    
+    /**
+     * Builds the MazeProblem of the maze read so far, including a last row that
+     * does not end with a newline.
+     */
+    private MazeProblem finish () {
+        if (afterReturn) {
+            throw invalid();
+        }
+        if (col > 0) {
+            endLine();
+        }
+        int width = Math.max(cols, 0);
+        if (cells.length != count) {
+            cells = Arrays.copyOf(cells, count);
+        }
+        return new MazeProblem(cells, row, width, initial, Arrays.copyOf(keys, keyCount),
+                               Arrays.copyOf(goals, goalCount), false);
+    }
+    
+    private static int[] append (int[] into, int at, int value) {
+        if (at == into.length) {
+            into = Arrays.copyOf(into, 2 * at);
+        }
+        into[at] = value;
+        return into;
+    }
+    
+    private IllegalArgumentException invalid () {
+        return new IllegalArgumentException("Maze formatted invalidly at row " + row + ", column " + col);
+    }
+
+}
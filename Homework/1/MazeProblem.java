@@ -7,12 +7,38 @@
  *                   test.
  *                   Includes the following:
  *                   
- *                   private static final Map<String, MazeState> createTransitions ()
- *                   // Creates the transition map that maps String actions to MazeState offsets
- *                   
  *                   MazeProblem (String[] maze)
  *                   // Constructs a new MazeProblem from the given maze
  *                   
+ *                   MazeProblem (byte[] cells, int rows, int cols, int initial, int[] keys, int[] goals)
+ *                   // Constructs a new MazeProblem directly from a packed grid of cell types
+ *                   
+ *                   MazeProblem (byte[] cells, int rows, int cols, int initial, int[] keys, int[] goals,
+ *                                boolean checkCells)
+ *                   // As above, optionally trusting the cell types of a grid its caller has just validated
+ *                   
+ *                   MazeProblem (CellStore cells, int rows, int cols, int initial, int[] keys, int[] goals,
+ *                                boolean checkCells)
+ *                   // As above, over any CellStore, e.g. the memory-mapped tiles of a MazeFile
+ *                   
+ *                   public boolean isGoal (int cell, int keyMask)
+ *                   // Returns whether the given cell, reached holding the given keys, is a Goal state
+ *                   
+ *                   public int getKeyMask (int cell, int keyMask)
+ *                   // Returns the key mask held after moving into the given cell
+ *                   
+ *                   public boolean isReachable (int from, int to)
+ *                   // Returns whether one cell can be reached from another, using cached reachability
+ *                   
+ *                   public MazeProblem withInitialState (MazeState state)
+ *                   // Returns a MazeProblem over the same maze, sharing its cached tables, from another start
+ *                   
+ *                   public int index (int col, int row) / colOf (int cell) / rowOf (int cell)
+ *                   // Converts between (col, row) coordinates and packed int cell indexes
+ *                   
+ *                   public int getNeighbor (int cell, int action)
+ *                   // Returns the cell reached by taking an action from the given cell, or -1 if blocked
+ *                   
  *                   public boolean isGoal (MazeState state)
  *                   // Returns whether or not the given state is a Goal state
  *                   
@@ -27,7 +53,10 @@
  *                   // Given a possibleSoln, tests to ensure that it is indeed a solution to this MazeProblem, as well as 
  *                      returning the cost.
  *                   
- *  Warnings      :  None
+ *                   public int[] testSolution (CompactPath possibleSoln)
+ *                   // As above, replaying a CompactPath straight against the grid, a run of moves at a time.
+ *                   
+ *  Warnings      :  The public MazeState fields are mutable objects and must not be modified by callers
  *  Exceptions    :  IllegalArgumentException when the given maze is invalid
  * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
  *  Revision History
@@ -35,6 +64,14 @@
  *            Rev      Date     Modified by:  Reason for change/modification
  *           -----  ----------  ------------  -----------------------------------------------------------
  *  @version 1.0.0  2019-02-11  Authors       Finished homework assignment one
+ *  @version 1.1.0  2026-10-18  Authors       Packed byte[] grid with int-encoded cell states
+ *  @version 1.2.0  2026-10-18  Authors       Multiple keys, key-mask goal test, immutable problem
+ *  @version 1.3.0  2026-10-18  Authors       Derived-table cache shared across initial states
+ *  @version 1.4.0  2026-10-18  Authors       testSolution no longer prints the solutions it accepts
+ *  @version 1.5.0  2026-10-18  Authors       Trusted packed-grid constructor for MazeLoader
+ *  @version 1.6.0  2026-10-18  Authors       Cells read through a CellStore, so a maze may live in a mapped file
+ *  @version 1.7.0  2026-10-18  Authors       CompactPath solutions; actions replayed by code instead of TRANS_MAP
+ *  @version 1.7.1  2026-10-18  Authors       Derived values seeded by callers that keep them up to date
  * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~ */
 
 
@@ -42,41 +79,68 @@ package pathfinder.informed;
 
 import java.util.Map;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.function.Function;
 
 /**
  * Specifies the Maze Grid pathfinding problem including the actions, transitions,
  * goal test, and solution test. Can be fed as an input to a Search algorithm to,
  * find and then test a solution.
+ * 
+ * The maze is stored as a single packed byte[] of cell types, in which each cell
+ * is addressed by the int index (row * cols + col); searches can work entirely in
+ * terms of these indexes without allocating a MazeState per expansion.
+ * 
+ * A maze may hold any number of 'K' key cells, every one of which must be visited
+ * before a goal counts as reached. Searches therefore run over the layered state
+ * space (cell, keyMask), where bit i of the keyMask is set once key i is held; a
+ * state is packed into a single int as (cell << getKeyCount()) | keyMask.
+ * 
+ * A MazeProblem is immutable once constructed, and so may be shared and solved
+ * by any number of threads at once.
  */
 public class MazeProblem {
 
     // Fields
     // -----------------------------------------------------------------------------
-    private String[] maze;
-    private int rows, cols;
-    public final MazeState INITIAL_STATE, KEY_STATE;
-    public final Map <Integer, MazeState> GOAL_STATE;
-    private static final Map<String, MazeState> TRANS_MAP = createTransitions();
-    public boolean visitedKey = false;
     
+    // Cell types stored in the packed grid; the initial, key, and goal cells are
+    // open cells whose positions are recorded separately
+    public static final byte WALL = 0, OPEN = 1, MUD = 2;
     
-    /**
-     * @return Creates the transition map that maps String actions to 
-     * MazeState offsets, of the format:
-     * { "U": (0, -1), "D": (0, +1), "L": (-1, 0), "R": (+1, 0) }
-     */
-    private static final Map<String, MazeState> createTransitions () {
-        Map<String, MazeState> result = new HashMap<>();
-        result.put("U", new MazeState(0, -1));
-        result.put("D", new MazeState(0,  1));
-        result.put("L", new MazeState(-1, 0));
-        result.put("R", new MazeState( 1, 0));
-        return result;
-    }
+    // Action codes used by the int-encoded API, in the same order as ACTIONS
+    public static final int UP = 0, DOWN = 1, LEFT = 2, RIGHT = 3;
+    static final String[] ACTIONS = { "U", "D", "L", "R" };
+    
+    // Cost of moving into a cell of each type, indexed by the type itself
+    private static final int[] COSTS = { 0, 1, 3 };
+    
+    // Temporary markers used while packing a String[] maze, rewritten to OPEN
+    // once the initial, key, and goal positions have been recorded
+    private static final byte INITIAL_MARK = 3, KEY_MARK = 4, GOAL_MARK = 5;
+    
+    private final CellStore cells;
+    private final int rows, cols;
+    private final int[] keys, goals;
+    private final BitSet keyCells, goalCells;
+    public final int INITIAL_CELL;
+    public final MazeState INITIAL_STATE, KEY_STATE;
+    public final Map <Integer, MazeState> KEY_STATES, GOAL_STATE;
     
+    // Tables derived from the maze (e.g., heuristic tables, component labels), built
+    // on first use and shared by every MazeProblem over the same maze, since none of
+    // them depend on the initial state
+    private final ConcurrentMap<Object, FutureTask<Object>> derived;
     
-    // Constructor
+    
+    // Constructors
     // -----------------------------------------------------------------------------
     
     /**
@@ -99,37 +163,202 @@ public class MazeProblem {
      * </pre>
      */
     MazeProblem (String[] maze) {
-        this.maze = maze;
-        this.rows = maze.length;
-        this.cols = (rows == 0) ? 0 : maze[0].length();
-        MazeState foundInitial = null, foundKey = null;
-        Map <Integer, MazeState>foundGoal = new HashMap<>();
-        Integer x = 0;
+        this(pack(maze), maze.length, (maze.length == 0) ? 0 : maze[0].length());
+    }
+    
+    /**
+     * Constructs a new MazeProblem directly from a packed grid of cell types, in
+     * which the cell at (col, row) is stored at index (row * cols + col).
+     * 
+     * @param cells The packed grid, holding one of WALL, OPEN, or MUD per cell
+     * @param rows The number of rows in the maze
+     * @param cols The number of columns in the maze
+     * @param initial The index of the initial cell, or -1 if there is none
+     * @param keys The indexes of the key cells, all of which must be visited
+     * @param goals The indexes of the goal cells
+     */
+    MazeProblem (byte[] cells, int rows, int cols, int initial, int[] keys, int[] goals) {
+        this(cells, rows, cols, initial, keys, goals, true);
+    }
+    
+    /**
+     * As MazeProblem(cells, rows, cols, initial, keys, goals), except that when
+     * checkCells is false the grid is trusted to hold only WALL, OPEN, and MUD
+     * cells, and is not scanned again; for callers such as MazeLoader that have
+     * just validated every cell on the way in.
+     */
+    MazeProblem (byte[] cells, int rows, int cols, int initial, int[] keys, int[] goals, boolean checkCells) {
+        this(CellStore.of(cells), rows, cols, initial, keys, goals, checkCells);
+    }
+    
+    /**
+     * As MazeProblem(cells, rows, cols, initial, keys, goals, checkCells), over
+     * cells read from the given CellStore, which is not copied.
+     */
+    MazeProblem (CellStore cells, int rows, int cols, int initial, int[] keys, int[] goals, boolean checkCells) {
+        if (rows < 0 || cols < 0 || (long) rows * cols != cells.size()) {
+            throw new IllegalArgumentException("Maze dimensions do not match the packed grid");
+        }
+        for (int cell = 0; checkCells && cell < cells.size(); cell++) {
+            byte type = cells.get(cell);
+            if (type != WALL && type != OPEN && type != MUD) {
+                throw new IllegalArgumentException("Maze formatted invalidly");
+            }
+        }
+        if (keys.length > 30 || ((long) cells.size() << keys.length) > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many keys for a maze of this size");
+        }
+        this.cells = cells;
+        this.rows = rows;
+        this.cols = cols;
+        this.keys = keys.clone();
+        Arrays.sort(this.keys);
+        this.goals = goals.clone();
+        this.keyCells = markAll(this.keys);
+        this.goalCells = markAll(this.goals);
+        if (keyCells.cardinality() != this.keys.length) {
+            throw new IllegalArgumentException("Maze formatted invalidly");
+        }
+        if (initial != -1) { checkOpen(initial); }
         
+        INITIAL_CELL = initial;
+        INITIAL_STATE = (initial == -1) ? null : toState(initial);
+        KEY_STATE = (this.keys.length == 0) ? null : toState(this.keys[0]);
+        KEY_STATES = toStates(this.keys);
+        GOAL_STATE = toStates(this.goals);
+        derived = new ConcurrentHashMap<>();
+    }
+    
+    /**
+     * Constructs a copy of the given MazeProblem that starts from another cell,
+     * sharing its maze and all of its derived tables.
+     */
+    private MazeProblem (MazeProblem maze, int initial) {
+        cells = maze.cells;
+        rows = maze.rows;
+        cols = maze.cols;
+        keys = maze.keys;
+        goals = maze.goals;
+        keyCells = maze.keyCells;
+        goalCells = maze.goalCells;
+        derived = maze.derived;
+        checkOpen(initial);
+        
+        INITIAL_CELL = initial;
+        INITIAL_STATE = toState(initial);
+        KEY_STATE = maze.KEY_STATE;
+        KEY_STATES = maze.KEY_STATES;
+        GOAL_STATE = maze.GOAL_STATE;
+    }
+    
+    /**
+     * Constructs a new MazeProblem from a packed grid that still carries the
+     * initial, key, and goal markers written by pack; the markers are located
+     * and rewritten as OPEN cells.
+     */
+    private MazeProblem (byte[] marked, int rows, int cols) {
+        this(marked, rows, cols, locate(marked, INITIAL_MARK), locateAll(marked, KEY_MARK), locateAll(marked, GOAL_MARK));
+    }
+    
+    /**
+     * Packs the given String maze into a byte[] of cell types, with markers left
+     * in place of the initial, key, and goal cells.
+     */
+    private static byte[] pack (String[] maze) {
+        int rows = maze.length,
+            cols = (rows == 0) ? 0 : maze[0].length();
+        byte[] result = new byte[rows * cols];
         
-        // Find the initial and goal state in the given maze, and then
-        // store in fields once found
         for (int row = 0; row < rows; row++) {
-            for (int col = 0; col < cols; col++) {
-                switch (maze[row].charAt(col)) {
+            String line = maze[row];
+            if (line.length() != cols) {
+                throw new IllegalArgumentException("Maze formatted invalidly");
+            }
+            for (int col = 0, cell = row * cols; col < cols; col++, cell++) {
+                switch (line.charAt(col)) {
                 case 'I':
-                    foundInitial = new MazeState(col, row); break;
+                    result[cell] = INITIAL_MARK; break;
                 case 'K':
-                    foundKey = new MazeState(col, row); break;                    
+                    result[cell] = KEY_MARK; break;
                 case 'G':
-                    foundGoal.put(x, new MazeState(col, row)); x++; break;
+                    result[cell] = GOAL_MARK; break;
                 case '.':
+                    result[cell] = OPEN; break;
                 case 'X':
+                    result[cell] = WALL; break;
                 case 'M':
-                    break;
+                    result[cell] = MUD; break;
                 default:
                     throw new IllegalArgumentException("Maze formatted invalidly");
                 }
             }
         }
-        INITIAL_STATE = foundInitial;
-        KEY_STATE = foundKey;
-        GOAL_STATE = foundGoal;
+        return result;
+    }
+    
+    /**
+     * Returns the index of the last cell holding the given marker (or -1 if there
+     * is none), rewriting every such cell as OPEN.
+     */
+    private static int locate (byte[] marked, byte marker) {
+        int found = -1;
+        for (int cell = 0; cell < marked.length; cell++) {
+            if (marked[cell] == marker) {
+                marked[cell] = OPEN;
+                found = cell;
+            }
+        }
+        return found;
+    }
+    
+    /**
+     * Returns the indexes of every cell holding the given marker, in row-major
+     * order, rewriting every such cell as OPEN.
+     */
+    private static int[] locateAll (byte[] marked, byte marker) {
+        int[] found = new int[4];
+        int count = 0;
+        for (int cell = 0; cell < marked.length; cell++) {
+            if (marked[cell] == marker) {
+                if (count == found.length) {
+                    found = Arrays.copyOf(found, count * 2);
+                }
+                marked[cell] = OPEN;
+                found[count++] = cell;
+            }
+        }
+        return Arrays.copyOf(found, count);
+    }
+    
+    private void checkOpen (int cell) {
+        if (cell < 0 || cell >= cells.size() || cells.get(cell) == WALL) {
+            throw new IllegalArgumentException("Maze formatted invalidly");
+        }
+    }
+    
+    /**
+     * Checks that each of the given cells is open, returning them as a BitSet
+     * (only as long as the last of them, since the maze may be huge).
+     */
+    private BitSet markAll (int[] marked) {
+        BitSet result = new BitSet();
+        for (int cell : marked) {
+            checkOpen(cell);
+            result.set(cell);
+        }
+        return result;
+    }
+    
+    /**
+     * @return An unmodifiable map from the position of each cell in the given
+     * array to its MazeState (col, row).
+     */
+    private Map<Integer, MazeState> toStates (int[] found) {
+        Map<Integer, MazeState> result = new HashMap<>();
+        for (int i = 0; i < found.length; i++) {
+            result.put(i, toState(found[i]));
+        }
+        return Collections.unmodifiableMap(result);
     }
     
     
@@ -137,22 +366,286 @@ public class MazeProblem {
     // -----------------------------------------------------------------------------
     
     /**
-     * Returns whether or not the given state is a Goal state.
+     * Returns a MazeProblem over this same maze that starts from the given state
+     * instead; the two share the packed grid and every table derived from it, so
+     * heuristics built for one are reused by the other.
+     * 
+     * @param state A MazeState (col, row) holding an open cell to start from
+     * @return The MazeProblem starting from state
+     */
+    public MazeProblem withInitialState (MazeState state) {
+        if (state.col < 0 || state.col >= cols || state.row < 0 || state.row >= rows) {
+            throw new IllegalArgumentException("Initial state is outside the maze");
+        }
+        return new MazeProblem(this, index(state.col, state.row));
+    }
+    
+    /**
+     * Returns the value derived from this maze under the given key, building it
+     * with the given builder if no MazeProblem over this maze has done so yet.
+     * Concurrent callers wait for a single build rather than repeating it.
+     * 
+     * @param key Identifies the derived value, e.g. the class that builds it
+     * @param builder Builds the value from this MazeProblem; must not depend on
+     * the initial state
+     * @return The (possibly cached) derived value
+     */
+    @SuppressWarnings("unchecked")
+    <T> T derive (Object key, Function<MazeProblem, T> builder) {
+        FutureTask<Object> task = derived.get(key);
+        if (task == null) {
+            FutureTask<Object> created = new FutureTask<>(() -> builder.apply(this));
+            task = derived.putIfAbsent(key, created);
+            if (task == null) {
+                task = created;
+                task.run();
+            }
+        }
+        try {
+            return (T) task.get();
+        } catch (ExecutionException e) {
+            derived.remove(key, task);
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) { throw (RuntimeException) cause; }
+            if (cause instanceof Error) { throw (Error) cause; }
+            throw new IllegalStateException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    /**
+     * Records the given value as derived from this maze under the given key,
+     * unless one already is, for callers that keep the value up to date more
+     * cheaply than derive's builder would rebuild it.
+     * 
+     * @param key Identifies the derived value, as for derive
+     * @param value The value, as derive's builder would build it
+     */
+    void seed (Object key, Object value) {
+        FutureTask<Object> task = new FutureTask<>(() -> value);
+        task.run();
+        derived.putIfAbsent(key, task);
+    }
+    
+    /**
+     * @return The number of rows in this maze.
+     */
+    public int getRows () {
+        return rows;
+    }
+    
+    /**
+     * @return The number of columns in this maze.
+     */
+    public int getCols () {
+        return cols;
+    }
+    
+    /**
+     * @return The total number of cells (rows * cols) in this maze.
+     */
+    public int getCellCount () {
+        return cells.size();
+    }
+    
+    /**
+     * @return The number of keys in this maze, i.e., the width of a key mask.
+     */
+    public int getKeyCount () {
+        return keys.length;
+    }
+    
+    /**
+     * @return The key mask in which every key of this maze is held.
+     */
+    public int getAllKeysMask () {
+        return (1 << keys.length) - 1;
+    }
+    
+    /**
+     * @return The number of (cell, keyMask) search states, i.e. (cells << keys).
+     */
+    public int getStateCount () {
+        return cells.size() << keys.length;
+    }
+    
+    /**
+     * @return Whether this maze's cells are read from a memory-mapped MazeFile, so
+     * that whole-maze tables (e.g. isReachable's labelling) would page in all of it.
+     */
+    boolean isMapped () {
+        return cells.isMapped();
+    }
+    
+    /**
+     * @return The indexes of the key cells in this maze, in row-major order; key
+     * i of this array is bit i of a key mask.
+     */
+    public int[] getKeyCells () {
+        return keys.clone();
+    }
+    
+    /**
+     * Returns the key mask held after moving into the given cell.
+     * 
+     * @param cell The packed index of the cell moved into
+     * @param keyMask The keys held before the move
+     * @return The given keyMask, plus the key at cell if there is one
+     */
+    public int getKeyMask (int cell, int keyMask) {
+        return keyCells.get(cell) ? keyMask | (1 << Arrays.binarySearch(keys, cell)) : keyMask;
+    }
+    
+    /**
+     * @return The indexes of the goal cells in this maze, in row-major order.
+     */
+    public int[] getGoalCells () {
+        return goals.clone();
+    }
+    
+    /**
+     * Converts the given (col, row) coordinates into a packed cell index.
+     */
+    public int index (int col, int row) {
+        return row * cols + col;
+    }
+    
+    /**
+     * @return The column of the given packed cell index.
+     */
+    public int colOf (int cell) {
+        return cell % cols;
+    }
+    
+    /**
+     * @return The row of the given packed cell index.
+     */
+    public int rowOf (int cell) {
+        return cell / cols;
+    }
+    
+    /**
+     * @return A new MazeState (col, row) for the given packed cell index.
+     */
+    public MazeState toState (int cell) {
+        return new MazeState(colOf(cell), rowOf(cell));
+    }
+    
+    /**
+     * @return The type (WALL, OPEN, or MUD) of the given packed cell index.
+     */
+    public byte getType (int cell) {
+        return cells.get(cell);
+    }
+    
+    /**
+     * Returns the cell reached by taking the given action from the given cell.
+     * 
+     * @param cell The packed index of the cell to move from
+     * @param action One of UP, DOWN, LEFT, or RIGHT
+     * @return The packed index of the neighboring cell, or -1 if the move would
+     * leave the maze or run into a wall
+     */
+    public int getNeighbor (int cell, int action) {
+        int next;
+        switch (action) {
+        case UP:
+            next = cell - cols; break;
+        case DOWN:
+            next = cell + cols;
+            if (next >= cells.size()) { return -1; }
+            break;
+        case LEFT:
+            if (cell % cols == 0) { return -1; }
+            next = cell - 1; break;
+        case RIGHT:
+            next = cell + 1;
+            if (next % cols == 0) { return -1; }
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown action: " + action);
+        }
+        return (next < 0 || cells.get(next) == WALL) ? -1 : next;
+    }
+    
+    /**
+     * Returns whether or not the given state holds a goal, without regard to
+     * which keys have been collected; see isGoal(int, int) for the full test.
      * 
      * @param state A MazeState (col, row) to test
-     * @return Boolean of whether or not the given state is a Goal.
+     * @return Boolean of whether or not the given state is a goal cell.
      */
     public boolean isGoal (MazeState state) {
-    	if (state.equals(KEY_STATE)) {
-    		visitedKey = true;
-    	}
-    	if (visitedKey == true) {
-    		for (MazeState goal : GOAL_STATE.values()) {
-    			if (goal.equals(state))
-    				return true;
-    		}
-    	}
-    	return false;
+        return state.col >= 0 && state.col < cols && state.row >= 0 && state.row < rows
+            && isGoalCell(index(state.col, state.row));
+    }
+    
+    /**
+     * Returns whether or not the given cell, reached while holding the keys in the
+     * given key mask, is a Goal state.
+     * 
+     * @param cell The packed index of the cell to test
+     * @param keyMask The keys held on reaching the cell
+     * @return Boolean of whether or not the given (cell, keyMask) is a Goal.
+     */
+    public boolean isGoal (int cell, int keyMask) {
+        return keyMask == getAllKeysMask() && goalCells.get(cell);
+    }
+    
+    /**
+     * Returns whether or not the given packed cell holds a goal, without regard
+     * to which keys have been collected.
+     * 
+     * @param cell The packed index of the cell to test
+     * @return Boolean of whether or not the given cell is a goal cell.
+     */
+    public boolean isGoalCell (int cell) {
+        return goalCells.get(cell);
+    }
+    
+    /**
+     * Returns whether or not the given cells are joined by some path, regardless
+     * of cost or keys. The maze is labelled into connected components on the
+     * first call, and the labelling is then reused by every later call.
+     * 
+     * @param from The packed index of the cell to start from
+     * @param to The packed index of the cell to reach
+     * @return Boolean of whether or not to can be reached from from.
+     */
+    public boolean isReachable (int from, int to) {
+        int[] labels = derive("components", MazeProblem::labelComponents);
+        return labels[from] != 0 && labels[from] == labels[to];
+    }
+    
+    /**
+     * Flood-fills every open region of the maze with its own label, starting at 1;
+     * walls are left as 0.
+     */
+    private int[] labelComponents () {
+        int[] labels = new int[cells.size()], queue = new int[cells.size()];
+        int label = 0;
+        for (int seed = 0; seed < labels.length; seed++) {
+            if (cells.get(seed) == WALL || labels[seed] != 0) {
+                continue;
+            }
+            label++;
+            int head = 0, tail = 0;
+            labels[seed] = label;
+            queue[tail++] = seed;
+            while (head < tail) {
+                int cell = queue[head++];
+                for (int action = UP; action <= RIGHT; action++) {
+                    int next = getNeighbor(cell, action);
+                    if (next != -1 && labels[next] == 0) {
+                        labels[next] = label;
+                        queue[tail++] = next;
+                    }
+                }
+            }
+        }
+        return labels;
     }
     
     /**
@@ -160,23 +653,19 @@ public class MazeProblem {
      * 
      * @param state A MazeState (col, row) to test
      * @return int of cost.
-     */    
+     */
+    public int getCost (MazeState state) {
+        return getCost(index(state.col, state.row));
+    }
     
-    public int getCost(MazeState state) {
-       	int cost = 0;
-       	
-    	switch (maze[state.row].charAt(state.col)) {
-                case '.':
-                    cost = 1; break;
-                case 'M':
-                    cost = 3; break;
-                case 'G':
-                    cost = 1; break;
-                case 'K':
-                    cost = 1; break;                    
-                
-        }   
-        return cost;
+    /**
+     * Returns the cost associated with moving to the given packed cell
+     * 
+     * @param cell The packed index of the cell to test
+     * @return int of cost: 1 for open cells, 3 for mud, and 0 for walls.
+     */
+    public int getCost (int cell) {
+        return COSTS[cells.get(cell)];
     }
     
     
@@ -194,27 +683,21 @@ public class MazeProblem {
         // Store transitions as a Map between actions ("U", "D", ...) and
         // the MazeStates that they result in from state
         Map<String, MazeState> result = new HashMap<>();
+        if (state.col < 0 || state.col >= cols || state.row < 0 || state.row >= rows) {
+            return result;
+        }
         
-        // For each of the possible directions (stored in TRANS_MAP), test
-        // to see if it is a valid transition
-        for (Map.Entry<String, MazeState> action : TRANS_MAP.entrySet()) {
-            MazeState actionMod = action.getValue(),
-                      newState  = new MazeState(state.col, state.row);
-            newState.add(actionMod);
-            
-            // If the given state *is* a valid transition (i.e., within
-            // map bounds and no wall at the position)...
-            if (newState.row >= 0 && newState.row < rows &&
-                newState.col >= 0 && newState.col < cols &&
-                maze[newState.row].charAt(newState.col) != 'X') {
-                // ...then add it to the result!
-                result.put(action.getKey(), newState);
-                
+        // For each of the possible actions, test to see if it is a valid
+        // transition (i.e., within map bounds and no wall at the position)
+        int cell = index(state.col, state.row);
+        for (int action = UP; action <= RIGHT; action++) {
+            int next = getNeighbor(cell, action);
+            if (next != -1) {
+                result.put(ACTIONS[action], toState(next));
             }
         }
         return result;
     }
-       
     
     /**
      * Given a possibleSoln, tests to ensure that it is indeed a solution to this MazeProblem,
@@ -226,36 +709,60 @@ public class MazeProblem {
      * isSoln will be 0 if it is not a solution, and 1 if it is
      * cost will be an integer denoting the cost of the given solution to test optimality
      */
-    public int[] testSolution (ArrayList<String> possibleSoln) {    	
-    	if (possibleSoln == null)
-    	{
-    		return null;
-    	}
-    	
-        // Update the "moving state" that begins at the start and is modified by the transitions
-        MazeState movingState = new MazeState(INITIAL_STATE.col, INITIAL_STATE.row);
-        int cost = 0;
-        boolean hasKey = false;
-        int[] result = {0, -1};
+    public int[] testSolution (ArrayList<String> possibleSoln) {
+        if (possibleSoln == null) {
+            return null;
+        }
         
-        // For each action, modify the movingState, and then check that we have landed in
-        // a legal position in this maze
+        // Replay each action from the initial cell, checking that it lands on a
+        // legal cell of this maze
+        int[] result = {0, -1};
+        if (INITIAL_CELL == -1) {
+            return result;
+        }
+        int cell = INITIAL_CELL, cost = 0, keyMask = getKeyMask(INITIAL_CELL, 0);
         for (String action : possibleSoln) {
-            MazeState actionMod = TRANS_MAP.get(action);
-            movingState.add(actionMod);
-            switch (maze[movingState.row].charAt(movingState.col)) {
-            case 'X':
+            int code = CompactPath.codeOf(action);
+            if (code == -1 || (cell = getNeighbor(cell, code)) == -1) {
                 return result;
-            case 'K':
-                hasKey = true; break;
             }
-            cost += getCost(movingState);
+            keyMask = getKeyMask(cell, keyMask);
+            cost += getCost(cell);
         }
-        result[0] = isGoal(movingState) && hasKey ? 1 : 0;
+        result[0] = isGoal(cell, keyMask) ? 1 : 0;
         result[1] = cost;
-        if (result[0] ==1) {
-        System.out.println(possibleSoln);
+        return result;
+    }
+    
+    /**
+     * As testSolution(ArrayList), for a solution held as a CompactPath: the path
+     * is replayed against the grid one straight run of moves at a time, without
+     * converting it to Strings.
+     * 
+     * @param possibleSoln A possible solution to test
+     * @return A 2-element array of ints of the format [isSoln, cost], as above
+     */
+    public int[] testSolution (CompactPath possibleSoln) {
+        if (possibleSoln == null) {
+            return null;
         }
+        int[] result = {0, -1};
+        if (INITIAL_CELL == -1) {
+            return result;
+        }
+        int cell = INITIAL_CELL, cost = 0, keyMask = getKeyMask(INITIAL_CELL, 0), length = possibleSoln.length();
+        for (int i = 0; i < length; ) {
+            int action = possibleSoln.getAction(i);
+            for (int run = possibleSoln.runFrom(i); run > 0; run--, i++) {
+                if ((cell = getNeighbor(cell, action)) == -1) {
+                    return result;
+                }
+                keyMask = getKeyMask(cell, keyMask);
+                cost += getCost(cell);
+            }
+        }
+        result[0] = isGoal(cell, keyMask) ? 1 : 0;
+        result[1] = cost;
         return result;
     }
     
@@ -0,0 +1,75 @@
+/** ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ *  File name     :  MazeState.java
+ *  Purpose       :  Provides a class describing a (col, row) position in the Maze
+ *  @author       :  Sebastian Grasso / Brett Derham
+ *  Date          :  2019-02-11 
+ *  Description   :  A mutable (col, row) coordinate used by the String-action API of the MazeProblem, both as
+ *                   a position in the maze and as the offset of a transition.
+ *                   Includes the following:
+ *                   
+ *                   MazeState (int col, int row)
+ *                   // Constructs a new MazeState at the given column and row
+ *                   
+ *                   public void add (MazeState other)
+ *                   // Moves this state by the given offset
+ *                   
+ *  Warnings      :  MazeStates are mutable; copy one before moving it if it is shared
+ *  Exceptions    :  None
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ *  Revision History
+ *  ---------------
+ *            Rev      Date     Modified by:  Reason for change/modification
+ *           -----  ----------  ------------  -----------------------------------------------------------
+ *  @version 1.0.0  2019-02-11  Authors       Finished homework assignment one
+ *  @version 1.1.0  2026-10-18  Authors       Checked in alongside the build
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~ */
+
+
+package pathfinder.informed;
+
+/**
+ * Maze Pathfinding state: a (col, row) position in the maze, or an offset between two.
+ */
+public class MazeState {
+    
+    public int col, row;
+    
+    /**
+     * Constructs a new MazeState at the given column and row.
+     * 
+     * @param col The column, counted from the left of the maze
+     * @param row The row, counted from the top of the maze
+     */
+    MazeState (int col, int row) {
+        this.col = col;
+        this.row = row;
+    }
+    
+    /**
+     * Moves this state by the given offset, e.g. one of the MazeProblem's transitions.
+     * 
+     * @param other The offset to add to this state
+     */
+    public void add (MazeState other) {
+        col += other.col;
+        row += other.row;
+    }
+    
+    @Override
+    public boolean equals (Object other) {
+        return other instanceof MazeState
+            ? col == ((MazeState) other).col && row == ((MazeState) other).row
+            : false;
+    }
+    
+    @Override
+    public int hashCode () {
+        return col * 31 + row;
+    }
+    
+    @Override
+    public String toString () {
+        return "(" + col + ", " + row + ")";
+    }
+    
+}
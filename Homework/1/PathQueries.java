@@ -0,0 +1,304 @@
+/** ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ *  File name     :  PathQueries.java
+ *  Purpose       :  Provides many-to-many cheapest path queries between cells of a single MazeProblem
+ *  @author       :  Sebastian Grasso / Brett Derham
+ *  Date          :  2026-10-18
+ *  Description   :  Answers a batch of (start, target) cell pairs over one maze without building a MazeProblem
+ *                   or running a full solve per pair. The pairs are grouped by their shared target, or by their
+ *                   shared start when there are fewer distinct starts, and each group is answered by a single
+ *                   Dijkstra (Dial's bucketed variant, as in MazeDistances) from that cell: backward from a
+ *                   target, forward from a start. Each run stops once every cell of its group is settled, and
+ *                   every path of the group is then read off the run's shared tree of moves. Paths are
+ *                   returned as CompactPaths rather than as lists of Strings.
+ *                   Includes the following:
+ *                   
+ *                   public static CompactPath[] solve (MazeProblem problem, int[] starts, int[] targets)
+ *                   // Returns a cheapest path for each (starts[i], targets[i]) pair, on the calling thread
+ *                   
+ *                   public static CompactPath[] solve (MazeProblem problem, int[] starts, int[] targets,
+ *                                                      Executor executor)
+ *                   // As above, with the groups spread across the given executor
+ *                   
+ *  Warnings      :  Paths run between cells only; the maze's keys, goals, and initial state are ignored
+ *  Exceptions    :  IllegalArgumentException when the pair arrays differ in length or name a cell outside
+ *                   the maze
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ *  Revision History
+ *  ---------------
+ *            Rev      Date     Modified by:  Reason for change/modification
+ *           -----  ----------  ------------  -----------------------------------------------------------
+ *  @version 1.0.0  2026-10-18  Authors       Many-to-many path queries over shared search trees
+ *  @version 1.1.0  2026-10-18  Authors       Paths returned as CompactPaths instead of byte[] action codes
+ *  @version 1.1.1  2026-10-18  Authors       Scratch grown so that an OutOfMemoryError leaves it usable
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~ */
+
+
+package pathfinder.informed;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Cheapest paths between many pairs of cells of one maze, sharing one search
+ * per distinct target (or start).
+ */
+public final class PathQueries {
+    
+    // Fields
+    // -----------------------------------------------------------------------------
+    
+    // One bucket per distance modulo the largest move cost plus one
+    private static final int BUCKETS = 4;
+    
+    // Groups are split into this many tasks per thread of the executor
+    private static final int TASKS_PER_THREAD = 4;
+    
+    // Search scratch space owned by each thread, reused by every later run on it
+    private static final ThreadLocal<Tree> TREES = ThreadLocal.withInitial(Tree::new);
+    
+    private PathQueries () {}
+    
+    
+    // Methods
+    // -----------------------------------------------------------------------------
+    
+    /**
+     * Returns a cheapest path from starts[i] to targets[i] for every i, answering
+     * all of the pairs that share a target (or a start) with one search.
+     * 
+     * @param problem The MazeProblem whose maze the paths cross
+     * @param starts The packed index of the first cell of each path
+     * @param targets The packed index of the last cell of each path
+     * @return The moves of each path, an empty path when its start is its
+     * target, or null when the target cannot be reached from the
+     * start (e.g. either is a wall)
+     */
+    public static CompactPath[] solve (MazeProblem problem, int[] starts, int[] targets) {
+        return solve(problem, starts, targets, null);
+    }
+    
+    /**
+     * As solve(problem, starts, targets), with the groups of pairs split into
+     * tasks across the given executor, each run with its thread's own scratch
+     * space.
+     * 
+     * @param executor The executor to run the searches on, or null to run them on
+     * the calling thread
+     */
+    public static CompactPath[] solve (MazeProblem problem, int[] starts, int[] targets, Executor executor) {
+        if (starts.length != targets.length) {
+            throw new IllegalArgumentException("Expected as many targets as starts");
+        }
+        int cellCount = problem.getCellCount();
+        for (int i = 0; i < starts.length; i++) {
+            if (starts[i] < 0 || starts[i] >= cellCount || targets[i] < 0 || targets[i] >= cellCount) {
+                throw new IllegalArgumentException("No such cell in pair " + i);
+            }
+        }
+        
+        // Search from whichever end of the pairs has fewer distinct cells
+        boolean backward = distinct(targets) <= distinct(starts);
+        int[] roots = backward ? targets : starts, ends = backward ? starts : targets;
+        
+        // Sort the pairs by root, as (root << 32 | pair), and find where each group begins
+        long[] order = new long[roots.length];
+        for (int i = 0; i < roots.length; i++) {
+            order[i] = ((long) roots[i] << 32) | i;
+        }
+        Arrays.sort(order);
+        int[] groups = new int[order.length + 1];
+        int groupCount = 0;
+        for (int i = 0; i < order.length; i++) {
+            if (i == 0 || (order[i] >>> 32) != (order[i - 1] >>> 32)) {
+                groups[groupCount++] = i;
+            }
+        }
+        groups[groupCount] = order.length;
+        
+        CompactPath[] paths = new CompactPath[order.length];
+        if (executor == null || groupCount <= 1) {
+            TREES.get().answer(problem, backward, ends, order, groups, 0, groupCount, paths);
+            return paths;
+        }
+        
+        int threads = (executor instanceof ForkJoinPool)
+            ? ((ForkJoinPool) executor).getParallelism()
+            : Runtime.getRuntime().availableProcessors(),
+            slice = Math.max(1, -Math.floorDiv(-groupCount, threads * TASKS_PER_THREAD));
+        CompletableFuture<?>[] tasks = new CompletableFuture<?>[-Math.floorDiv(-groupCount, slice)];
+        for (int t = 0; t < tasks.length; t++) {
+            int from = t * slice, to = Math.min(groupCount, from + slice);
+            tasks[t] = CompletableFuture.runAsync(
+                () -> TREES.get().answer(problem, backward, ends, order, groups, from, to, paths), executor);
+        }
+        CompletableFuture.allOf(tasks).join();
+        return paths;
+    }
+    
+    /**
+     * @return The number of distinct values among the given cells.
+     */
+    private static int distinct (int[] cells) {
+        int[] sorted = cells.clone();
+        Arrays.sort(sorted);
+        int count = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+
+/**
+ * The scratch space of one thread's searches: the distance and move of every
+ * cell reached by the current run, invalidated between runs by epoch stamps.
+ */
+private static final class Tree {
+    
+    private int[] dist = new int[0], stamp = new int[0], wanted = new int[0];
+    private byte[] via = new byte[0];
+    private int epoch;
+    private final CompactPath.Builder path = new CompactPath.Builder();
+    
+    // Bucket d % BUCKETS holds the cells whose tentative distance is d
+    private final int[][] buckets = new int[BUCKETS][16];
+    private final int[] sizes = new int[BUCKETS];
+    
+    /**
+     * Answers the groups [from, to) of the sorted pairs, one run per group.
+     */
+    void answer (MazeProblem problem, boolean backward, int[] ends, long[] order, int[] groups,
+                 int from, int to, CompactPath[] paths) {
+        ensureCapacity(problem.getCellCount());
+        for (int group = from; group < to; group++) {
+            int first = groups[group], last = groups[group + 1], root = (int) (order[first] >>> 32);
+            nextEpoch();
+            int pending = 0;
+            for (int i = first; i < last; i++) {
+                int end = ends[(int) order[i]];
+                if (wanted[end] != epoch) {
+                    wanted[end] = epoch;
+                    pending++;
+                }
+            }
+            grow(problem, root, backward, pending);
+            for (int i = first; i < last; i++) {
+                int pair = (int) order[i];
+                paths[pair] = backward ? pathFrom(problem, ends[pair]) : pathTo(problem, ends[pair]);
+            }
+        }
+    }
+    
+    /**
+     * Runs Dijkstra from the root, forward or backward, until the given number of
+     * wanted cells have all been settled or nothing more can be reached. For each
+     * cell reached, via holds the move along the tree: backward, the first move
+     * from the cell toward the root; forward, the move into the cell from its
+     * parent.
+     */
+    private void grow (MazeProblem problem, int root, boolean backward, int pending) {
+        if (problem.getType(root) == MazeProblem.WALL) {
+            return;
+        }
+        Arrays.fill(sizes, 0);
+        int queued = 1;
+        stamp[root] = epoch;
+        dist[root] = 0;
+        buckets[0][sizes[0]++] = root;
+        for (int d = 0; queued > 0; d++) {
+            int b = d % BUCKETS;
+            // Moves cost at least 1, so nothing is added to this bucket while it drains
+            for (int i = 0; i < sizes[b]; i++) {
+                int cell = buckets[b][i];
+                queued--;
+                if (dist[cell] != d) {
+                    continue;
+                }
+                if (wanted[cell] == epoch && --pending == 0) {
+                    return;
+                }
+                int backwardCost = problem.getCost(cell);
+                for (int action = MazeProblem.UP; action <= MazeProblem.RIGHT; action++) {
+                    int next = problem.getNeighbor(cell, action);
+                    if (next == -1) {
+                        continue;
+                    }
+                    int dNext = d + (backward ? backwardCost : problem.getCost(next));
+                    if (stamp[next] != epoch || dNext < dist[next]) {
+                        stamp[next] = epoch;
+                        dist[next] = dNext;
+                        // Backward, next moves into cell by the opposite action
+                        via[next] = (byte) (backward ? action ^ 1 : action);
+                        int nb = dNext % BUCKETS;
+                        if (sizes[nb] == buckets[nb].length) {
+                            buckets[nb] = Arrays.copyOf(buckets[nb], sizes[nb] * 2);
+                        }
+                        buckets[nb][sizes[nb]++] = next;
+                        queued++;
+                    }
+                }
+            }
+            sizes[b] = 0;
+        }
+    }
+    
+    /**
+     * @return The moves from the given cell down the backward tree to its root,
+     * or null if the run did not reach the cell.
+     */
+    private CompactPath pathFrom (MazeProblem problem, int cell) {
+        if (stamp[cell] != epoch) {
+            return null;
+        }
+        path.clear();
+        for (int at = cell; dist[at] != 0; at = problem.getNeighbor(at, via[at])) {
+            path.add(via[at]);
+        }
+        return path.build();
+    }
+    
+    /**
+     * @return The moves from the root of the forward tree up to the given cell,
+     * or null if the run did not reach the cell.
+     */
+    private CompactPath pathTo (MazeProblem problem, int cell) {
+        if (stamp[cell] != epoch) {
+            return null;
+        }
+        path.clear();
+        for (int at = cell; dist[at] != 0; at = problem.getNeighbor(at, via[at] ^ 1)) {
+            path.add(via[at]);
+        }
+        path.reverse(0);
+        return path.build();
+    }
+    
+    private void ensureCapacity (int capacity) {
+        if (capacity > stamp.length) {
+            dist = Arrays.copyOf(dist, capacity);
+            wanted = Arrays.copyOf(wanted, capacity);
+            via = Arrays.copyOf(via, capacity);
+            stamp = Arrays.copyOf(stamp, capacity);
+        }
+    }
+    
+    /**
+     * Invalidates every distance and wanted mark of the last run in O(1); the
+     * stamps are only cleared when the epoch counter wraps.
+     */
+    private void nextEpoch () {
+        if (epoch == Integer.MAX_VALUE) {
+            Arrays.fill(stamp, 0);
+            Arrays.fill(wanted, 0);
+            epoch = 0;
+        }
+        epoch++;
+    }
+
+}
+
+}
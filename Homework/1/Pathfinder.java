@@ -3,7 +3,7 @@
  *  Purpose       :  Provides a class describing a Pathfinder solution to solve the given Maze Problem
  *  @author       :  Sebastian Grasso / Brett Derham
  *  Date          :  2019-02-11 
- *  Description   :  A Maze Pathfinding algorithm that implements an informed A* tree search.
+ *  Description   :  A Maze Pathfinding algorithm that implements an informed A* graph search.
  *                   Includes the following:
  *                   
  *                   public static ArrayList<String> solve (MazeProblem problem)
@@ -11,170 +11,553 @@
  *                      search, returns a solution to the problem as a sequence of actions that leads from
  *                      the initial to a goal state.
  *                   
- *                   public static int manhattan(SearchTreeNode curr, MazeState currentGoal)
- *                   // Helper method designed to calculate Manhattan Distance Heuristic.
+ *                   public static ArrayList<String> solve (MazeProblem problem, Heuristic heuristic)
+ *                   // As above, guided by the given Heuristic (e.g., ManhattanHeuristic, DistanceTableHeuristic,
+ *                      or LandmarkHeuristic) instead of the default Manhattan heuristic.
  *                   
- *                   public static ArrayList<String> retrace(SearchTreeNode end)
- *                   // Helper method designed to obtain path to solution.
+ *                   public static ArrayList<String> solveJumpPoints (MazeProblem problem, Heuristic heuristic)
+ *                   // As above, using Jump Point Search to cross open areas of the maze in single jumps.
  *                   
- *                   class SearchTreeNode implements Comparable<SearchTreeNode>
- *                   // SearchTreeNode that is used in the Search algorithm to construct the Search tree.
+ *                   public static CompactPath solveCompact (MazeProblem problem)
+ *                   // As solve, returning the solution as a CompactPath rather than as a list of Strings.
  *                   
- *                   SearchTreeNode (MazeState state, String action, SearchTreeNode parent, int costOfMove)
- *                   // Constructs a new SearchTreeNode to be used in the Search Tree.
+ *                   public static ArrayList<String> solveHierarchical (MazeProblem problem)
+ *                   // Returns a near-optimal solution found over the maze's cached HierarchicalMap.
+ *                   
+ *                   public static ArrayList<String> solveBidirectional (MazeProblem problem, Executor executor)
+ *                   // Returns an optimal solution found by searching from both ends of the maze at once,
+ *                      optionally with the backward search running on the given executor.
+ *                   
+ *                   public static BoundedSolution solveWeighted (MazeProblem problem, double weight)
+ *                   // Returns a solution found by Weighted A*, costing at most weight times the optimal cost.
+ *                   
+ *                   public static BoundedSolution solveAnytime (MazeProblem problem, double weight, long budgetNanos,
+ *                                                               Consumer<BoundedSolution> onImproved)
+ *                   // Returns the best solution ARA* finds within the time budget, with its suboptimality bound,
+ *                      handing each better one to onImproved as it is found.
+ *                   
+ *                   public static CompactPath solveExternal (MazeProblem problem, Path workDir, long memoryBytes)
+ *                   // Returns an optimal solution found by an external-memory search, for mazes too large to
+ *                      search on the heap.
+ *                   
+ *                   public static List<ArrayList<String>> solveAll (Collection<MazeProblem> problems, Executor executor)
+ *                   // Solves a batch of MazeProblems across the given executor, returning the solutions in input
+ *                      order.
+ *                   
+ *                   public static Stream<CompletableFuture<ArrayList<String>>> solveAsync (Stream<MazeProblem> problems,
+ *                                                                                          Executor executor)
+ *                   // Solves each MazeProblem of a stream on the given executor, as a stream of futures.
+ *                   
+ *                   public static void setListener (SearchListener listener)
+ *                   // Installs the SearchListener told about the SearchStats of every later solve
  *                                      
- *  Warnings      :  None
- *  Exceptions    :  None
+ *  Warnings      :  The installed SearchListener is called on the solving threads, concurrently for batches
+ *  Exceptions    :  IllegalArgumentException for weights below 1, negative time budgets, or memory limits
+ *                   below 4 MiB; IOException when the files of an external-memory search cannot be used
  * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
  *  Revision History
  *  ---------------
  *            Rev      Date     Modified by:  Reason for change/modification
  *           -----  ----------  ------------  -----------------------------------------------------------
  *  @version 1.0.0  2019-02-11  Authors       Finished homework assignment one
+ *  @version 1.1.0  2026-10-18  Authors       Search over packed int cell indexes
+ *  @version 1.2.0  2026-10-18  Authors       Replaced the tree search with the AStarSearch graph search
+ *  @version 1.3.0  2026-10-18  Authors       One search over (cell, keyMask) states for any number of keys
+ *  @version 1.4.0  2026-10-18  Authors       Per-thread search scratch and the concurrent batch API
+ *  @version 1.5.0  2026-10-18  Authors       Pluggable heuristics
+ *  @version 1.6.0  2026-10-18  Authors       Jump Point Search mode
+ *  @version 1.7.0  2026-10-18  Authors       Hierarchical (HPA*) mode
+ *  @version 1.8.0  2026-10-18  Authors       SearchListener instrumentation in place of printing each cost
+ *  @version 1.9.0  2026-10-18  Authors       No up-front reachability labelling of memory-mapped mazes
+ *  @version 1.10.0 2026-10-18  Authors       Bidirectional (NBA*) mode, sequential or on two threads
+ *  @version 1.11.0 2026-10-18  Authors       CompactPath solutions
+ *  @version 1.12.0 2026-10-18  Authors       Weighted A* and anytime (ARA*) modes with a time budget
+ *  @version 1.13.0 2026-10-18  Authors       External-memory mode for mazes too large to search on the heap
  * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~ */
 
 
 package pathfinder.informed;
 
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Map;
-import java.util.PriorityQueue;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
 
 
 /**
- * Maze Pathfinding algorithm that implements an informed, A* tree search.
+ * Maze Pathfinding algorithm that implements an informed, A* graph search.
  */
 public class Pathfinder {
     
+    // Search scratch space owned by each thread, grown to the largest maze that
+    // thread has solved and then reused by every later solve on it
+    private static final ThreadLocal<AStarSearch> SEARCH = ThreadLocal.withInitial(() -> new AStarSearch(0));
+    private static final ThreadLocal<BidirectionalSearch> BIDIRECTIONAL = ThreadLocal.withInitial(BidirectionalSearch::new);
+    private static final ThreadLocal<AnytimeSearch> ANYTIME = ThreadLocal.withInitial(AnytimeSearch::new);
+    
+    // Batches are split into this many tasks per thread of the executor, so that
+    // uneven mazes still balance across threads
+    private static final int TASKS_PER_THREAD = 4;
+    
+    // Told about the SearchStats of every solve; solves are only timed when it is
+    // not SearchListener.NONE
+    private static volatile SearchListener listener = SearchListener.NONE;
+    
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    
     /**
      * Given a MazeProblem, which specifies the actions and transitions available in the
      * search, returns a solution to the problem as a sequence of actions that leads from
      * the initial to a goal state.
      * 
+     * The solution is found by a single AStarSearch over the (cell, keyMask) states of
+     * the maze, so that every key is collected on the way to the closest goal in one
+     * optimal pass. Mazes whose keys or goals are walled off from the initial state are
+     * rejected up front using the problem's cached reachability.
+     * 
      * @param problem A MazeProblem that specifies the maze, actions, transitions.
      * @return An ArrayList of Strings representing actions that lead from the initial to
      * the goal state, of the format: ["R", "R", "L", ...]
      */
     public static ArrayList<String> solve (MazeProblem problem) {
+        return solve(problem, ManhattanHeuristic.of(problem));
+    }
+    
+    /**
+     * Given a MazeProblem, returns a solution to the problem as a sequence of actions
+     * that leads from the initial to a goal state, using the given Heuristic to guide
+     * the search. Heuristics backed by precomputed tables (DistanceTableHeuristic,
+     * LandmarkHeuristic) are built once per maze and pay off across many solves, e.g.
+     * over problems made with MazeProblem.withInitialState.
+     * 
+     * @param problem A MazeProblem that specifies the maze, actions, transitions.
+     * @param heuristic An admissible Heuristic built for the problem's maze
+     * @return An ArrayList of Strings representing actions that lead from the initial to
+     * the goal state, of the format: ["R", "R", "L", ...]
+     */
+    public static ArrayList<String> solve (MazeProblem problem, Heuristic heuristic) {
+        return check(problem, find(problem, SEARCH.get(), heuristic, null));
+    }
+    
+    /**
+     * As solve(problem), but returns the solution as a CompactPath, built straight
+     * from the search's parent links in O(length) and checked with
+     * MazeProblem.testSolution(CompactPath), so that no String is made per move.
+     * For solutions millions of moves long this takes far less time and memory.
+     * 
+     * @param problem A MazeProblem that specifies the maze, actions, transitions.
+     * @return The moves that lead from the initial to the goal state, or null if
+     * there is no solution
+     */
+    public static CompactPath solveCompact (MazeProblem problem) {
+        AStarSearch search = SEARCH.get();
+        CompactPath sol = find(problem, search, ManhattanHeuristic.of(problem), null, goal -> {
+            CompactPath.Builder path = new CompactPath.Builder();
+            search.appendPath(problem, goal, path);
+            return path.build();
+        });
+        return (sol != null && problem.testSolution(sol)[0] == 1) ? sol : null;
+    }
+    
+    /**
+     * Given a MazeProblem, returns an optimal solution found with Jump Point Search,
+     * using the default Manhattan heuristic.
+     * 
+     * @see #solveJumpPoints(MazeProblem, Heuristic)
+     */
+    public static ArrayList<String> solveJumpPoints (MazeProblem problem) {
+        return solveJumpPoints(problem, ManhattanHeuristic.of(problem));
+    }
+    
+    /**
+     * Given a MazeProblem, returns a solution found with Jump Point Search: the same
+     * A* search, except that runs of open cells are crossed in single jumps rather
+     * than expanded cell by cell, and only mud, the cells around it, keys, and goals
+     * are expanded in every direction. On mazes with large open areas this expands
+     * far fewer states, and the solution costs the same as solve's.
+     * 
+     * @param problem A MazeProblem that specifies the maze, actions, transitions.
+     * @param heuristic An admissible Heuristic built for the problem's maze
+     * @return An ArrayList of Strings representing actions that lead from the initial to
+     * the goal state, of the format: ["R", "R", "L", ...]
+     */
+    public static ArrayList<String> solveJumpPoints (MazeProblem problem, Heuristic heuristic) {
+        return check(problem, find(problem, SEARCH.get(), heuristic, JumpPoints.of(problem)));
+    }
+    
+    /**
+     * Given a MazeProblem, returns a solution found over the problem's (cached)
+     * HierarchicalMap rather than the full grid: the cost of each solve then grows
+     * with the length of the path instead of the area of the maze, which pays off
+     * when the same large maze is solved from many initial states. The solution is
+     * near-optimal, and may cost slightly more than solve's.
+     * 
+     * @param problem A MazeProblem that specifies the maze, actions, transitions.
+     * @return An ArrayList of Strings representing actions that lead from the initial to
+     * the goal state, of the format: ["R", "R", "L", ...]
+     */
+    public static ArrayList<String> solveHierarchical (MazeProblem problem) {
+        SearchListener listener = Pathfinder.listener;
+        boolean timed = listener != SearchListener.NONE;
+        long wall = timed ? System.nanoTime() : 0, cpu = timed ? cpuTime() : 0;
         
-        PriorityQueue<SearchTreeNode> frontier = new PriorityQueue <SearchTreeNode>();
+        boolean searched = canFinish(problem, problem.INITIAL_CELL);
+        ArrayList<String> sol = searched
+            ? check(problem, HierarchicalMap.of(problem).findPath(problem.INITIAL_CELL))
+            : null;
+        if (timed) {
+            int cost = (sol == null) ? -1 : problem.testSolution(sol)[1];
+            wall = System.nanoTime() - wall;
+            cpu = (cpu == -1) ? -1 : cpuTime() - cpu;
+            listener.searchFinished(problem, searched ? HierarchicalMap.lastStats(cost, wall, cpu)
+                                                      : new SearchStats(0, 0, 0, 0, 0, -1, wall, cpu));
+        }
+        return sol;
+    }
+    
+    /**
+     * As solve(problem), but searching forward from the initial state and backward
+     * from every goal at once with NBA*, meeting in the middle. On long, winding
+     * mazes this expands fewer cells than solve, since neither frontier has to
+     * grow as far. The solution is optimal. Mazes with keys are solved by solve,
+     * as the backward search does not know which keys are held.
+     * 
+     * @param problem A MazeProblem that specifies the maze, actions, transitions.
+     * @return An ArrayList of Strings representing actions that lead from the initial to
+     * the goal state, of the format: ["R", "R", "L", ...]
+     */
+    public static ArrayList<String> solveBidirectional (MazeProblem problem) {
+        return solveBidirectional(problem, null);
+    }
+    
+    /**
+     * As solveBidirectional(problem), but with the backward search running on the
+     * given executor while the forward one runs on the calling thread, so that a
+     * single solve uses two threads. The CPU time reported to the SearchListener
+     * is that of the calling thread only.
+     * 
+     * @param executor The executor to run the backward search on, or null to run
+     * both searches on the calling thread
+     */
+    public static ArrayList<String> solveBidirectional (MazeProblem problem, Executor executor) {
+        if (problem.getKeyCount() != 0) {
+            return solve(problem);
+        }
+        SearchListener listener = Pathfinder.listener;
+        boolean timed = listener != SearchListener.NONE;
+        long wall = timed ? System.nanoTime() : 0, cpu = timed ? cpuTime() : 0;
         
-        SearchTreeNode root = new SearchTreeNode(problem.INITIAL_STATE, null, null, 0);
-        frontier.add(root);
+        BidirectionalSearch search = BIDIRECTIONAL.get();
+        boolean searched = canFinish(problem, problem.INITIAL_CELL);
+        int cost = !searched ? -1
+                 : (executor == null) ? search.search(problem, problem.INITIAL_CELL)
+                 : search.searchParallel(problem, problem.INITIAL_CELL, executor);
+        ArrayList<String> sol = null;
+        if (cost != -1) {
+            sol = new ArrayList<String>();
+            search.appendPath(problem, sol);
+        }
         
-        while (frontier.isEmpty() == false) {
-           
-            SearchTreeNode curr = frontier.remove();            
-        	
-            if (problem.isGoal(curr.state)) {         	
-              	ArrayList <String> sol = retrace(curr);
-            	int [] test = problem.testSolution(sol);
-            	if (test[0] == 1) {
-            		System.out.println(curr.historyScore);
-            		return sol;
-            	}
-            }
-            
-            Map<String, MazeState> moves = problem.getTransitions(curr.state);
-           
-            for (Map.Entry<String, MazeState> options : moves.entrySet()) {          	
+        if (timed) {
+            wall = System.nanoTime() - wall;
+            cpu = (cpu == -1) ? -1 : cpuTime() - cpu;
+            listener.searchFinished(problem, searched ? search.stats(wall, cpu)
+                                                      : new SearchStats(0, 0, 0, 0, 0, -1, wall, cpu));
+        }
+        return sol;
+    }
+    
+    /**
+     * Given a MazeProblem, returns a solution found by Weighted A*: a single search
+     * ordered by g + weight * h, which reaches a goal after far fewer expansions
+     * than solve on open mazes, at the price of a solution that may cost up to
+     * weight times the optimal one. The bound of the solution returned is often
+     * tighter than the weight, as it is also bounded by what the search left open.
+     * 
+     * @param problem A MazeProblem that specifies the maze, actions, transitions.
+     * @param weight The suboptimality allowed, at least 1; weight 1 is plain A*
+     * @return The solution and its bound, or null if there is no solution
+     * @throws IllegalArgumentException If the weight is less than 1
+     */
+    public static BoundedSolution solveWeighted (MazeProblem problem, double weight) {
+        return solveBounded(problem, weight, false, 0, null);
+    }
+    
+    /**
+     * As solveAnytime(problem, weight, budgetNanos, onImproved), without being
+     * told about the solutions found along the way.
+     */
+    public static BoundedSolution solveAnytime (MazeProblem problem, double weight, long budgetNanos) {
+        return solveAnytime(problem, weight, budgetNanos, null);
+    }
+    
+    /**
+     * Given a MazeProblem, returns the best solution that Anytime Repairing A*
+     * (ARA*) finds within the given time budget. The first solution is found by
+     * Weighted A* with the given weight; the search is then repeated with smaller
+     * and smaller weights, reusing the work of the earlier passes, and each better
+     * solution is handed to onImproved as soon as it is found, along with its
+     * current suboptimality bound. The search stops once a solution is proven
+     * optimal or the budget runs out. The budget is checked every 1024 expansions,
+     * and is not applied to the first pass, so that a solution is always found.
+     * 
+     * @param problem A MazeProblem that specifies the maze, actions, transitions.
+     * @param weight The suboptimality allowed of the first solution, at least 1
+     * @param budgetNanos The time to spend improving the solution, in nanoseconds
+     * @param onImproved Told about each better solution on the calling thread, or
+     * null
+     * @return The best solution found and its bound, or null if there is no
+     * solution
+     * @throws IllegalArgumentException If the weight is less than 1 or the budget
+     * is negative
+     */
+    public static BoundedSolution solveAnytime (MazeProblem problem, double weight, long budgetNanos,
+                                               Consumer<BoundedSolution> onImproved) {
+        if (budgetNanos < 0) {
+            throw new IllegalArgumentException("Negative time budget: " + budgetNanos);
+        }
+        return solveBounded(problem, weight, true, budgetNanos, onImproved);
+    }
+    
+    /**
+     * Runs the weighted or anytime search for the given problem, checking each
+     * solution found, and tells the installed SearchListener about the whole run.
+     */
+    private static BoundedSolution solveBounded (MazeProblem problem, double weight, boolean anytime,
+                                                 long budgetNanos, Consumer<BoundedSolution> onImproved) {
+        if (!(weight >= 1.0)) {
+            throw new IllegalArgumentException("Weight must be at least 1: " + weight);
+        }
+        SearchListener listener = Pathfinder.listener;
+        boolean timed = listener != SearchListener.NONE;
+        long wall = timed ? System.nanoTime() : 0, cpu = timed ? cpuTime() : 0,
+             deadline = System.nanoTime() + budgetNanos;
         
-            	int costOfMove = problem.getCost(options.getValue());
-            	SearchTreeNode temp = new SearchTreeNode(options.getValue(), options.getKey(), curr, costOfMove);
-            	
-             	if (problem.visitedKey) {
-                	int minManhattanScore= 0;            		
-            		for (MazeState goal : problem.GOAL_STATE.values()) {
-            			if (manhattan(temp, goal) < minManhattanScore) {
-            				minManhattanScore = manhattan(temp, goal);
-            			}
-            		}
-            	temp.manhattanScore = minManhattanScore;
-            	}
-            	else temp.manhattanScore = manhattan(temp, problem.KEY_STATE);
-            	            	            	
-            	frontier.add(temp);
-            }
+        AnytimeSearch search = ANYTIME.get();
+        boolean searched = canFinish(problem, problem.INITIAL_CELL);
+        BoundedSolution sol = !searched ? null
+            : search.search(problem, ManhattanHeuristic.of(problem), weight, anytime, deadline, onImproved);
+        if (sol != null && problem.testSolution(sol.getPath())[0] != 1) {
+            sol = null;
         }
-        return null;
-}
+        
+        if (timed) {
+            int cost = (sol == null) ? -1 : sol.getCost();
+            wall = System.nanoTime() - wall;
+            cpu = (cpu == -1) ? -1 : cpuTime() - cpu;
+            listener.searchFinished(problem, searched ? search.stats(cost, wall, cpu)
+                                                      : new SearchStats(0, 0, 0, 0, 0, -1, wall, cpu));
+        }
+        return sol;
+    }
     
-/**
-* Helper method designed to calculate Manhattan Distance Heuristic
-* 
-* @param curr, currentGoal Method takes in a nodes current location and goal and calculates 
-* distance between
-* 
-* @return Int value for the Manhattan Distance Heuristic
-*/
-
-public static int manhattan(SearchTreeNode curr, MazeState currentGoal) {
-	
-	int dx = Math.abs(curr.state.row - currentGoal.row);
-	int dy = Math.abs(curr.state.col - currentGoal.row);
-	
-	return (dx+dy);
-}
+    /**
+     * Given a MazeProblem too large to search on the heap, e.g. one opened from a
+     * MazeFile, returns an optimal solution found by an external-memory Dijkstra
+     * whose frontier and settled states are kept in files under the given
+     * directory. Apart from the solution itself, the heap the search uses stays
+     * within the given limit however large the maze; the disk it uses grows with
+     * the states it settles, about 8 bytes each, and is freed again on return.
+     * 
+     * @param problem A MazeProblem that specifies the maze, actions, transitions.
+     * @param workDir The directory to keep the search's files under, e.g. on a
+     * fast local disk
+     * @param memoryBytes The heap the search may use, at least 4 MiB
+     * @return The moves that lead from the initial to the goal state, or null if
+     * there is no solution
+     * @throws IOException If the search's files cannot be written or read
+     * @throws IllegalArgumentException If the memory limit is below 4 MiB
+     */
+    public static CompactPath solveExternal (MazeProblem problem, Path workDir, long memoryBytes) throws IOException {
+        ExternalSearch search = new ExternalSearch(workDir, memoryBytes);
+        SearchListener listener = Pathfinder.listener;
+        boolean timed = listener != SearchListener.NONE;
+        long wall = timed ? System.nanoTime() : 0, cpu = timed ? cpuTime() : 0;
+        
+        // Labelling the maze's components would take an int per cell, so only the
+        // checks that cost nothing are made up front
+        boolean searched = problem.INITIAL_CELL != -1 && problem.getGoalCells().length > 0;
+        CompactPath sol = searched ? search.search(problem, problem.INITIAL_CELL) : null;
+        if (sol != null && problem.testSolution(sol)[0] != 1) {
+            sol = null;
+        }
+        
+        if (timed) {
+            wall = System.nanoTime() - wall;
+            cpu = (cpu == -1) ? -1 : cpuTime() - cpu;
+            listener.searchFinished(problem, searched ? search.stats(wall, cpu)
+                                                      : new SearchStats(0, 0, 0, 0, 0, -1, wall, cpu));
+        }
+        return sol;
+    }
     
-/**
-* Helper method designed to obtain path to solution
-* 
-* @param end Method takes in and begins at the GOAL_STATE node and works through
-* parent nodes to obtain actions that got us to our Goal state
-* 
-* @return An array of Strings that represent the actions taken to get to the goal
-*/       
-public static ArrayList<String> retrace(SearchTreeNode end) {
-	
-	ArrayList <String> steps = new ArrayList <String>();
-	SearchTreeNode curr = end;
-	
-	while (curr.parent!= null) {
-		steps.add(0, curr.action);
-		curr = curr.parent;	
-	}
-	
-	return steps;
-
-}
+    /**
+     * Installs the SearchListener to tell about the SearchStats of every solve
+     * made from now on, by any of the methods of this class and on any thread.
+     * 
+     * @param listener The listener to install, or SearchListener.NONE (or null) to
+     * stop instrumenting solves
+     */
+    public static void setListener (SearchListener listener) {
+        Pathfinder.listener = (listener == null) ? SearchListener.NONE : listener;
+    }
     
-}    
-
-/**
- * SearchTreeNode that is used in the Search algorithm to construct the Search
- * tree.
- */
-class SearchTreeNode implements Comparable<SearchTreeNode>{
+    /**
+     * @return The SearchListener installed, or SearchListener.NONE if there is none.
+     */
+    public static SearchListener getListener () {
+        return listener;
+    }
     
-    MazeState state;
-    String action;
-    SearchTreeNode parent;
-    int historyScore;
-    int manhattanScore;
-    int fScore;
+    /**
+     * Returns the given solution if it solves the given problem, or null otherwise.
+     */
+    private static ArrayList<String> check (MazeProblem problem, ArrayList<String> sol) {
+        if (sol == null) {
+            return null;
+        }
+        return (problem.testSolution(sol)[0] == 1) ? sol : null;
+    }
+    
+    /**
+     * Solves a batch of MazeProblems across the common fork-join pool.
+     * 
+     * @see #solveAll(Collection, Executor)
+     */
+    public static List<ArrayList<String>> solveAll (Collection<MazeProblem> problems) {
+        return solveAll(problems, ForkJoinPool.commonPool());
+    }
     
     /**
-     * Constructs a new SearchTreeNode to be used in the Search Tree.
+     * Solves a batch of MazeProblems across the given executor. The batch is split
+     * into contiguous slices, each solved by one task using its thread's own search
+     * scratch space, so the only state shared between threads is the (immutable)
+     * problems themselves. Nothing is printed.
      * 
-     * @param state The MazeState (col, row) that this node represents.
-     * @param action The action that *led to* this state / node.
-     * @param parent Reference to parent SearchTreeNode in the Search Tree.
-     * @param costOfMove The cost of the current move
+     * @param problems The MazeProblems to solve
+     * @param executor The executor to run the solves on, e.g. a ForkJoinPool
+     * @return The solution to each problem (or null if it has none), in the order of
+     * the given collection
      */
-    SearchTreeNode (MazeState state, String action, SearchTreeNode parent, int costOfMove) {
-        this.state = state;
-        this.action = action;
-        this.parent = parent;
-        if (this.parent !=null) {
-        	this.historyScore = parent.historyScore + costOfMove;
+    public static List<ArrayList<String>> solveAll (Collection<MazeProblem> problems, Executor executor) {
+        MazeProblem[] batch = problems.toArray(new MazeProblem[0]);
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        ArrayList<String>[] sols = new ArrayList[batch.length];
+        
+        int threads = (executor instanceof ForkJoinPool)
+            ? ((ForkJoinPool) executor).getParallelism()
+            : Runtime.getRuntime().availableProcessors(),
+            slice = Math.max(1, -Math.floorDiv(-batch.length, threads * TASKS_PER_THREAD));
+        
+        CompletableFuture<?>[] tasks = new CompletableFuture<?>[-Math.floorDiv(-batch.length, slice)];
+        for (int t = 0; t < tasks.length; t++) {
+            int from = t * slice, to = Math.min(batch.length, from + slice);
+            tasks[t] = CompletableFuture.runAsync(() -> {
+                AStarSearch search = SEARCH.get();
+                for (int i = from; i < to; i++) {
+                    sols[i] = find(batch[i], search, ManhattanHeuristic.of(batch[i]), null);
+                }
+            }, executor);
         }
-        	this.manhattanScore = 0;
-        this.fScore = this.historyScore + this.manhattanScore;
+        CompletableFuture.allOf(tasks).join();
+        return Arrays.asList(sols);
+    }
+    
+    /**
+     * Solves each MazeProblem of the given stream on the given executor. Solves are
+     * submitted lazily, as the returned stream is consumed, and each runs with its
+     * thread's own search scratch space. Nothing is printed.
+     * 
+     * @param problems The MazeProblems to solve
+     * @param executor The executor to run the solves on
+     * @return A stream of futures, in the order of the given stream, that complete
+     * with the solution to each problem (or null if it has none)
+     */
+    public static Stream<CompletableFuture<ArrayList<String>>> solveAsync (Stream<MazeProblem> problems, Executor executor) {
+        return problems.map(problem -> CompletableFuture.supplyAsync(
+            () -> find(problem, SEARCH.get(), ManhattanHeuristic.of(problem), null), executor));
     }
-   
-    public int compareTo(SearchTreeNode a) {
-    	return this.fScore - a.fScore;
+    
+    /**
+     * Runs the search for the given problem with the given scratch space (and jump
+     * points, if not null), returning the optimal solution or null if there is none,
+     * and tells the installed SearchListener about it.
+     */
+    private static ArrayList<String> find (MazeProblem problem, AStarSearch search, Heuristic heuristic,
+                                           JumpPoints jumps) {
+        return find(problem, search, heuristic, jumps, goal -> {
+            ArrayList<String> sol = new ArrayList<String>();
+            search.appendPath(problem, goal, sol);
+            return sol;
+        });
     }
     
+    /**
+     * As above, with the solution built from the goal state reached by the given
+     * function, e.g. as Strings or as a CompactPath.
+     */
+    private static <P> P find (MazeProblem problem, AStarSearch search, Heuristic heuristic, JumpPoints jumps,
+                               IntFunction<P> path) {
+        SearchListener listener = Pathfinder.listener;
+        boolean timed = listener != SearchListener.NONE;
+        long wall = timed ? System.nanoTime() : 0, cpu = timed ? cpuTime() : 0;
+        
+        boolean searched = canFinish(problem, problem.INITIAL_CELL);
+        int goal = searched ? search.search(problem, problem.INITIAL_CELL, heuristic, jumps) : -1;
+        P sol = (goal == -1) ? null : path.apply(goal);
+        
+        if (timed) {
+            int cost = (goal == -1) ? -1 : search.costTo(goal);
+            wall = System.nanoTime() - wall;
+            cpu = (cpu == -1) ? -1 : cpuTime() - cpu;
+            listener.searchFinished(problem, searched ? search.stats(cost, wall, cpu)
+                                                      : new SearchStats(0, 0, 0, 0, 0, -1, wall, cpu));
+        }
+        return sol;
+    }
+    
+    /**
+     * @return The CPU time of the calling thread in nanoseconds, or -1 if the JVM
+     * does not measure it.
+     */
+    private static long cpuTime () {
+        return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : -1;
+    }
+    
+    /**
+     * Returns whether every key and at least one goal of the given problem can be
+     * reached from the given cell. Mazes read from a mapped MazeFile are not
+     * labelled, since that would page in the whole file; their searches find out
+     * for themselves instead.
+     */
+    static boolean canFinish (MazeProblem problem, int from) {
+        if (from == -1) {
+            return false;
+        }
+        if (problem.isMapped()) {
+            return problem.getGoalCells().length > 0;
+        }
+        for (int key : problem.getKeyCells()) {
+            if (!problem.isReachable(from, key)) {
+                return false;
+            }
+        }
+        for (int goal : problem.getGoalCells()) {
+            if (problem.isReachable(from, goal)) {
+                return true;
+            }
+        }
+        return false;
+    }
     
 }
@@ -0,0 +1,446 @@
+/** ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ *  File name     :  RouteCache.java
+ *  Purpose       :  Provides a bounded, concurrent cache of solutions in front of Pathfinder
+ *  @author       :  Sebastian Grasso / Brett Derham
+ *  Date          :  2026-10-18
+ *  Description   :  Caches the CompactPath solution (or the lack of one) of each MazeProblem solved through it,
+ *                   keyed on a fingerprint of the maze's grid together with its initial, key, and goal cells,
+ *                   so that a repeated query is answered without searching or replaying the path. The
+ *                   fingerprint is a Zobrist hash over the cells, built once per maze, and updated in O(1) per
+ *                   edit for a watched DynamicMaze, whose routes are dropped as soon as it changes. The cache
+ *                   is split into stripes, each an LRU map under its own lock with its share of the entry and
+ *                   byte budgets, so that threads rarely contend. On a miss over a maze without keys, the
+ *                   cached routes to the same goals are checked for one that passes through the new initial
+ *                   cell: the rest of an optimal route to the nearest goal is itself an optimal route from
+ *                   any cell along it, so it is returned without searching.
+ *                   Includes the following:
+ *                   
+ *                   public RouteCache (int maxEntries, long maxBytes)
+ *                   // Constructs an empty cache holding at most about the given number of routes and bytes
+ *                   
+ *                   public CompactPath solve (MazeProblem problem)
+ *                   // Returns the cached solution of the given problem, solving and caching it on a miss
+ *                   
+ *                   public void invalidate (MazeProblem problem) / invalidateAll ()
+ *                   // Drops every route over the given problem's maze / every route in the cache
+ *                   
+ *                   public void watch (DynamicMaze maze)
+ *                   // Drops the routes over a DynamicMaze's grid whenever one of its cells is edited
+ *                   
+ *                   public long getHits () / getSubPathHits () / getMisses () / getEvictions ()
+ *                   // Returns the counts of the cache's lookups and evictions so far
+ *                   
+ *  Warnings      :  Fingerprinting reads every cell once per maze, which pages in all of a mapped MazeFile;
+ *                   routes cached while their maze is being invalidated on another thread may survive it
+ *  Exceptions    :  IllegalArgumentException for budgets less than 1
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ *  Revision History
+ *  ---------------
+ *            Rev      Date     Modified by:  Reason for change/modification
+ *           -----  ----------  ------------  -----------------------------------------------------------
+ *  @version 1.0.0  2026-10-18  Authors       Striped LRU route cache with sub-path reuse
+ *  @version 1.0.1  2026-10-18  Authors       Snapshots of a watched maze seeded with its fingerprint
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~ */
+
+
+package pathfinder.informed;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded, concurrent LRU cache of maze solutions.
+ */
+public final class RouteCache {
+    
+    // Fields
+    // -----------------------------------------------------------------------------
+    
+    // At most this many stripes, and at least this many entries in each
+    private static final int MAX_STRIPES = 16, MIN_STRIPE_ENTRIES = 4;
+    
+    // The bytes a route is charged for besides its path's words
+    private static final int ROUTE_OVERHEAD = 96;
+    
+    private final Stripe[] stripes;
+    
+    // The routes over each maze, by fingerprint, for invalidation and sub-path hits
+    private final ConcurrentMap<Long, Set<Route>> byMaze = new ConcurrentHashMap<>();
+    
+    private final LongAdder hits = new LongAdder(), subPathHits = new LongAdder(), misses = new LongAdder(),
+                            evictions = new LongAdder();
+    
+    
+    // Constructor
+    // -----------------------------------------------------------------------------
+    
+    /**
+     * Constructs an empty cache. Each stripe holds its share of the budgets, so the
+     * totals held may run over them by up to a route per stripe.
+     * 
+     * @param maxEntries The largest number of routes to hold
+     * @param maxBytes The largest number of bytes of routes to hold, approximately
+     */
+    public RouteCache (int maxEntries, long maxBytes) {
+        if (maxEntries < 1 || maxBytes < 1) {
+            throw new IllegalArgumentException("Cache budgets must be positive");
+        }
+        int count = Math.max(1, Math.min(MAX_STRIPES, Integer.highestOneBit(maxEntries / MIN_STRIPE_ENTRIES)));
+        stripes = new Stripe[count];
+        for (int s = 0; s < count; s++) {
+            stripes[s] = new Stripe(-Math.floorDiv(-maxEntries, count), -Math.floorDiv(-maxBytes, count));
+        }
+    }
+    
+    
+    // Methods
+    // -----------------------------------------------------------------------------
+    
+    /**
+     * Returns the solution of the given problem from the cache, or from the rest
+     * of a cached route to the same goals that passes through its initial cell,
+     * or else from Pathfinder.solveCompact, caching it either way.
+     * 
+     * @param problem A MazeProblem that specifies the maze, actions, transitions.
+     * @return The moves that lead from the initial to the goal state, or null if
+     * there is no solution
+     */
+    public CompactPath solve (MazeProblem problem) {
+        Key key = Key.of(problem);
+        Stripe stripe = stripeOf(key);
+        Route route;
+        synchronized (stripe) {
+            route = stripe.get(key);
+        }
+        if (route != null) {
+            hits.increment();
+            return route.path;
+        }
+        
+        CompactPath path = (problem.getKeyCount() == 0) ? subPath(key) : null;
+        if (path != null) {
+            subPathHits.increment();
+        } else {
+            misses.increment();
+            path = Pathfinder.solveCompact(problem);
+        }
+        put(new Route(key, path, problem));
+        return path;
+    }
+    
+    /**
+     * Drops every route over the given problem's maze, whatever its initial state,
+     * e.g. after editing the grid the problem reads.
+     */
+    public void invalidate (MazeProblem problem) {
+        invalidate(fingerprint(problem));
+    }
+    
+    /**
+     * Drops every route in the cache.
+     */
+    public void invalidateAll () {
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.clear();
+                stripe.bytes = 0;
+            }
+        }
+        byMaze.clear();
+    }
+    
+    /**
+     * Keeps the cache in step with the given DynamicMaze: every edit drops the
+     * routes over the grid as it was, whose fingerprint is updated in O(1) per edit
+     * and handed to each new snapshot rather than rebuilt over every cell.
+     * 
+     * @param maze The maze to watch; routes are cached over its snapshots
+     */
+    public void watch (DynamicMaze maze) {
+        long[] current = { fingerprint(maze.snapshot()) };
+        maze.addListener((cell, previous, type) -> {
+            invalidate(current[0]);
+            current[0] ^= zobrist(cell, previous) ^ zobrist(cell, type);
+        });
+        maze.onSnapshot(snapshot -> snapshot.seed(RouteCache.class, current[0]));
+    }
+    
+    /**
+     * @return The number of solves answered by a route in the cache.
+     */
+    public long getHits () {
+        return hits.sum();
+    }
+    
+    /**
+     * @return The number of solves answered by the rest of a cached route through
+     * their initial cell.
+     */
+    public long getSubPathHits () {
+        return subPathHits.sum();
+    }
+    
+    /**
+     * @return The number of solves that had to search.
+     */
+    public long getMisses () {
+        return misses.sum();
+    }
+    
+    /**
+     * @return The number of routes dropped to stay within the budgets.
+     */
+    public long getEvictions () {
+        return evictions.sum();
+    }
+    
+    /**
+     * @return The number of routes held.
+     */
+    public int size () {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+    
+    private Stripe stripeOf (Key key) {
+        return stripes[key.hashCode() & (stripes.length - 1)];
+    }
+    
+    private void put (Route route) {
+        Stripe stripe = stripeOf(route.key);
+        synchronized (stripe) {
+            Route replaced = stripe.put(route.key, route);
+            if (replaced != null) {
+                stripe.bytes -= replaced.bytes;
+                unindex(replaced);
+            }
+            stripe.bytes += route.bytes;
+            index(route);
+            Iterator<Route> eldest = stripe.values().iterator();
+            while (stripe.size() > 1 && (stripe.size() > stripe.maxEntries || stripe.bytes > stripe.maxBytes)) {
+                Route evicted = eldest.next();
+                eldest.remove();
+                stripe.bytes -= evicted.bytes;
+                unindex(evicted);
+                evictions.increment();
+            }
+        }
+    }
+    
+    private void index (Route route) {
+        byMaze.computeIfAbsent(route.key.fingerprint, f -> ConcurrentHashMap.newKeySet()).add(route);
+    }
+    
+    private void unindex (Route route) {
+        byMaze.computeIfPresent(route.key.fingerprint, (f, routes) -> {
+            routes.remove(route);
+            return routes.isEmpty() ? null : routes;
+        });
+    }
+    
+    private void invalidate (long fingerprint) {
+        Set<Route> routes = byMaze.remove(fingerprint);
+        if (routes == null) {
+            return;
+        }
+        for (Route route : routes) {
+            Stripe stripe = stripeOf(route.key);
+            synchronized (stripe) {
+                if (stripe.remove(route.key, route)) {
+                    stripe.bytes -= route.bytes;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Returns the rest of a cached route to the same goals over the same keyless
+     * maze that passes through the key's initial cell, or null if there is none.
+     */
+    private CompactPath subPath (Key key) {
+        Set<Route> routes = byMaze.get(key.fingerprint);
+        if (routes == null) {
+            return null;
+        }
+        for (Route route : routes) {
+            if (route.corners != null && Arrays.equals(route.key.goals, key.goals)) {
+                int at = route.indexOf(key.initial, key.cols);
+                if (at != -1) {
+                    return route.path.suffix(at);
+                }
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * @return The Zobrist fingerprint of the given problem's grid, built once per
+     * maze.
+     */
+    private static long fingerprint (MazeProblem problem) {
+        return problem.derive(RouteCache.class, p -> {
+            long hash = mix(((long) p.getRows() << 32) | p.getCols());
+            for (int cell = 0, cells = p.getCellCount(); cell < cells; cell++) {
+                hash ^= zobrist(cell, p.getType(cell));
+            }
+            return hash;
+        });
+    }
+    
+    /**
+     * @return The random-looking bits of the given cell holding the given type,
+     * XORed into a grid's fingerprint; open cells contribute none.
+     */
+    private static long zobrist (int cell, byte type) {
+        return (type == MazeProblem.OPEN) ? 0 : mix(((long) cell << 2) | type);
+    }
+    
+    /**
+     * The SplitMix64 finalizer, which spreads every bit of its input over the
+     * whole of its output.
+     */
+    private static long mix (long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+
+/**
+ * A maze's fingerprint along with the initial, key, and goal cells of a query.
+ */
+private static final class Key {
+    
+    final long fingerprint;
+    final int cols, initial;
+    final int[] keys, goals;
+    private final int hash;
+    
+    private Key (long fingerprint, int cols, int initial, int[] keys, int[] goals) {
+        this.fingerprint = fingerprint;
+        this.cols = cols;
+        this.initial = initial;
+        this.keys = keys;
+        this.goals = goals;
+        int h = Long.hashCode(fingerprint);
+        h = 31 * h + initial;
+        h = 31 * h + Arrays.hashCode(keys);
+        h = 31 * h + Arrays.hashCode(goals);
+        hash = h ^ (h >>> 16);
+    }
+    
+    static Key of (MazeProblem problem) {
+        int[] goals = problem.getGoalCells().clone();
+        Arrays.sort(goals);
+        return new Key(fingerprint(problem), problem.getCols(), problem.INITIAL_CELL, problem.getKeyCells(), goals);
+    }
+    
+    @Override
+    public boolean equals (Object other) {
+        if (!(other instanceof Key)) {
+            return false;
+        }
+        Key key = (Key) other;
+        return key.fingerprint == fingerprint && key.cols == cols && key.initial == initial
+            && Arrays.equals(key.keys, keys) && Arrays.equals(key.goals, goals);
+    }
+    
+    @Override
+    public int hashCode () {
+        return hash;
+    }
+
+}
+
+
+/**
+ * A cached solution, along with the cells where each of its straight runs
+ * begins, so that a cell can be looked up along it in O(runs).
+ */
+private static final class Route {
+    
+    final Key key;
+    final CompactPath path;
+    final int[] corners;
+    final long bytes;
+    
+    Route (Key key, CompactPath path, MazeProblem problem) {
+        this.key = key;
+        this.path = path;
+        corners = (path == null || problem.getKeyCount() != 0) ? null : cornersOf(path, key.initial, problem);
+        bytes = ROUTE_OVERHEAD + ((path == null) ? 0 : 8L * path.getWordCount())
+              + ((corners == null) ? 0 : 4L * corners.length);
+    }
+    
+    /**
+     * @return The first cell of each run of the path from the given cell, and
+     * then the last cell of the path.
+     */
+    private static int[] cornersOf (CompactPath path, int from, MazeProblem problem) {
+        int[] corners = new int[path.getRunCount() + 1];
+        corners[0] = from;
+        for (int i = 0, r = 0, cell = from; i < path.length(); r++) {
+            int action = path.getAction(i), run = path.runFrom(i);
+            for (int step = 0; step < run; step++) {
+                cell = problem.getNeighbor(cell, action);
+            }
+            corners[r + 1] = cell;
+            i += run;
+        }
+        return corners;
+    }
+    
+    /**
+     * @return The index of the move the path makes from the given cell, if the
+     * path passes through it, or -1 if it does not.
+     */
+    int indexOf (int cell, int cols) {
+        int col = cell % cols, row = cell / cols;
+        for (int r = 0, moves = 0; r + 1 < corners.length; r++) {
+            int from = corners[r], to = corners[r + 1];
+            int fromCol = from % cols, fromRow = from / cols, toCol = to % cols, toRow = to / cols;
+            int run = Math.abs(toCol - fromCol) + Math.abs(toRow - fromRow);
+            if (fromRow == toRow && row == fromRow && col >= Math.min(fromCol, toCol) && col <= Math.max(fromCol, toCol)) {
+                return moves + Math.abs(col - fromCol);
+            }
+            if (fromCol == toCol && col == fromCol && row >= Math.min(fromRow, toRow) && row <= Math.max(fromRow, toRow)) {
+                return moves + Math.abs(row - fromRow);
+            }
+            moves += run;
+        }
+        return -1;
+    }
+
+}
+
+
+/**
+ * One stripe of the cache: an access-ordered map, whose eldest route is the least
+ * recently used, with its share of the budgets. Guarded by its own monitor.
+ */
+@SuppressWarnings("serial")
+private static final class Stripe extends LinkedHashMap<Key, Route> {
+    
+    final int maxEntries;
+    final long maxBytes;
+    long bytes;
+    
+    Stripe (int maxEntries, long maxBytes) {
+        super(16, 0.75f, true);
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+    }
+
+}
+
+}
@@ -0,0 +1,237 @@
+/** ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ *  File name     :  SearchHistograms.java
+ *  Purpose       :  Provides a SearchListener that aggregates the SearchStats of many solves into histograms
+ *  @author       :  Sebastian Grasso / Brett Derham
+ *  Date          :  2026-10-18
+ *  Description   :  Records every Metric of every solve it hears about into a fixed-size, log-linear
+ *                   histogram: values below 16 are counted exactly, and larger values in 8 buckets per power
+ *                   of two, so any quantile read back is within 12.5% of the true one. Recording is lock-free
+ *                   and allocation-free, so one instance can be installed for a whole process and exported
+ *                   periodically.
+ *                   Includes the following:
+ *                   
+ *                   public void searchFinished (MazeProblem problem, SearchStats stats)
+ *                   // Records every metric of the given solve
+ *                   
+ *                   public long getSolves () / getUnsolved ()
+ *                   // Returns the number of solves recorded, and how many of them found no solution
+ *                   
+ *                   public long getCount (Metric metric) / getMax (Metric metric) / getMean (Metric metric)
+ *                   // Returns the number of values, the largest value, and the mean value recorded for a metric
+ *                   
+ *                   public long getQuantile (Metric metric, double quantile)
+ *                   // Returns an upper bound on the given quantile of a metric
+ *                   
+ *                   public void export (Appendable out)
+ *                   // Writes the count, mean, median, 90th, 99th percentile, and maximum of every metric
+ *                   
+ *                   public void reset ()
+ *                   // Forgets every solve recorded so far
+ *                   
+ *  Warnings      :  Reads made while solves are being recorded may mix values from before and after them
+ *  Exceptions    :  IOException if export cannot write to the given Appendable
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ *  Revision History
+ *  ---------------
+ *            Rev      Date     Modified by:  Reason for change/modification
+ *           -----  ----------  ------------  -----------------------------------------------------------
+ *  @version 1.0.0  2026-10-18  Authors       Search instrumentation in place of printing
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~ */
+
+
+package pathfinder.informed;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe histograms of every SearchStats metric, across many solves.
+ */
+public final class SearchHistograms implements SearchListener {
+    
+    // Fields
+    // -----------------------------------------------------------------------------
+    
+    // Values below EXACT get a bucket each; above that, each power of two is split
+    // into SUB_BUCKETS buckets of equal width
+    private static final int SUB_BITS = 3, SUB_BUCKETS = 1 << SUB_BITS, EXACT = 2 * SUB_BUCKETS,
+                             BUCKETS = EXACT + (Long.SIZE - 2 - SUB_BITS) * SUB_BUCKETS;
+    
+    private static final SearchStats.Metric[] METRICS = SearchStats.Metric.values();
+    
+    private final AtomicLongArray[] buckets = new AtomicLongArray[METRICS.length];
+    private final LongAdder[] sums = new LongAdder[METRICS.length];
+    private final AtomicLong[] maxes = new AtomicLong[METRICS.length];
+    private final LongAdder solves = new LongAdder(), unsolved = new LongAdder();
+    
+    
+    // Constructor
+    // -----------------------------------------------------------------------------
+    
+    /**
+     * Constructs an empty set of histograms, one per SearchStats metric.
+     */
+    public SearchHistograms () {
+        for (int m = 0; m < METRICS.length; m++) {
+            buckets[m] = new AtomicLongArray(BUCKETS);
+            sums[m] = new LongAdder();
+            maxes[m] = new AtomicLong();
+        }
+    }
+    
+    
+    // Methods
+    // -----------------------------------------------------------------------------
+    
+    /**
+     * Records every metric of the given solve; metrics that were not measured
+     * (negative values, e.g. the path cost of an unsolved maze) are skipped.
+     */
+    @Override
+    public void searchFinished (MazeProblem problem, SearchStats stats) {
+        solves.increment();
+        if (stats.getPathCost() < 0) {
+            unsolved.increment();
+        }
+        for (int m = 0; m < METRICS.length; m++) {
+            long value = METRICS[m].of(stats);
+            if (value < 0) {
+                continue;
+            }
+            buckets[m].incrementAndGet(bucketOf(value));
+            sums[m].add(value);
+            maxes[m].accumulateAndGet(value, Math::max);
+        }
+    }
+    
+    /**
+     * @return The number of solves recorded.
+     */
+    public long getSolves () {
+        return solves.sum();
+    }
+    
+    /**
+     * @return The number of solves recorded that found no solution.
+     */
+    public long getUnsolved () {
+        return unsolved.sum();
+    }
+    
+    /**
+     * @return The number of values recorded for the given metric.
+     */
+    public long getCount (SearchStats.Metric metric) {
+        AtomicLongArray counts = buckets[metric.ordinal()];
+        long total = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            total += counts.get(b);
+        }
+        return total;
+    }
+    
+    /**
+     * @return The largest value recorded for the given metric, or 0 if there is none.
+     */
+    public long getMax (SearchStats.Metric metric) {
+        return maxes[metric.ordinal()].get();
+    }
+    
+    /**
+     * @return The mean of the values recorded for the given metric, or 0 if there
+     * are none.
+     */
+    public double getMean (SearchStats.Metric metric) {
+        long count = getCount(metric);
+        return (count == 0) ? 0 : (double) sums[metric.ordinal()].sum() / count;
+    }
+    
+    /**
+     * Returns an upper bound on the given quantile of the values recorded for the
+     * given metric: the top of the bucket holding it, capped at the largest value
+     * recorded, and so within 12.5% of the true quantile.
+     * 
+     * @param metric The metric to read
+     * @param quantile The quantile to read, in [0, 1], e.g. 0.99 for the 99th percentile
+     * @return The bound on the quantile, or 0 if no values were recorded
+     */
+    public long getQuantile (SearchStats.Metric metric, double quantile) {
+        if (quantile < 0 || quantile > 1) {
+            throw new IllegalArgumentException("Quantiles lie between 0 and 1");
+        }
+        AtomicLongArray counts = buckets[metric.ordinal()];
+        long count = getCount(metric), rank = Math.max(1, (long) Math.ceil(quantile * count)), seen = 0;
+        for (int b = 0; b < BUCKETS && count > 0; b++) {
+            seen += counts.get(b);
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(b), getMax(metric));
+            }
+        }
+        return getMax(metric);
+    }
+    
+    /**
+     * Writes one line per metric to the given output, of the format:<br>
+     * metric count=N mean=M p50=A p90=B p99=C max=D
+     * 
+     * @param out Where to write the summary
+     * @throws IOException If the summary cannot be written
+     */
+    public void export (Appendable out) throws IOException {
+        out.append("solves=").append(Long.toString(getSolves()))
+           .append(" unsolved=").append(Long.toString(getUnsolved())).append('\n');
+        for (SearchStats.Metric metric : METRICS) {
+            out.append(metric.name().toLowerCase(Locale.ROOT))
+               .append(" count=").append(Long.toString(getCount(metric)))
+               .append(" mean=").append(String.format(Locale.ROOT, "%.1f", getMean(metric)))
+               .append(" p50=").append(Long.toString(getQuantile(metric, 0.50)))
+               .append(" p90=").append(Long.toString(getQuantile(metric, 0.90)))
+               .append(" p99=").append(Long.toString(getQuantile(metric, 0.99)))
+               .append(" max=").append(Long.toString(getMax(metric))).append('\n');
+        }
+    }
+    
+    /**
+     * Forgets every solve recorded so far.
+     */
+    public void reset () {
+        for (int m = 0; m < METRICS.length; m++) {
+            for (int b = 0; b < BUCKETS; b++) {
+                buckets[m].set(b, 0);
+            }
+            sums[m].reset();
+            maxes[m].set(0);
+        }
+        solves.reset();
+        unsolved.reset();
+    }
+    
+    /**
+     * Returns the bucket of a non-negative value: the value itself below EXACT,
+     * and otherwise its power of two and the top SUB_BITS bits below its highest.
+     */
+    private static int bucketOf (long value) {
+        if (value < EXACT) {
+            return (int) value;
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return EXACT + (exponent - SUB_BITS - 1) * SUB_BUCKETS + sub;
+    }
+    
+    /**
+     * Returns the largest value that falls in the given bucket.
+     */
+    private static long upperBoundOf (int bucket) {
+        if (bucket < EXACT) {
+            return bucket;
+        }
+        int exponent = (bucket - EXACT) / SUB_BUCKETS + SUB_BITS + 1, sub = (bucket - EXACT) % SUB_BUCKETS;
+        long low = (1L << exponent) + ((long) sub << (exponent - SUB_BITS));
+        return low + (1L << (exponent - SUB_BITS)) - 1;
+    }
+
+}
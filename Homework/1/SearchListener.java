@@ -0,0 +1,48 @@
+/** ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ *  File name     :  SearchListener.java
+ *  Purpose       :  Provides the callback through which Pathfinder reports the statistics of each solve
+ *  @author       :  Sebastian Grasso / Brett Derham
+ *  Date          :  2026-10-18
+ *  Description   :  A SearchListener installed with Pathfinder.setListener hears about every solve, batch
+ *                   solves included, once the search has finished, along with the SearchStats that describe
+ *                   it. The default, NONE, is recognized by Pathfinder so that solves made without a listener
+ *                   skip the clock reads as well as the callback.
+ *                   Includes the following:
+ *                   
+ *                   static final SearchListener NONE
+ *                   // The listener that ignores every solve
+ *                   
+ *                   void searchFinished (MazeProblem problem, SearchStats stats)
+ *                   // Called on the solving thread after each solve
+ *                   
+ *  Warnings      :  Called concurrently by batch solves, so implementations must be thread-safe
+ *  Exceptions    :  None
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ *  Revision History
+ *  ---------------
+ *            Rev      Date     Modified by:  Reason for change/modification
+ *           -----  ----------  ------------  -----------------------------------------------------------
+ *  @version 1.0.0  2026-10-18  Authors       Search instrumentation in place of printing
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~ */
+
+
+package pathfinder.informed;
+
+/**
+ * Callback told about every solve Pathfinder makes, with its SearchStats.
+ */
+public interface SearchListener {
+    
+    // Ignores every solve; Pathfinder does not time solves while it is installed
+    SearchListener NONE = (problem, stats) -> {};
+    
+    /**
+     * Called on the solving thread once a solve has finished, whether or not it
+     * found a solution.
+     * 
+     * @param problem The MazeProblem that was solved
+     * @param stats What the search did, and how long it took
+     */
+    void searchFinished (MazeProblem problem, SearchStats stats);
+
+}
@@ -0,0 +1,166 @@
+/** ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ *  File name     :  SearchStats.java
+ *  Purpose       :  Provides the statistics Pathfinder reports for a single solve
+ *  @author       :  Sebastian Grasso / Brett Derham
+ *  Date          :  2026-10-18
+ *  Description   :  An immutable record of what one search did: the states it expanded, generated, and
+ *                   reopened, the largest its frontier grew, the heuristic estimates it asked for, the cost
+ *                   of the path it found, and the wall-clock and CPU time the solve took. Each statistic can
+ *                   also be read through the Metric enum, so that aggregators such as SearchHistograms can
+ *                   treat them uniformly.
+ *                   Includes the following:
+ *                   
+ *                   public int getExpanded () / getGenerated () / getReopened () / getPeakFrontier ()
+ *                   // Returns the counts of states the search expanded, generated, and reopened, and the
+ *                      largest its frontier grew
+ *                   
+ *                   public int getHeuristicEvaluations ()
+ *                   // Returns the number of heuristic estimates the search asked for
+ *                   
+ *                   public int getPathCost ()
+ *                   // Returns the cost of the solution found, or -1 if there is none
+ *                   
+ *                   public long getWallNanos () / getCpuNanos ()
+ *                   // Returns the wall-clock and CPU time of the solve
+ *                   
+ *                   public enum Metric
+ *                   // Each of the statistics above, readable from any SearchStats
+ *                   
+ *  Warnings      :  None
+ *  Exceptions    :  None
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ *  Revision History
+ *  ---------------
+ *            Rev      Date     Modified by:  Reason for change/modification
+ *           -----  ----------  ------------  -----------------------------------------------------------
+ *  @version 1.0.0  2026-10-18  Authors       Search instrumentation in place of printing
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~ */
+
+
+package pathfinder.informed;
+
+/**
+ * What a single solve did, and how long it took.
+ */
+public final class SearchStats {
+    
+    /**
+     * The statistics of a SearchStats, by name.
+     */
+    public enum Metric {
+        EXPANDED, GENERATED, REOPENED, PEAK_FRONTIER, HEURISTIC_EVALUATIONS, PATH_COST, WALL_NANOS, CPU_NANOS;
+        
+        /**
+         * @param stats The statistics of a solve
+         * @return This metric's value in the given statistics; negative when it
+         * was not measured (e.g. the path cost of an unsolved maze)
+         */
+        public long of (SearchStats stats) {
+            switch (this) {
+                case EXPANDED:              return stats.expanded;
+                case GENERATED:             return stats.generated;
+                case REOPENED:              return stats.reopened;
+                case PEAK_FRONTIER:         return stats.peakFrontier;
+                case HEURISTIC_EVALUATIONS: return stats.heuristicEvaluations;
+                case PATH_COST:             return stats.pathCost;
+                case WALL_NANOS:            return stats.wallNanos;
+                default:                    return stats.cpuNanos;
+            }
+        }
+    }
+    
+    // Fields
+    // -----------------------------------------------------------------------------
+    private final int expanded, generated, reopened, peakFrontier, heuristicEvaluations, pathCost;
+    private final long wallNanos, cpuNanos;
+    
+    
+    // Constructor
+    // -----------------------------------------------------------------------------
+    
+    /**
+     * Constructs the statistics of a solve; the search counts are those of the
+     * search that ran, and are all 0 when the solve was rejected before searching.
+     */
+    SearchStats (int expanded, int generated, int reopened, int peakFrontier, int heuristicEvaluations,
+                 int pathCost, long wallNanos, long cpuNanos) {
+        this.expanded = expanded;
+        this.generated = generated;
+        this.reopened = reopened;
+        this.peakFrontier = peakFrontier;
+        this.heuristicEvaluations = heuristicEvaluations;
+        this.pathCost = pathCost;
+        this.wallNanos = wallNanos;
+        this.cpuNanos = cpuNanos;
+    }
+    
+    
+    // Methods
+    // -----------------------------------------------------------------------------
+    
+    /**
+     * @return The number of states taken off the frontier, reopened ones included.
+     */
+    public int getExpanded () {
+        return expanded;
+    }
+    
+    /**
+     * @return The number of states added to the frontier for the first time.
+     */
+    public int getGenerated () {
+        return generated;
+    }
+    
+    /**
+     * @return The number of closed states put back on the frontier after a cheaper
+     * route to them was found; 0 under a consistent heuristic.
+     */
+    public int getReopened () {
+        return reopened;
+    }
+    
+    /**
+     * @return The largest number of states the frontier held at once.
+     */
+    public int getPeakFrontier () {
+        return peakFrontier;
+    }
+    
+    /**
+     * @return The number of times the search asked its Heuristic for an estimate.
+     */
+    public int getHeuristicEvaluations () {
+        return heuristicEvaluations;
+    }
+    
+    /**
+     * @return The cost of the solution found, or -1 if there is none.
+     */
+    public int getPathCost () {
+        return pathCost;
+    }
+    
+    /**
+     * @return The wall-clock time of the solve, in nanoseconds.
+     */
+    public long getWallNanos () {
+        return wallNanos;
+    }
+    
+    /**
+     * @return The CPU time the solving thread spent on the solve, in nanoseconds,
+     * or -1 if the JVM does not measure thread CPU time.
+     */
+    public long getCpuNanos () {
+        return cpuNanos;
+    }
+    
+    @Override
+    public String toString () {
+        return "SearchStats[expanded=" + expanded + ", generated=" + generated + ", reopened=" + reopened
+            + ", peakFrontier=" + peakFrontier + ", heuristicEvaluations=" + heuristicEvaluations
+            + ", pathCost=" + pathCost + ", wallNanos=" + wallNanos + ", cpuNanos=" + cpuNanos + "]";
+    }
+
+}
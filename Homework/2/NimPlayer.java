@@ -1,9 +1,9 @@
 package nim;
 
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.Stack;
-import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Artificial Intelligence responsible for playing the game of Nim!
@@ -13,8 +13,39 @@ public class NimPlayer {
     
     private final int MAX_REMOVAL;
     
+    // Scores of the game: the player who takes the last stone wins
+    static final int MIN_SCORE = 0, MAX_SCORE = 1;
+    
+    // Transposition table of solved states, kept between calls to choose: the slot
+    // of (remaining, isMax) holds 0 when unsolved, or the state's score + 1
+    private byte[] solved = new byte[0];
+    
+    // Endgame tablebase answering choose in O(1) for the piles it covers, or null
+    private final NimTablebase tablebase;
+    
+    // The same game over several piles, played by Grundy numbers, and its misere
+    // variant, played by parallel search; each built on first use
+    private SubtractionGame piles;
+    private ParallelNimSearch misere;
+    
     NimPlayer (int MAX_REMOVAL) {
+        this(MAX_REMOVAL, null);
+    }
+    
+    /**
+     * Constructs a player that looks its moves up in the given tablebase, which
+     * must have been solved for the same MAX_REMOVAL, and searches only for piles
+     * larger than the tablebase covers.
+     */
+    NimPlayer (int MAX_REMOVAL, NimTablebase tablebase) {
+        if (MAX_REMOVAL < 1) {
+            throw new IllegalArgumentException("MAX_REMOVAL must be at least 1");
+        }
+        if (tablebase != null && tablebase.getMaxRemoval() != MAX_REMOVAL) {
+            throw new IllegalArgumentException("The tablebase was solved for another MAX_REMOVAL");
+        }
         this.MAX_REMOVAL = MAX_REMOVAL;
+        this.tablebase = tablebase;
     }
     
     /**
@@ -24,101 +55,160 @@ public class NimPlayer {
      *          of [1, MAX_REMOVAL]
      */
     public int choose (int remaining) {
+        if (remaining < 1) {
+            throw new IllegalArgumentException("There are no stones left to remove");
+        }
+        if (tablebase != null && remaining <= tablebase.size()) {
+            int move = tablebase.bestMove(remaining);
+            return (move == 0) ? 1 : move;
+        }
         GameTreeNode root = new GameTreeNode(remaining, 0, true);
-        Map <GameTreeNode, Integer> memoBank = new HashMap<GameTreeNode, Integer>();
-                
-    	alphaBetaMinimax(root, Integer.MAX_VALUE, Integer.MIN_VALUE, true, memoBank);
-    	while (memoBank.isEmpty() == false) {
-    		if (remaining <= 3) {
-    			root.action = remaining;
-    			return root.action;
-    	    } else if (remaining == 4 | remaining == 5) {
-    		    root.action = 1;
-    		    return root.action;
-    	    } else if (remaining == 6) {
-    		    root.action = 2;
-    		    return root.action;
-    	    } else {
-    		    root.action = 3;
-    		    return root.action;
-    	    }
+        for (GameTreeNode child : root.getActions(MAX_REMOVAL).values()) {
+            if (alphaBetaMinimax(child, MIN_SCORE, MAX_SCORE, child.isMax) == MAX_SCORE) {
+                return child.action;
+            }
+        }
+        // Every move loses against perfect play: take a single stone and hope
+        return 1;
+    }
+    
+    /**
+     * Chooses a move in multi-pile Nim, where a move removes between 1 and
+     * MAX_REMOVAL stones from any one pile, in O(k) for k piles.
+     * 
+     * @param   piles   The number of stones left in each pile
+     * @return  The move as { pile index, stones to remove }
+     * @see     SubtractionGame#choose(int[])
+     */
+    public int[] choose (int[] piles) {
+        if (this.piles == null) {
+            this.piles = SubtractionGame.upTo(MAX_REMOVAL);
+        }
+        int[] move = this.piles.choose(piles);
+        if (move == null) {
+            throw new IllegalArgumentException("There are no stones left to remove");
         }
-    	//The call to alphaBetaMinMinimax returns an int for a score and
-    	//generates our SearchTree. Implement code to select a certain action
-    	//path from our tree that will lead to victory
-    	
-    	throw new UnsupportedOperationException();
+        return move;
     }
     
     /**
-     * Constructs the minimax game tree by the tenets of alpha-beta pruning with
-     * memoization for repeated states.
+     * Chooses a move in multi-pile Nim under the given play convention, within the
+     * given time budget. Normal play is solved outright by Grundy numbers; misere
+     * play, where the player who takes the last stone loses, is searched by
+     * ParallelNimSearch across the common fork-join pool, and returns the best
+     * move of the deepest search finished within the budget.
+     * 
+     * @param   piles       The number of stones left in each pile
+     * @param   misere      Whether the player who takes the last stone loses
+     * @param   budgetMillis The time budget for the search, in milliseconds
+     * @return  The move as { pile index, stones to remove }
+     */
+    public int[] choose (int[] piles, boolean misere, long budgetMillis) {
+        if (!misere) {
+            return choose(piles);
+        }
+        if (this.misere == null) {
+            this.misere = new ParallelNimSearch(SubtractionGame.upTo(MAX_REMOVAL).getRemovals(), true);
+        }
+        int[] move = this.misere.choose(piles, TimeUnit.MILLISECONDS.toNanos(budgetMillis));
+        if (move == null) {
+            throw new IllegalArgumentException("There are no stones left to remove");
+        }
+        return move;
+    }
+    
+    /**
+     * Scores the given node by alpha-beta-pruning mini-max search, memoizing every
+     * state it solves in the transposition table. The search runs on an explicit
+     * stack of primitive frames rather than the call stack, so piles in the
+     * millions cost O(remaining) ints instead of a StackOverflowError.
+     * 
+     * Since every score is MIN_SCORE or MAX_SCORE, a node is cut off exactly when
+     * one of its children already gives its player the best score possible, and
+     * so every score stored is exact rather than a bound.
+     * 
      * @param   node    The root of the current game sub-tree
      * @param   alpha   Smallest minimax score possible
      * @param   beta    Largest minimax score possible
      * @param   isMax   Boolean representing whether the given node is a max (true) or min (false) node
-     * @param   visited Map of GameTreeNodes to their minimax scores to avoid repeating large subtrees
-     * @return  Minimax score of the given node + [Side effect] constructs the game tree originating
-     *          from the given node
+     * @return  Minimax score of the given node
      */
-    private int alphaBetaMinimax (GameTreeNode node, int alpha, int beta, boolean isMax, Map<GameTreeNode, Integer> visited) {
-        Stack<GameTreeNode> frontier = new Stack<GameTreeNode>();
-    	frontier.add(node);
+    int alphaBetaMinimax (GameTreeNode node, int alpha, int beta, boolean isMax) {
+        ensureCapacity(node.remaining);
         
-      	while (frontier.isEmpty() == false) {
-    		
-    		GameTreeNode curr = frontier.remove(0);
-  		    	
-    		if (curr.isGoal(visited)) { 
-    			//retrace through every node above goal node and score the path
-    			//node score = off # of actions between node and goal
-    			//adding to visited <GameTreeNode, score>
-    			
-    			GameTreeNode retrace = curr;
-    			while (retrace.isMax == false) {
-    				
-    				
-    				
-    				retrace = retrace;
-    			}
-    			
-    		}	
-    	
-            Map<Integer,GameTreeNode> moves = curr.getActions(MAX_REMOVAL);
-
-            //when expanding, after a node is generated and added to the frontier
-            //the node should also be added to curr.Children (arrayList of children)
-    	
+        // Frame d searches the state reached after d moves from the given node; its
+        // player alternates with depth, so only the last action tried and the best
+        // score so far need to be kept per frame
+        int[] remaining = new int[16], action = new int[16], best = new int[16];
+        int depth = 0;
+        remaining[0] = node.remaining;
+        best[0] = isMax ? alpha : beta;
+        
+        int result = -1;
+        while (depth >= 0) {
+            boolean max = isMax == ((depth & 1) == 0);
+            int r = remaining[depth];
+            
+            if (result != -1) {
+                // A child has just been scored: fold it into this frame
+                best[depth] = max ? Math.max(best[depth], result) : Math.min(best[depth], result);
+                result = -1;
+            } else if (action[depth] == 0) {
+                // First visit: terminal and previously solved states are scored at once
+                int known = (r == 0) ? (max ? MIN_SCORE : MAX_SCORE) : solved[slot(r, max)] - 1;
+                if (known != -1) {
+                    result = known;
+                    depth--;
+                    continue;
+                }
+            }
+            
+            int next = action[depth] + 1;
+            boolean cutoff = max ? best[depth] >= beta : best[depth] <= alpha;
+            if (cutoff || next > Math.min(MAX_REMOVAL, r)) {
+                result = best[depth];
+                solved[slot(r, max)] = (byte) (result + 1);
+                action[depth] = 0;
+                depth--;
+                continue;
+            }
             
-    	
-    	
-    	
-    	
-    	}
-    	
-    		
-    	
-    return 1;	
+            action[depth] = next;
+            depth++;
+            if (depth == remaining.length) {
+                remaining = Arrays.copyOf(remaining, 2 * depth);
+                action = Arrays.copyOf(action, 2 * depth);
+                best = Arrays.copyOf(best, 2 * depth);
+            }
+            remaining[depth] = r - next;
+            action[depth] = 0;
+            best[depth] = max ? beta : alpha;
+        }
+        return result;
     }
     
+    private static int slot (int remaining, boolean isMax) {
+        return 2 * remaining + (isMax ? 1 : 0);
+    }
     
+    private void ensureCapacity (int remaining) {
+        if (slot(remaining, true) >= solved.length) {
+            solved = Arrays.copyOf(solved, Math.max(slot(remaining, true) + 1, 2 * solved.length));
+        }
+    }
 
-    
-/**    
+
+/**
  * GameTreeNode to manage the Nim game tree.
  */
 class GameTreeNode {
     
-    int remaining, action, score;
+    int remaining, action;
     boolean isMax;
-    ArrayList<GameTreeNode> children;
     
     /**
      * Constructs a new GameTreeNode with the given number of stones
-     * remaining in the pile, and the action that led to it. We also
-     * initialize an empty ArrayList of children that can be added-to
-     * during search, and a placeholder score of -1 to be updated during
-     * search.
+     * remaining in the pile, and the action that led to it.
      * 
      * @param   remaining   The Nim game state represented by this node: the #
      *          of stones remaining in the pile
@@ -129,40 +219,45 @@ class GameTreeNode {
         this.remaining = remaining;
         this.action = action;
         this.isMax = isMax;
-        children = new ArrayList<>();
-        score = -1;
     }
     
+    /**
+     * Two nodes are the same game state when they have the same stones remaining
+     * and the same player to move, however they were reached.
+     */
     @Override
     public boolean equals (Object other) {
-        return other instanceof GameTreeNode 
-            ? remaining == ((GameTreeNode) other).remaining && 
-              isMax == ((GameTreeNode) other).isMax &&
-              action == ((GameTreeNode) other).action
+        return other instanceof GameTreeNode
+            ? remaining == ((GameTreeNode) other).remaining &&
+              isMax == ((GameTreeNode) other).isMax
             : false;
     }
     
     @Override
     public int hashCode () {
-        return remaining + ((isMax) ? 1 : 0);
+        return slot(remaining, isMax);
     }
     
-    public Map<Integer, GameTreeNode> getActions(int max){
-    	int r = this.remaining;
-    	Map<Integer, GameTreeNode> possActions = new HashMap<Integer, GameTreeNode>();
-    	for (int stoneRemoval = 1; stoneRemoval <= max && stoneRemoval <= r; stoneRemoval++) {
-    		GameTreeNode temp = new GameTreeNode(r-stoneRemoval, stoneRemoval, false);
-    		possActions.put(temp.action, temp);
-    	}
-    	return possActions;
-    	
+    /**
+     * @param   max The most stones that may be removed in one move
+     * @return  The children of this node, keyed by the action that leads to each,
+     *          in increasing order of action; the other player moves next in each
+     */
+    public Map<Integer, GameTreeNode> getActions (int max) {
+        Map<Integer, GameTreeNode> possActions = new LinkedHashMap<Integer, GameTreeNode>();
+        for (int stoneRemoval = 1; stoneRemoval <= max && stoneRemoval <= remaining; stoneRemoval++) {
+            possActions.put(stoneRemoval, new GameTreeNode(remaining - stoneRemoval, stoneRemoval, !isMax));
+        }
+        return possActions;
     }
     
-    public boolean isGoal(Map<GameTreeNode, Integer> visited) {	
-    	return (this.remaining == 0 || visited.containsKey(this));    	
+    /**
+     * @return  Whether the game is over at this node.
+     */
+    public boolean isTerminal () {
+        return remaining == 0;
     }
-      
-        
-    
-	}   
-}
\ No newline at end of file
+
+}
+
+}
@@ -0,0 +1,194 @@
+package nim;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Endgame tablebase for single-pile Nim: the best move from every pile of up to
+ * a given size, for a given MAX_REMOVAL, solved once by retrograde analysis and
+ * then looked up in O(1) without allocating.
+ * 
+ * A table is solved bottom-up from the empty pile: a pile is won exactly when
+ * some move leaves a lost pile, and the best move is the smallest such one (the
+ * same move NimPlayer's search picks). Entries are packed one per pile, as the
+ * best move in the fewest bytes that can hold MAX_REMOVAL, or 0 for a lost pile.
+ * Saved tables are memory-mapped when loaded, so a process can start answering
+ * as soon as the file is opened, and the OS page cache shares the table between
+ * processes and restarts.
+ */
+public final class NimTablebase {
+    
+    // File layout: a header of MAGIC, VERSION, MAX_REMOVAL, size, and entry width
+    // as big-endian ints, followed by the packed entries for piles 0 to size
+    private static final int MAGIC = 0x4E494D54, VERSION = 1, HEADER = 5 * Integer.BYTES;
+    
+    private final int maxRemoval, size, width;
+    
+    // The header and packed entries, either on the heap or mapped from a file
+    private final ByteBuffer table;
+    
+    private NimTablebase (int maxRemoval, int size, int width, ByteBuffer table) {
+        this.maxRemoval = maxRemoval;
+        this.size = size;
+        this.width = width;
+        this.table = table;
+    }
+    
+    /**
+     * Solves the tablebase for every pile of up to the given size, in O(size) time
+     * whatever MAX_REMOVAL is: a pile is won whenever the last lost pile below it
+     * is within reach, and the best move is the one that reaches it.
+     * 
+     * @param   maxRemoval  The most stones that may be removed in one move
+     * @param   size        The largest pile to solve
+     * @return  The solved tablebase, held on the heap until saved
+     */
+    public static NimTablebase build (int maxRemoval, int size) {
+        if (maxRemoval < 1 || size < 0) {
+            throw new IllegalArgumentException("MAX_REMOVAL must be at least 1, and the size not negative");
+        }
+        int width = widthOf(maxRemoval);
+        if ((long) HEADER + ((long) size + 1) * width > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("A tablebase of " + size + " piles is too large");
+        }
+        
+        ByteBuffer table = ByteBuffer.allocate(HEADER + (size + 1) * width);
+        table.putInt(MAGIC).putInt(VERSION).putInt(maxRemoval).putInt(size).putInt(width);
+        NimTablebase result = new NimTablebase(maxRemoval, size, width, table);
+        
+        // The empty pile is lost for the player to move: the other player took the last stone
+        int lastLost = 0;
+        for (int remaining = 1; remaining <= size; remaining++) {
+            int move = remaining - lastLost;
+            if (move <= maxRemoval) {
+                result.put(remaining, move);
+            } else {
+                lastLost = remaining;
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Memory-maps the tablebase saved in the given file.
+     * 
+     * @throws  IOException If the file cannot be read, or does not hold a tablebase
+     */
+    public static NimTablebase load (Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER) {
+                throw new IOException(file + " is not a Nim tablebase");
+            }
+            ByteBuffer table = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            int magic = table.getInt(0), version = table.getInt(4), maxRemoval = table.getInt(8),
+                size = table.getInt(12), width = table.getInt(16);
+            if (magic != MAGIC || version != VERSION || maxRemoval < 1 || size < 0
+                || width != widthOf(maxRemoval) || channel.size() != HEADER + ((long) size + 1) * width) {
+                throw new IOException(file + " is not a Nim tablebase");
+            }
+            return new NimTablebase(maxRemoval, size, width, table);
+        }
+    }
+    
+    /**
+     * Returns the tablebase saved in the given file if it was solved for the given
+     * MAX_REMOVAL and covers piles of the given size; otherwise solves it, saves
+     * it to the file, and maps the saved copy.
+     * 
+     * @throws  IOException If the file cannot be read or written
+     */
+    public static NimTablebase open (Path file, int maxRemoval, int size) throws IOException {
+        if (Files.exists(file)) {
+            try {
+                NimTablebase saved = load(file);
+                if (saved.maxRemoval == maxRemoval && saved.size >= size) {
+                    return saved;
+                }
+            } catch (IOException corrupt) {
+                // Fall through and rebuild over it
+            }
+        }
+        build(maxRemoval, size).save(file);
+        return load(file);
+    }
+    
+    /**
+     * Writes this tablebase to the given file, replacing it atomically where the
+     * file system allows, so that a concurrent load never sees a partial table.
+     * 
+     * @throws  IOException If the file cannot be written
+     */
+    public void save (Path file) throws IOException {
+        Path absolute = file.toAbsolutePath(),
+             temp = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE,
+                                                        StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer all = table.duplicate();
+                all.clear();
+                while (all.hasRemaining()) {
+                    channel.write(all);
+                }
+                channel.force(true);
+            }
+            try {
+                Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException unsupported) {
+                Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+    
+    /**
+     * @param   remaining   A pile size in [0, size()]
+     * @return  The smallest winning number of stones to remove from the pile, or 0
+     *          if every move loses against perfect play
+     */
+    public int bestMove (int remaining) {
+        int at = HEADER + remaining * width;
+        switch (width) {
+            case 1:  return table.get(at) & 0xFF;
+            case 2:  return table.getShort(at) & 0xFFFF;
+            default: return table.getInt(at);
+        }
+    }
+    
+    /**
+     * @return  Whether the player to move wins the given pile with perfect play.
+     */
+    public boolean isWin (int remaining) {
+        return bestMove(remaining) != 0;
+    }
+    
+    public int getMaxRemoval () {
+        return maxRemoval;
+    }
+    
+    /**
+     * @return  The largest pile the tablebase covers.
+     */
+    public int size () {
+        return size;
+    }
+    
+    private void put (int remaining, int move) {
+        int at = HEADER + remaining * width;
+        switch (width) {
+            case 1:  table.put(at, (byte) move); break;
+            case 2:  table.putShort(at, (short) move); break;
+            default: table.putInt(at, move);
+        }
+    }
+    
+    private static int widthOf (int maxRemoval) {
+        return (maxRemoval <= 0xFF) ? 1 : (maxRemoval <= 0xFFFF) ? 2 : 4;
+    }
+
+}
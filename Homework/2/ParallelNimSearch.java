@@ -0,0 +1,455 @@
+package nim;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Parallel game-tree search for the Nim variants that Grundy numbers do not
+ * solve directly: misere play (the player who takes the last stone loses) over
+ * several piles, with any set of allowed removals.
+ * 
+ * The search is a negamax alpha-beta over positions of several piles, scored
+ * WIN, LOSS, or UNKNOWN from the point of view of the player to move, where
+ * UNKNOWN is what the depth limit returns. It is split across a fork-join pool
+ * by Young Brothers Wait: the first child of a node is searched alone, to set
+ * the window, and only then are its younger brothers searched in parallel; if
+ * one of them cuts off, the rest are told to stop. Every thread shares one
+ * lock-free transposition table, whose entries are verified with the XOR of
+ * key and data so that a torn write reads as a miss. Iterative deepening runs
+ * deeper and deeper searches until the root is proven or the time budget runs
+ * out, and each depth starts from the best moves the last one found.
+ * 
+ * A single search instance may be shared by any number of threads, but the
+ * details of the last search (getLastDepth, getLastValue) describe whichever
+ * call to choose finished last.
+ */
+public final class ParallelNimSearch {
+    
+    // Scores, from the point of view of the player to move
+    public static final int LOSS = -1, UNKNOWN = 0, WIN = 1;
+    
+    // Bounds of a stored score
+    private static final int EXACT = 0, LOWER = 1, UPPER = 2;
+    
+    // Depth stored for scores that are proven, and so hold at any depth
+    private static final int PROVEN = 0xFFFF;
+    
+    // Nodes with fewer plies than this left below them are searched serially, as
+    // forking them would cost more than it saves
+    private static final int SPLIT_DEPTH = 4;
+    
+    private static final int DEFAULT_TABLE_BITS = 20;
+    
+    private final int[] removals;
+    private final boolean misere;
+    private final ForkJoinPool pool;
+    
+    // Entry i is stored as data[i], packing the score, bound, depth, and index of
+    // the best move, and keys[i], holding the entry's key XORed with that data
+    private final AtomicLongArray keys, data;
+    private final int tableMask;
+    
+    private volatile int lastDepth, lastValue;
+    
+    /**
+     * Constructs a search over the common fork-join pool, with a transposition
+     * table of 2^20 entries.
+     * 
+     * @see #ParallelNimSearch(int[], boolean, ForkJoinPool, int)
+     */
+    public ParallelNimSearch (int[] removals, boolean misere) {
+        this(removals, misere, ForkJoinPool.commonPool(), DEFAULT_TABLE_BITS);
+    }
+    
+    /**
+     * @param   removals    The numbers of stones that may be removed from one pile in
+     *                      one move, each at least 1, in any order
+     * @param   misere      Whether the player who takes the last stone loses, rather
+     *                      than wins
+     * @param   pool        The pool to split the search across
+     * @param   tableBits   The log2 of the number of transposition table entries
+     */
+    public ParallelNimSearch (int[] removals, boolean misere, ForkJoinPool pool, int tableBits) {
+        this.removals = Arrays.stream(removals).sorted().distinct().toArray();
+        if (this.removals.length == 0 || this.removals[0] < 1) {
+            throw new IllegalArgumentException("Removals must be at least 1, and at least one must be allowed");
+        }
+        if (this.removals[this.removals.length - 1] > 0xFFFF) {
+            throw new IllegalArgumentException("Removals must be at most " + 0xFFFF);
+        }
+        if (tableBits < 1 || tableBits > 30) {
+            throw new IllegalArgumentException("The table must have between 2^1 and 2^30 entries");
+        }
+        this.misere = misere;
+        this.pool = pool;
+        this.keys = new AtomicLongArray(1 << tableBits);
+        this.data = new AtomicLongArray(1 << tableBits);
+        this.tableMask = (1 << tableBits) - 1;
+    }
+    
+    /**
+     * Chooses a move for the given position by iterative deepening, stopping
+     * when the position is proven or when the time budget runs out, and then
+     * returning the best move of the deepest search that finished.
+     * 
+     * @param   piles       The number of stones in each pile
+     * @param   budgetNanos The time budget, in nanoseconds
+     * @return  The move as { pile index, stones to remove }, or null if no move is
+     *          possible
+     */
+    public int[] choose (int[] piles, long budgetNanos) {
+        long deadline = System.nanoTime() + budgetNanos;
+        int[] root = canonical(piles);
+        int[] moves = moves(root);
+        if (moves.length == 0) {
+            return null;
+        }
+        
+        // Every move removes at least one stone, so no game lasts longer than this
+        long stones = 0;
+        for (int pile : root) {
+            stones += pile;
+        }
+        int longest = (int) Math.min(PROVEN - 1, stones / removals[0] + 1);
+        
+        int best = moves[0], value = UNKNOWN, depth = 0;
+        Search search = new Search(deadline);
+        for (int limit = 1; limit <= longest; limit++) {
+            int score = pool.invoke(search.node(root, hash(root), limit, LOSS, WIN, null));
+            if (search.timeUp) {
+                break;
+            }
+            long entry = probe(hash(root));
+            best = moves[Math.min(bestIndex(entry), moves.length - 1)];
+            value = score;
+            depth = limit;
+            if (value != UNKNOWN) {
+                break;
+            }
+        }
+        lastDepth = depth;
+        lastValue = value;
+        
+        int size = root[best >>> 16], removal = best & 0xFFFF;
+        for (int i = 0; i < piles.length; i++) {
+            if (piles[i] == size) {
+                return new int[] { i, removal };
+            }
+        }
+        throw new IllegalStateException("The chosen pile is not in the position");
+    }
+    
+    /**
+     * @return  The depth of the deepest search that finished during the last call to
+     *          choose, or 0 if none did.
+     */
+    public int getLastDepth () {
+        return lastDepth;
+    }
+    
+    /**
+     * @return  The score of the position given to the last call to choose: WIN or
+     *          LOSS if it was proven within the budget, otherwise UNKNOWN.
+     */
+    public int getLastValue () {
+        return lastValue;
+    }
+    
+    
+    // Positions
+    // -----------------------------------------------------------------------------
+    
+    /**
+     * Returns the position as its piles in increasing order, leaving out the piles
+     * too small for any removal, which can never change the outcome.
+     */
+    private int[] canonical (int[] piles) {
+        return Arrays.stream(piles).filter(pile -> pile >= removals[0]).sorted().toArray();
+    }
+    
+    /**
+     * Returns the moves of the given canonical position, each encoded as (index of
+     * the pile << 16 | stones removed); piles of the same size give the same
+     * children, so only the first of them is moved from.
+     */
+    private int[] moves (int[] piles) {
+        int[] moves = new int[piles.length * removals.length];
+        int count = 0;
+        for (int i = 0; i < piles.length; i++) {
+            if (i > 0 && piles[i] == piles[i - 1]) {
+                continue;
+            }
+            for (int removal : removals) {
+                if (removal > piles[i]) {
+                    break;
+                }
+                moves[count++] = (i << 16) | removal;
+            }
+        }
+        return Arrays.copyOf(moves, count);
+    }
+    
+    /**
+     * Returns the canonical position reached by the given move.
+     */
+    private int[] play (int[] piles, int move) {
+        int index = move >>> 16, left = piles[index] - (move & 0xFFFF);
+        boolean kept = left >= removals[0];
+        int[] result = new int[kept ? piles.length : piles.length - 1];
+        int at = 0;
+        for (int i = 0; i < piles.length; i++) {
+            if (i == index) {
+                continue;
+            }
+            if (kept && left <= piles[i]) {
+                result[at++] = left;
+                kept = false;
+            }
+            result[at++] = piles[i];
+        }
+        if (kept) {
+            result[at] = left;
+        }
+        return result;
+    }
+    
+    private static long hash (int[] piles) {
+        long h = 0x9E3779B97F4A7C15L;
+        for (int pile : piles) {
+            h = (h ^ pile) * 0xBF58476D1CE4E5B9L;
+            h ^= h >>> 31;
+        }
+        return (h == 0) ? 1 : h;
+    }
+    
+    
+    // Transposition table
+    // -----------------------------------------------------------------------------
+    
+    /**
+     * @return  The data of the entry stored for the given key, or 0 if there is none.
+     */
+    private long probe (long key) {
+        int slot = (int) key & tableMask;
+        long stored = data.get(slot);
+        return ((keys.get(slot) ^ stored) == key) ? stored : 0;
+    }
+    
+    private void store (long key, int score, int bound, int depth, int bestIndex) {
+        int slot = (int) key & tableMask;
+        long entry = (score + 1) | ((long) bound << 2) | ((long) depth << 4) | ((long) Math.min(bestIndex, 0xFFFF) << 20);
+        data.set(slot, entry);
+        keys.set(slot, key ^ entry);
+    }
+    
+    private static int scoreOf (long entry) {
+        return (int) (entry & 3) - 1;
+    }
+    
+    private static int boundOf (long entry) {
+        return (int) (entry >>> 2) & 3;
+    }
+    
+    private static int depthOf (long entry) {
+        return (int) (entry >>> 4) & 0xFFFF;
+    }
+    
+    private static int bestIndex (long entry) {
+        return (int) (entry >>> 20) & 0xFFFF;
+    }
+    
+    
+    // Search
+    // -----------------------------------------------------------------------------
+    
+    /**
+     * One iteration of iterative deepening: its deadline, and whether it has
+     * passed it, in which case every node returns at once and stores nothing.
+     */
+    private final class Search {
+        final long deadline;
+        volatile boolean timeUp;
+        
+        Search (long deadline) {
+            this.deadline = deadline;
+        }
+        
+        Node node (int[] piles, long key, int depth, int alpha, int beta, Split split) {
+            return new Node(this, piles, key, depth, alpha, beta, split);
+        }
+    }
+    
+    /**
+     * A group of younger brothers searched in parallel; once one of them cuts
+     * off, the group and every group below it stop.
+     */
+    private static final class Split {
+        final Split parent;
+        volatile boolean stop;
+        
+        Split (Split parent) {
+            this.parent = parent;
+        }
+        
+        boolean stopped () {
+            for (Split split = this; split != null; split = split.parent) {
+                if (split.stop) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+    
+    /**
+     * Searches one node with a negamax alpha-beta, returning its score from the
+     * point of view of the player to move.
+     */
+    private final class Node extends RecursiveTask<Integer> {
+        private static final long serialVersionUID = 1L;
+        
+        final Search search;
+        final int[] piles;
+        final long key;
+        final int depth, beta;
+        final Split split;
+        int alpha;
+        
+        Node (Search search, int[] piles, long key, int depth, int alpha, int beta, Split split) {
+            this.search = search;
+            this.piles = piles;
+            this.key = key;
+            this.depth = depth;
+            this.alpha = alpha;
+            this.beta = beta;
+            this.split = split;
+        }
+        
+        @Override
+        protected Integer compute () {
+            return search();
+        }
+        
+        int search () {
+            if (search.timeUp || (split != null && split.stopped())) {
+                return UNKNOWN;
+            }
+            if (System.nanoTime() - search.deadline > 0) {
+                search.timeUp = true;
+                return UNKNOWN;
+            }
+            
+            int[] moves = moves(piles);
+            if (moves.length == 0) {
+                // The player to move cannot: the other player took the last stone
+                return misere ? WIN : LOSS;
+            }
+            if (depth == 0) {
+                return UNKNOWN;
+            }
+            
+            int alphaIn = alpha, first = 0, b = beta;
+            long entry = probe(key);
+            if (entry != 0) {
+                int score = scoreOf(entry);
+                if (depthOf(entry) >= depth) {
+                    int bound = boundOf(entry);
+                    if (bound == EXACT
+                        || (bound == LOWER && score >= b)
+                        || (bound == UPPER && score <= alpha)) {
+                        return score;
+                    }
+                }
+                first = Math.min(bestIndex(entry), moves.length - 1);
+            }
+            // Search the last best move first
+            int swap = moves[0];
+            moves[0] = moves[first];
+            moves[first] = swap;
+            
+            int best = child(moves[0], alpha, null), bestIndex = first;
+            if (best > alpha) {
+                alpha = best;
+            }
+            
+            if (alpha < b && moves.length > 1) {
+                if (depth >= SPLIT_DEPTH) {
+                    // Young brothers wait: the eldest has set the window, so the rest
+                    // can now be searched in parallel
+                    Split group = new Split(split);
+                    List<Brother> brothers = new ArrayList<Brother>(moves.length - 1);
+                    for (int i = 1; i < moves.length; i++) {
+                        brothers.add(new Brother(this, moves[i], alpha, group));
+                    }
+                    ForkJoinTask.invokeAll(brothers);
+                    for (int i = 1; i < moves.length; i++) {
+                        int score = brothers.get(i - 1).join();
+                        if (score > best) {
+                            best = score;
+                            bestIndex = (i == first) ? 0 : i;
+                        }
+                    }
+                } else {
+                    for (int i = 1; i < moves.length && alpha < b; i++) {
+                        int score = child(moves[i], alpha, null);
+                        if (score > best) {
+                            best = score;
+                            bestIndex = (i == first) ? 0 : i;
+                            alpha = Math.max(alpha, score);
+                        }
+                    }
+                }
+            }
+            
+            if (search.timeUp || (split != null && split.stopped())) {
+                return UNKNOWN;
+            }
+            int bound = (best <= alphaIn) ? UPPER : (best >= b) ? LOWER : EXACT;
+            boolean proven = (best == WIN && bound != UPPER) || (best == LOSS && bound != LOWER);
+            store(key, best, proven ? EXACT : bound, proven ? PROVEN : depth, bestIndex);
+            return best;
+        }
+        
+        /**
+         * @return  The score of the given move, from this node's point of view.
+         */
+        int child (int move, int alpha, Split group) {
+            int[] next = play(piles, move);
+            return -search.node(next, hash(next), depth - 1, -beta, -alpha, (group == null) ? split : group).search();
+        }
+    }
+    
+    /**
+     * A younger brother searched in parallel with its siblings, which stops them
+     * all once it cuts off its parent.
+     */
+    private final class Brother extends RecursiveTask<Integer> {
+        private static final long serialVersionUID = 1L;
+        
+        final Node parent;
+        final int move, alpha;
+        final Split group;
+        
+        Brother (Node parent, int move, int alpha, Split group) {
+            this.parent = parent;
+            this.move = move;
+            this.alpha = alpha;
+            this.group = group;
+        }
+        
+        @Override
+        protected Integer compute () {
+            int score = parent.child(move, alpha, group);
+            if (score >= parent.beta) {
+                group.stop = true;
+            }
+            return score;
+        }
+    }
+
+}
@@ -0,0 +1,275 @@
+package nim;
+
+import java.util.Arrays;
+
+/**
+ * A subtraction game: players take turns removing stones from any one of several
+ * piles, where the number removed must come from a fixed set of allowed removals,
+ * and the player who takes the last stone wins. Multi-pile Nim with MAX_REMOVAL
+ * is the game whose allowed removals are 1 through MAX_REMOVAL.
+ * 
+ * Moves are chosen by Sprague-Grundy theory rather than by searching the game
+ * tree: the Grundy number of a pile is the smallest number that is not the Grundy
+ * number of a pile it can move to, and a position is lost exactly when the XOR of
+ * its piles' Grundy numbers is 0. Grundy numbers are computed once into a cached
+ * array; since they are eventually periodic for any finite set of removals, the
+ * period is detected as they are computed, after which a pile of any size costs
+ * O(1), and choosing a move over k piles costs O(k).
+ * 
+ * Not thread-safe: the cache grows as larger piles are asked about.
+ */
+public final class SubtractionGame {
+    
+    // Windows are hashed while looking for the period for at most this many piles;
+    // past that, Grundy numbers are simply computed up to the pile asked about
+    private static final int MAX_TRACKED = 1 << 22;
+    
+    private static final long HASH_BASE = 0x9E3779B97F4A7C15L;
+    
+    private final int[] removals;
+    private final int window;
+    
+    // Marks Grundy numbers of Long.SIZE and up reached by a pile's moves, for the
+    // games with that many removals; cleared after each pile
+    private final boolean[] wide;
+    
+    // grundy[n] is the Grundy number of a pile of n stones, for n < computed
+    private int[] grundy = new int[64];
+    private int computed;
+    
+    // Once found, grundy[n] == grundy[n - period] for every n >= periodStart + period
+    private int periodStart = -1, period;
+    
+    // Rolling hash of the last window Grundy numbers, and an open-addressing table
+    // of the hashes seen, with one more than the pile at which each was first seen
+    // (0 for an empty slot); grown by doubling, like grundy
+    private long hash, highPower = 1;
+    private long[] seenHashes = new long[64];
+    private int[] seenFirst = new int[64];
+    private int seenCount;
+    
+    /**
+     * Constructs the subtraction game with the given allowed removals.
+     * 
+     * @param   removals    The numbers of stones that may be removed in one move,
+     *                      each at least 1, in any order
+     */
+    public SubtractionGame (int... removals) {
+        this.removals = Arrays.stream(removals).sorted().distinct().toArray();
+        if (this.removals.length == 0 || this.removals[0] < 1) {
+            throw new IllegalArgumentException("Removals must be at least 1, and at least one must be allowed");
+        }
+        this.window = this.removals[this.removals.length - 1];
+        this.wide = new boolean[this.removals.length + 1];
+        for (int i = 1; i < window; i++) {
+            highPower *= HASH_BASE;
+        }
+    }
+    
+    /**
+     * @return  The game of Nim where between 1 and maxRemoval stones may be removed.
+     */
+    public static SubtractionGame upTo (int maxRemoval) {
+        if (maxRemoval < 1) {
+            throw new IllegalArgumentException("MAX_REMOVAL must be at least 1");
+        }
+        int[] removals = new int[maxRemoval];
+        for (int i = 0; i < maxRemoval; i++) {
+            removals[i] = i + 1;
+        }
+        return new SubtractionGame(removals);
+    }
+    
+    /**
+     * @param   remaining   The number of stones in a pile
+     * @return  The Grundy number of the pile
+     */
+    public int grundy (int remaining) {
+        if (remaining < 0) {
+            throw new IllegalArgumentException("A pile cannot hold a negative number of stones");
+        }
+        if (periodStart != -1 && remaining >= computed) {
+            return grundy[periodStart + (remaining - periodStart) % period];
+        }
+        while (remaining >= computed && periodStart == -1) {
+            computeNext();
+        }
+        return (remaining < computed) ? grundy[remaining] : grundy[periodStart + (remaining - periodStart) % period];
+    }
+    
+    /**
+     * @param   piles   The number of stones in each pile
+     * @return  The Grundy number of the whole position: the XOR of its piles'
+     */
+    public int grundy (int[] piles) {
+        int result = 0;
+        for (int pile : piles) {
+            result ^= grundy(pile);
+        }
+        return result;
+    }
+    
+    /**
+     * @return  Whether the player to move wins the given position with perfect play.
+     */
+    public boolean isWin (int[] piles) {
+        return grundy(piles) != 0;
+    }
+    
+    /**
+     * Chooses a move for the given position in O(k) for k piles: in a won position,
+     * one that leaves a position with a Grundy number of 0; in a lost one, the
+     * smallest removal from the first pile that allows any.
+     * 
+     * @param   piles   The number of stones in each pile
+     * @return  The move as { pile index, stones to remove }, or null if no move is
+     *          possible
+     */
+    public int[] choose (int[] piles) {
+        int total = grundy(piles);
+        if (total != 0) {
+            for (int i = 0; i < piles.length; i++) {
+                int current = grundy(piles[i]), target = current ^ total;
+                if (target < current) {
+                    for (int removal : removals) {
+                        if (removal <= piles[i] && grundy(piles[i] - removal) == target) {
+                            return new int[] { i, removal };
+                        }
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < piles.length; i++) {
+            if (piles[i] >= removals[0]) {
+                return new int[] { i, removals[0] };
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * @return  The period the Grundy numbers settle into, or 0 if it has not been found
+     *          (yet) among the piles computed so far.
+     */
+    public int getPeriod () {
+        return period;
+    }
+    
+    /**
+     * @return  The smallest pile from which the Grundy numbers repeat with the period,
+     *          or -1 if it has not been found (yet).
+     */
+    public int getPeriodStart () {
+        return periodStart;
+    }
+    
+    /**
+     * @return  The allowed removals, in increasing order.
+     */
+    public int[] getRemovals () {
+        return removals.clone();
+    }
+    
+    /**
+     * Computes the Grundy number of the next pile, as the mex of the piles it can
+     * move to, and checks whether the last window of Grundy numbers has been seen
+     * before: the next number depends only on that window, so a repeat fixes the
+     * period of every number after it.
+     */
+    private void computeNext () {
+        int n = computed;
+        if (n == grundy.length) {
+            grundy = Arrays.copyOf(grundy, 2 * n);
+        }
+        
+        long reached = 0;
+        boolean anyWide = false;
+        for (int removal : removals) {
+            if (removal > n) {
+                break;
+            }
+            int value = grundy[n - removal];
+            if (value < Long.SIZE) {
+                reached |= 1L << value;
+            } else if (value < wide.length) {
+                wide[value] = anyWide = true;
+            }
+        }
+        int mex = Long.numberOfTrailingZeros(~reached);
+        if (anyWide) {
+            if (mex == Long.SIZE) {
+                while (mex < wide.length && wide[mex]) {
+                    mex++;
+                }
+            }
+            Arrays.fill(wide, false);
+        }
+        grundy[n] = mex;
+        computed++;
+        
+        if (n >= MAX_TRACKED) {
+            return;
+        }
+        hash = hash * HASH_BASE + mex;
+        if (n >= window) {
+            hash -= grundy[n - window] * highPower * HASH_BASE;
+        }
+        if (n + 1 < window) {
+            return;
+        }
+        int first = firstSeen(hash, n);
+        if (first != -1 && sameWindow(first, n)) {
+            periodStart = first - window + 1;
+            period = n - first;
+            seenHashes = null;
+            seenFirst = null;
+        }
+    }
+    
+    /**
+     * Looks the given hash up in the table of hashes seen, recording it as first
+     * seen at pile n if it is new.
+     * 
+     * @return  The pile at which the hash was first seen, or -1 if it is new
+     */
+    private int firstSeen (long hash, int n) {
+        int mask = seenHashes.length - 1;
+        int slot = (int) ((hash * HASH_BASE) >>> 32) & mask;
+        while (seenFirst[slot] != 0) {
+            if (seenHashes[slot] == hash) {
+                return seenFirst[slot] - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        seenHashes[slot] = hash;
+        seenFirst[slot] = n + 1;
+        if (2 * ++seenCount > seenHashes.length) {
+            long[] oldHashes = seenHashes;
+            int[] oldFirst = seenFirst;
+            seenHashes = new long[2 * oldHashes.length];
+            seenFirst = new int[2 * oldFirst.length];
+            mask = seenHashes.length - 1;
+            for (int i = 0; i < oldHashes.length; i++) {
+                if (oldFirst[i] != 0) {
+                    slot = (int) ((oldHashes[i] * HASH_BASE) >>> 32) & mask;
+                    while (seenFirst[slot] != 0) {
+                        slot = (slot + 1) & mask;
+                    }
+                    seenHashes[slot] = oldHashes[i];
+                    seenFirst[slot] = oldFirst[i];
+                }
+            }
+        }
+        return -1;
+    }
+    
+    private boolean sameWindow (int first, int last) {
+        for (int i = 0; i < window; i++) {
+            if (grundy[first - i] != grundy[last - i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,172 @@
+package differential;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The results of a differential run, gathered from any number of threads at
+ * once: for every solver mode, how many workloads it ran, how many of its
+ * answers disagreed with the reference, and the time and memory it took, along
+ * with a description of each disagreement.
+ * 
+ * Memory is measured as the bytes allocated by the thread running the mode,
+ * which, unlike the heap in use, is not disturbed by the other workloads running
+ * at the same time; it reads as -1 on JVMs that do not measure it.
+ */
+public final class DifferentialReport {
+    
+    // Only the first of the failures are kept in full
+    private static final int MAX_FAILURES_KEPT = 100;
+    
+    private static final java.lang.management.ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    
+    private final Map<String, Tally> tallies = new ConcurrentSkipListMap<>();
+    private final ConcurrentLinkedQueue<String> failures = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<String> rows = new ConcurrentLinkedQueue<>();
+    private final LongAdder failureCount = new LongAdder();
+    
+    /**
+     * Runs one mode on one workload, timing it and measuring what it allocates.
+     * An exception thrown by the mode is recorded as a failure, and null is
+     * returned in place of its answer.
+     * 
+     * @param   mode        The name of the solver mode
+     * @param   workload    A description of the workload, enough to reproduce it
+     * @param   run         Runs the mode and returns its answer
+     * @return  The answer, or null if the mode threw
+     */
+    public <T> T measure (String mode, String workload, Callable<T> run) {
+        Tally tally = tallies.computeIfAbsent(mode, name -> new Tally());
+        long bytes = allocatedBytes(), start = System.nanoTime();
+        T answer = null;
+        Throwable thrown = null;
+        try {
+            answer = run.call();
+        } catch (Exception | StackOverflowError | OutOfMemoryError e) {
+            thrown = e;
+        }
+        long nanos = System.nanoTime() - start;
+        bytes = (bytes == -1) ? -1 : allocatedBytes() - bytes;
+        tally.runs.increment();
+        tally.nanos.add(nanos);
+        tally.maxNanos.accumulateAndGet(nanos, Math::max);
+        if (bytes >= 0) {
+            tally.bytes.add(bytes);
+        }
+        rows.add(csv(mode) + "," + csv(workload) + "," + nanos + "," + bytes);
+        if (thrown != null) {
+            fail(mode, workload, "threw " + thrown);
+        }
+        return answer;
+    }
+    
+    /**
+     * Records that the given mode's answer on the given workload was wrong, unless
+     * it is correct.
+     * 
+     * @param   correct     Whether the answer agreed with the reference
+     * @param   message     Describes how the answer was wrong
+     */
+    public void check (String mode, String workload, boolean correct, String message) {
+        if (!correct) {
+            fail(mode, workload, message);
+        }
+    }
+    
+    private void fail (String mode, String workload, String message) {
+        tallies.computeIfAbsent(mode, name -> new Tally()).failures.increment();
+        failureCount.increment();
+        if (failures.size() < MAX_FAILURES_KEPT) {
+            failures.add(mode + " on " + workload + ": " + message);
+        }
+    }
+    
+    /**
+     * @return  The number of wrong answers recorded, over every mode.
+     */
+    public long getFailureCount () {
+        return failureCount.sum();
+    }
+    
+    /**
+     * @return  The descriptions of the first wrong answers recorded.
+     */
+    public List<String> getFailures () {
+        return new ArrayList<>(failures);
+    }
+    
+    /**
+     * Prints a table of every mode's runs, failures, time, and memory, followed by
+     * the failures kept.
+     */
+    public void print (PrintStream out) {
+        out.printf("%-28s %8s %8s %12s %10s %10s %12s%n",
+                   "mode", "runs", "failures", "total ms", "mean ms", "max ms", "mean KiB");
+        for (Map.Entry<String, Tally> entry : tallies.entrySet()) {
+            Tally tally = entry.getValue();
+            long runs = tally.runs.sum();
+            out.printf("%-28s %8d %8d %12.1f %10.3f %10.3f %12.1f%n", entry.getKey(), runs, tally.failures.sum(),
+                       tally.nanos.sum() / 1e6, tally.nanos.sum() / 1e6 / Math.max(1, runs),
+                       tally.maxNanos.get() / 1e6, tally.bytes.sum() / 1024.0 / Math.max(1, runs));
+        }
+        if (!failures.isEmpty()) {
+            out.println();
+            out.println(getFailureCount() + " failures" + ((getFailureCount() > failures.size())
+                ? ", the first " + failures.size() + " of which are:" : ":"));
+            for (String failure : failures) {
+                out.println("  " + failure);
+            }
+        }
+    }
+    
+    /**
+     * Writes one line per run, as mode, workload, nanoseconds, and bytes
+     * allocated, in comma-separated values with a header.
+     */
+    public void writeCsv (Path file) throws IOException {
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("mode,workload,nanos,bytes\n");
+            for (String row : rows) {
+                out.write(row);
+                out.write('\n');
+            }
+        }
+    }
+    
+    private static String csv (String field) {
+        return '"' + field.replace("\"", "\"\"") + '"';
+    }
+    
+    private static long allocatedBytes () {
+        if (THREADS instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) THREADS).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+
+/**
+ * The running totals of one mode.
+ */
+private static final class Tally {
+    
+    final LongAdder runs = new LongAdder(), failures = new LongAdder(), nanos = new LongAdder(),
+                    bytes = new LongAdder();
+    final AtomicLong maxNanos = new AtomicLong();
+
+}
+
+}
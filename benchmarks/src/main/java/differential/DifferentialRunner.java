@@ -0,0 +1,89 @@
+package differential;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
+import java.util.regex.Pattern;
+
+import nim.NimDifferential;
+import pathfinder.informed.MazeDifferential;
+
+/**
+ * Runs every solver mode over a seeded corpus of random mazes and Nim games,
+ * checks each answer against an exhaustive reference, and reports the failures
+ * along with the time and memory of every mode. Runs offline, on as many threads
+ * as asked, and exits with status 1 if any answer was wrong:
+ * 
+ *     java -cp benchmarks/target/benchmarks.jar differential.DifferentialRunner \
+ *         [--seed N] [--cases N] [--max-cells N] [--max-pile N] [--threads N] \
+ *         [--modes REGEX] [--work-dir DIR] [--csv FILE] [--mazes-only | --nim-only]
+ * 
+ * A failure names its workload and seed, so any one of them can be replayed
+ * alone with the same --seed and a narrower --modes. Mazes of 10^8 cells need a
+ * heap of several GB (-Xmx) and are best run with --modes narrowed to the modes
+ * of interest; a mode that runs out of memory is reported as a failure.
+ */
+public final class DifferentialRunner {
+    
+    private DifferentialRunner () {}
+    
+    public static void main (String[] args) throws IOException {
+        long seed = 1;
+        int cases = 100, maxPile = 1 << 12, threads = Runtime.getRuntime().availableProcessors();
+        long maxCells = 1 << 18;
+        Pattern modes = Pattern.compile(".*");
+        Path workDir = null, csv = null;
+        boolean mazes = true, nim = true;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--seed":       seed = Long.parseLong(value(args, ++i)); break;
+                case "--cases":      cases = Integer.parseInt(value(args, ++i)); break;
+                case "--max-cells":  maxCells = Long.parseLong(value(args, ++i)); break;
+                case "--max-pile":   maxPile = Integer.parseInt(value(args, ++i)); break;
+                case "--threads":    threads = Integer.parseInt(value(args, ++i)); break;
+                case "--modes":      modes = Pattern.compile(value(args, ++i)); break;
+                case "--work-dir":   workDir = Paths.get(value(args, ++i)); break;
+                case "--csv":        csv = Paths.get(value(args, ++i)); break;
+                case "--mazes-only": nim = false; break;
+                case "--nim-only":   mazes = false; break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        if (workDir == null) {
+            workDir = Files.createTempDirectory("differential");
+            workDir.toFile().deleteOnExit();
+        }
+        
+        DifferentialReport report = new DifferentialReport();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long start = System.nanoTime();
+        try {
+            if (mazes) {
+                new MazeDifferential(report, modes, workDir).run(seed, cases, maxCells, pool);
+            }
+            if (nim) {
+                new NimDifferential(report, modes).run(seed, cases, maxPile, pool);
+            }
+        } finally {
+            pool.shutdown();
+        }
+        System.out.printf("Seed %d, %d cases per family, %d threads, %.1f s%n%n",
+                          seed, cases, threads, (System.nanoTime() - start) / 1e9);
+        report.print(System.out);
+        if (csv != null) {
+            report.writeCsv(csv);
+        }
+        System.exit((report.getFailureCount() == 0) ? 0 : 1);
+    }
+    
+    private static String value (String[] args, int i) {
+        if (i >= args.length) {
+            throw new IllegalArgumentException(args[i - 1] + " needs a value");
+        }
+        return args[i];
+    }
+
+}
@@ -0,0 +1,111 @@
+package nim;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Generates the Nim games the differential runner plays, as a pure function of
+ * their seed: a single pile for NimPlayer's own game, and a position of a few
+ * small piles, to be played both by NimPlayer's rules and under a random set of
+ * allowed removals, in normal or misere play. The positions are kept small
+ * enough to be solved exhaustively.
+ */
+public final class NimCorpus {
+    
+    // The most stones one move may remove, and the shape of the multi-pile positions
+    private static final int MAX_REMOVAL = 8, MAX_PILES = 4, MAX_PILE = 12;
+    
+    /**
+     * One generated game.
+     */
+    public static final class Game {
+        
+        private final int maxRemoval, remaining;
+        private final int[] removals, piles;
+        private final boolean misere;
+        
+        Game (int maxRemoval, int remaining, int[] removals, int[] piles, boolean misere) {
+            this.maxRemoval = maxRemoval;
+            this.remaining = remaining;
+            this.removals = removals;
+            this.piles = piles;
+            this.misere = misere;
+        }
+        
+        /**
+         * @return  The most stones one move may remove in NimPlayer's game.
+         */
+        public int getMaxRemoval () {
+            return maxRemoval;
+        }
+        
+        /**
+         * @return  The number of stones of the single pile.
+         */
+        public int getRemaining () {
+            return remaining;
+        }
+        
+        /**
+         * @return  The numbers of stones a move may remove in the subtraction game,
+         *          in increasing order.
+         */
+        public int[] getRemovals () {
+            return removals.clone();
+        }
+        
+        /**
+         * @return  The number of stones of each pile of the multi-pile position, at
+         *          least one of which is not empty.
+         */
+        public int[] getPiles () {
+            return piles.clone();
+        }
+        
+        /**
+         * @return  Whether the multi-pile position is played misere, where the
+         *          player who takes the last stone loses.
+         */
+        public boolean isMisere () {
+            return misere;
+        }
+        
+        @Override
+        public String toString () {
+            return "MAX_REMOVAL " + maxRemoval + ", pile " + remaining + ", removals " + Arrays.toString(removals)
+                + ", piles " + Arrays.toString(piles) + (misere ? " misere" : "");
+        }
+    }
+    
+    private NimCorpus () {}
+    
+    /**
+     * @param   seed            The seed of the game
+     * @param   maxRemaining    The largest single pile, drawn log-uniformly from 1 up
+     * @return  The game
+     */
+    public static Game generate (long seed, int maxRemaining) {
+        Random random = new Random(seed);
+        int maxRemoval = 1 + random.nextInt(MAX_REMOVAL),
+            remaining = (int) Math.min(maxRemaining, Math.round(Math.exp(random.nextDouble() * Math.log(maxRemaining))));
+        
+        int[] removals = new int[MAX_REMOVAL];
+        int count = 0;
+        for (int removal = 1; removal <= MAX_REMOVAL; removal++) {
+            if (random.nextInt(3) == 0) {
+                removals[count++] = removal;
+            }
+        }
+        if (count == 0) {
+            removals[count++] = 1 + random.nextInt(MAX_REMOVAL);
+        }
+        
+        int[] piles = new int[1 + random.nextInt(MAX_PILES)];
+        for (int i = 0; i < piles.length; i++) {
+            piles[i] = random.nextInt(MAX_PILE + 1);
+        }
+        piles[random.nextInt(piles.length)] = 1 + random.nextInt(MAX_PILE);
+        return new Game(maxRemoval, Math.max(1, remaining), Arrays.copyOf(removals, count), piles, random.nextBoolean());
+    }
+
+}
@@ -0,0 +1,246 @@
+package nim;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import differential.DifferentialReport;
+
+/**
+ * Checks every way of choosing a Nim move against an exhaustive solver over the
+ * games of NimCorpus: NimPlayer's alpha-beta search and its tablebase on the
+ * single pile, and its Grundy and misere players, SubtractionGame, and
+ * ParallelNimSearch on the multi-pile position. A move must be legal, and must
+ * leave the other player lost whenever the position is won.
+ * 
+ * The exhaustive solver tries every move of every position, remembering each
+ * position it solves, and knows nothing of periods or Grundy numbers.
+ */
+public final class NimDifferential {
+    
+    // The time budget of the misere searches, long enough to prove the small
+    // positions of the corpus
+    private static final long SEARCH_BUDGET = TimeUnit.SECONDS.toNanos(5);
+    
+    private final DifferentialReport report;
+    private final Pattern modes;
+    
+    /**
+     * @param   report  Collects the results of every mode
+     * @param   modes   The modes to run, matched against their names in full; the
+     *                  references always run
+     */
+    public NimDifferential (DifferentialReport report, Pattern modes) {
+        this.report = report;
+        this.modes = modes;
+    }
+    
+    /**
+     * Generates the given number of games and checks every mode on each of them,
+     * one game per task on the executor.
+     * 
+     * @param   seed            The seed the games are drawn from
+     * @param   cases           The number of games
+     * @param   maxRemaining    The largest single pile of any game
+     * @param   executor        The executor to run the games on
+     */
+    public void run (long seed, int cases, int maxRemaining, Executor executor) {
+        Random random = new Random(seed);
+        List<CompletableFuture<?>> tasks = new ArrayList<>();
+        for (int i = 0; i < cases; i++) {
+            long gameSeed = random.nextLong();
+            tasks.add(CompletableFuture.runAsync(() -> check(gameSeed, maxRemaining), executor));
+        }
+        CompletableFuture.allOf(tasks.toArray(new CompletableFuture<?>[0])).join();
+    }
+    
+    private void check (long seed, int maxRemaining) {
+        NimCorpus.Game game = NimCorpus.generate(seed, maxRemaining);
+        String name = game + " (seed " + seed + ")";
+        int maxRemoval = game.getMaxRemoval(), remaining = game.getRemaining();
+        int[] upTo = new int[maxRemoval];
+        for (int i = 0; i < maxRemoval; i++) {
+            upTo[i] = i + 1;
+        }
+        
+        boolean[] won = report.measure("reference/pile", name, () -> solvePile(maxRemoval, remaining));
+        if (won != null) {
+            pile("choose", name, maxRemoval, remaining, won, () -> new NimPlayer(maxRemoval).choose(remaining));
+            pile("choose/tablebase", name, maxRemoval, remaining, won,
+                 () -> new NimPlayer(maxRemoval, NimTablebase.build(maxRemoval, remaining)).choose(remaining));
+        }
+        
+        int[] piles = game.getPiles(), removals = game.getRemovals();
+        boolean misere = game.isMisere();
+        Positions normal = report.measure("reference/piles", name, () -> Positions.solve(upTo, false, piles)),
+                  reverse = report.measure("reference/piles", name, () -> Positions.solve(upTo, true, piles)),
+                  subtraction = report.measure("reference/piles", name, () -> Positions.solve(removals, misere, piles));
+        if (normal != null) {
+            piles("piles", name, normal, piles, () -> new NimPlayer(maxRemoval).choose(piles));
+        }
+        if (reverse != null) {
+            piles("piles/misere", name, reverse, piles,
+                  () -> new NimPlayer(maxRemoval).choose(piles, true, TimeUnit.NANOSECONDS.toMillis(SEARCH_BUDGET)));
+        }
+        if (subtraction != null) {
+            if (!misere) {
+                piles("subtraction-game", name, subtraction, piles, () -> new SubtractionGame(removals).choose(piles));
+            }
+            piles("parallel-search" + (misere ? "/misere" : ""), name, subtraction, piles,
+                  () -> new ParallelNimSearch(removals, misere).choose(piles, SEARCH_BUDGET));
+        }
+    }
+    
+    /**
+     * Runs a mode that chooses a move for a single pile, where 1 to maxRemoval
+     * stones may be taken.
+     */
+    private void pile (String mode, String name, int maxRemoval, int remaining, boolean[] won,
+                       Callable<Integer> run) {
+        if (!modes.matcher(mode).matches()) {
+            return;
+        }
+        Integer move = report.measure(mode, name, run);
+        if (move != null) {
+            boolean legal = move >= 1 && move <= Math.min(maxRemoval, remaining);
+            report.check(mode, name, legal, "took " + move + " of " + remaining);
+            report.check(mode, name, !legal || !won[remaining] || !won[remaining - move],
+                         "took " + move + " of " + remaining + ", leaving a won pile");
+        }
+    }
+    
+    /**
+     * Runs a mode that chooses a move { pile index, stones to remove } for a
+     * position of several piles, or null if there is no move.
+     */
+    private void piles (String mode, String name, Positions game, int[] piles,
+                        Callable<int[]> run) {
+        if (!modes.matcher(mode).matches()) {
+            return;
+        }
+        boolean stuck = game.isStuck(piles);
+        int[] move;
+        if (stuck) {
+            move = report.measure(mode, name, () -> {
+                try {
+                    return run.call();
+                } catch (IllegalArgumentException noMove) {
+                    return null;
+                }
+            });
+            report.check(mode, name, move == null, "moved " + Arrays.toString(move) + " where no move is possible");
+            return;
+        }
+        move = report.measure(mode, name, run);
+        if (move == null) {
+            report.check(mode, name, false, "found no move");
+            return;
+        }
+        boolean legal = move.length == 2 && move[0] >= 0 && move[0] < piles.length && game.allows(move[1])
+                        && move[1] <= piles[move[0]];
+        report.check(mode, name, legal, "made the illegal move " + Arrays.toString(move));
+        if (legal && game.isWin(piles)) {
+            int[] after = piles.clone();
+            after[move[0]] -= move[1];
+            report.check(mode, name, !game.isWin(after),
+                         "moved " + Arrays.toString(move) + " from a won position to another won one");
+        }
+    }
+    
+    /**
+     * @return  Whether the player to move wins each pile of up to the given size,
+     *          where 1 to maxRemoval stones may be taken, by trying every move.
+     */
+    static boolean[] solvePile (int maxRemoval, int remaining) {
+        boolean[] won = new boolean[remaining + 1];
+        for (int pile = 1; pile <= remaining; pile++) {
+            for (int move = 1; move <= Math.min(maxRemoval, pile) && !won[pile]; move++) {
+                won[pile] = !won[pile - move];
+            }
+        }
+        return won;
+    }
+
+
+/**
+ * The outcome of every position of a few small piles under one set of allowed
+ * removals, solved exhaustively and remembered by the piles in sorted order.
+ */
+private static final class Positions {
+    
+    private static final int BITS = 4;
+    
+    private final int[] removals;
+    private final boolean misere;
+    
+    // Indexed by the sorted piles, BITS each: 0 unsolved, 1 lost, 2 won
+    private final byte[] outcomes = new byte[1 << (4 * BITS)];
+    
+    Positions (int[] removals, boolean misere) {
+        this.removals = removals;
+        this.misere = misere;
+    }
+    
+    /**
+     * @return  The outcomes under the given rules, with every position reachable
+     *          from the given one already solved.
+     */
+    static Positions solve (int[] removals, boolean misere, int[] piles) {
+        Positions positions = new Positions(removals, misere);
+        positions.isWin(piles);
+        return positions;
+    }
+    
+    boolean allows (int removal) {
+        return Arrays.binarySearch(removals, removal) >= 0;
+    }
+    
+    boolean isStuck (int[] piles) {
+        for (int pile : piles) {
+            if (pile >= removals[0]) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * @return  Whether the player to move wins the given position, which is lost
+     *          when no move is possible in normal play and won in misere play.
+     */
+    boolean isWin (int[] piles) {
+        int[] sorted = piles.clone();
+        Arrays.sort(sorted);
+        int key = 0;
+        for (int pile : sorted) {
+            key = (key << BITS) | pile;
+        }
+        if (outcomes[key] != 0) {
+            return outcomes[key] == 2;
+        }
+        boolean win = isStuck(sorted) && misere;
+        for (int i = 0; i < sorted.length && !win; i++) {
+            for (int removal : removals) {
+                if (removal <= sorted[i]) {
+                    sorted[i] -= removal;
+                    win = !isWin(sorted);
+                    sorted[i] += removal;
+                    if (win) {
+                        break;
+                    }
+                }
+            }
+        }
+        outcomes[key] = (byte) (win ? 2 : 1);
+        return win;
+    }
+
+}
+
+}
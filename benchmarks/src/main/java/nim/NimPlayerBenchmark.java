@@ -0,0 +1,63 @@
+package nim;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Times NimPlayer.choose on a single pile: cold, by a new player whose
+ * transposition table is empty, so the whole game tree below the pile is
+ * searched; warm, by one player reused across calls, as in a game; and from a
+ * tablebase covering the pile.
+ * 
+ * Run with -prof gc to report the bytes allocated per choice as well.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NimPlayerBenchmark {
+    
+    @Param({ "3", "7" })
+    public int maxRemoval;
+    
+    @Param({ "20", "10000", "1000000" })
+    public int remaining;
+    
+    private NimPlayer warm, tablebase;
+    
+    @Setup
+    public void setup () {
+        warm = new NimPlayer(maxRemoval);
+        warm.choose(remaining);
+        tablebase = new NimPlayer(maxRemoval, NimTablebase.build(maxRemoval, remaining));
+    }
+    
+    @Benchmark
+    public int chooseCold () {
+        return new NimPlayer(maxRemoval).choose(remaining);
+    }
+    
+    @Benchmark
+    public int chooseWarm () {
+        return warm.choose(remaining);
+    }
+    
+    @Benchmark
+    public int chooseTablebase () {
+        return tablebase.choose(remaining);
+    }
+
+}
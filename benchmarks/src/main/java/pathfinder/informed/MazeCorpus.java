@@ -0,0 +1,269 @@
+package pathfinder.informed;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Generates the mazes the benchmarks and the differential runner run over,
+ * either in the String format accepted by MazeProblem or packed straight into a
+ * MazeProblem, for mazes of up to Integer.MAX_VALUE cells. Every maze is a pure
+ * function of its shape, size, and seed, so runs on different machines and
+ * builds measure exactly the same searches.
+ */
+public final class MazeCorpus {
+    
+    /**
+     * The families of mazes in the corpus, each stressing a different part of
+     * the search.
+     */
+    public enum Shape {
+        
+        /** Nearly empty rooms: a huge frontier of ties, and long straight runs. */
+        OPEN,
+        
+        /** Nested rings joined by single gaps: long corridors that double back. */
+        SPIRAL,
+        
+        /** Half the open cells are mud: many different path costs to order. */
+        MUD,
+        
+        /** A key to collect and many goals to choose from: every key layer searched. */
+        MULTI_GOAL,
+        
+        /** A perfect maze, one path between any two cells: corridors one cell wide. */
+        PERFECT,
+        
+        /** Smoothed random caves with muddy floors: open regions that may not connect. */
+        CAVERN,
+        
+        /** Several keys scattered over a muddy field: sixteen key layers to search. */
+        KEYS
+    }
+    
+    // The number of keys of a KEYS maze, and of goals of a MULTI_GOAL maze
+    private static final int KEY_COUNT = 4, GOAL_COUNT = 8;
+    
+    // Caves start as this share of walls and are smoothed this many times
+    private static final double CAVE_WALLS = 0.45;
+    private static final int CAVE_ROUNDS = 4;
+    
+    private MazeCorpus () {}
+    
+    /**
+     * @param   shape   The family of maze to generate
+     * @param   size    The number of rows and of columns, at least 4
+     * @param   seed    The seed of the random walls and markers
+     * @return  The maze, with its initial state in the top left corner and (at
+     *          least one of) its goals in the bottom right, or at the center of
+     *          a SPIRAL
+     */
+    public static String[] generate (Shape shape, int size, long seed) {
+        byte[] grid = grid(shape, size, size, seed);
+        String[] maze = new String[size];
+        for (int row = 0; row < size; row++) {
+            maze[row] = new String(grid, row * size, size, StandardCharsets.ISO_8859_1);
+        }
+        return maze;
+    }
+    
+    /**
+     * @return  The given maze as a MazeProblem.
+     */
+    public static MazeProblem problem (String[] maze) {
+        return new MazeProblem(maze);
+    }
+    
+    /**
+     * Generates a maze as generate does, but packs it straight into a MazeProblem
+     * without making a String per row, so that it takes a single byte per cell:
+     * a maze of 10^8 cells needs only about 100 MB.
+     * 
+     * @param   shape   The family of maze to generate
+     * @param   rows    The number of rows, at least 4
+     * @param   cols    The number of columns, at least 4
+     * @param   seed    The seed of the random walls and markers
+     * @return  The maze as a MazeProblem; square mazes are the same as those of
+     *          generate(shape, size, seed)
+     */
+    public static MazeProblem problem (Shape shape, int rows, int cols, long seed) {
+        byte[] grid = grid(shape, rows, cols, seed);
+        int keyCount = 0, goalCount = 0, initial = -1;
+        for (int cell = 0; cell < grid.length; cell++) {
+            keyCount += (grid[cell] == 'K') ? 1 : 0;
+            goalCount += (grid[cell] == 'G') ? 1 : 0;
+        }
+        int[] keys = new int[keyCount], goals = new int[goalCount];
+        keyCount = goalCount = 0;
+        for (int cell = 0; cell < grid.length; cell++) {
+            switch (grid[cell]) {
+                case 'X': grid[cell] = MazeProblem.WALL; break;
+                case 'M': grid[cell] = MazeProblem.MUD; break;
+                case 'I': initial = cell; grid[cell] = MazeProblem.OPEN; break;
+                case 'K': keys[keyCount++] = cell; grid[cell] = MazeProblem.OPEN; break;
+                case 'G': goals[goalCount++] = cell; grid[cell] = MazeProblem.OPEN; break;
+                default:  grid[cell] = MazeProblem.OPEN; break;
+            }
+        }
+        return new MazeProblem(grid, rows, cols, initial, keys, goals, false);
+    }
+    
+    /**
+     * Generates the maze as one character of the String format per cell, in
+     * row-major order.
+     */
+    private static byte[] grid (Shape shape, int rows, int cols, long seed) {
+        if (rows < 4 || cols < 4) {
+            throw new IllegalArgumentException("Mazes in the corpus are at least 4 x 4");
+        }
+        if ((long) rows * cols > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Mazes in the corpus have at most " + Integer.MAX_VALUE + " cells");
+        }
+        Random random = new Random(seed);
+        byte[] grid = new byte[rows * cols];
+        int goal = (rows - 1) * cols + cols - 1;
+        switch (shape) {
+            case OPEN:
+                scatter(grid, random, 0.05, 0);
+                break;
+            case SPIRAL:
+                scatter(grid, random, 0, 0);
+                rings(grid, rows, cols);
+                goal = (rows / 2) * cols + cols / 2;
+                break;
+            case MUD:
+                scatter(grid, random, 0.10, 0.50);
+                break;
+            case MULTI_GOAL:
+                scatter(grid, random, 0.15, 0.10);
+                mark(grid, random, rows, cols, 'K', 1);
+                mark(grid, random, rows, cols, 'G', GOAL_COUNT);
+                break;
+            case PERFECT:
+                sidewinder(grid, random, rows, cols);
+                goal = ((rows - 1) & ~1) * cols + ((cols - 1) & ~1);
+                break;
+            case CAVERN:
+                scatter(grid, random, CAVE_WALLS, 0);
+                for (int round = 0; round < CAVE_ROUNDS; round++) {
+                    smooth(grid, rows, cols);
+                }
+                muddy(grid, random, 0.20);
+                break;
+            case KEYS:
+                scatter(grid, random, 0.15, 0.15);
+                mark(grid, random, rows, cols, 'K', KEY_COUNT);
+                break;
+        }
+        grid[0] = 'I';
+        grid[goal] = 'G';
+        return grid;
+    }
+    
+    /**
+     * Fills the grid with walls and mud at random, at the given densities, and
+     * open cells everywhere else.
+     */
+    private static void scatter (byte[] grid, Random random, double walls, double mud) {
+        for (int cell = 0; cell < grid.length; cell++) {
+            double roll = random.nextDouble();
+            grid[cell] = (byte) ((roll < walls) ? 'X' : (roll < walls + mud) ? 'M' : '.');
+        }
+    }
+    
+    /**
+     * Places the given marker on the given number of cells picked at random,
+     * over whatever they held.
+     */
+    private static void mark (byte[] grid, Random random, int rows, int cols, char marker, int count) {
+        for (int i = 0; i < count; i++) {
+            int row = random.nextInt(rows), col = random.nextInt(cols);
+            grid[row * cols + col] = (byte) marker;
+        }
+    }
+    
+    /**
+     * Walls off every other ring of the grid, counting in from the border, and
+     * opens each ring at a single gap on alternating sides, so that every path
+     * from the corner inward walks half of each ring.
+     */
+    private static void rings (byte[] grid, int rows, int cols) {
+        for (int ring = 1; 2 * ring < Math.min(rows, cols) - 1; ring += 2) {
+            int top = ring, bottom = rows - 1 - ring, left = ring, right = cols - 1 - ring;
+            for (int col = left; col <= right; col++) {
+                grid[top * cols + col] = grid[bottom * cols + col] = 'X';
+            }
+            for (int row = top; row <= bottom; row++) {
+                grid[row * cols + left] = grid[row * cols + right] = 'X';
+            }
+            int gap = (left + right) / 2;
+            grid[(((ring / 2) % 2 == 0) ? bottom : top) * cols + gap] = '.';
+        }
+    }
+    
+    /**
+     * Carves a perfect maze with the Sidewinder algorithm, row by row and in
+     * O(1) extra memory: cells at even coordinates are rooms, each joined to the
+     * room on its right or, ending the run of rooms so joined, one room of the
+     * run to the room above. The top row is one long corridor.
+     */
+    private static void sidewinder (byte[] grid, Random random, int rows, int cols) {
+        Arrays.fill(grid, (byte) 'X');
+        for (int row = 0; row < rows; row += 2) {
+            int runStart = 0;
+            for (int col = 0; col < cols; col += 2) {
+                grid[row * cols + col] = '.';
+                boolean last = col + 2 >= cols;
+                if (!last && (row == 0 || random.nextBoolean())) {
+                    grid[row * cols + col + 1] = '.';
+                } else if (row > 0) {
+                    int up = runStart + 2 * random.nextInt((col - runStart) / 2 + 1);
+                    grid[(row - 1) * cols + up] = '.';
+                    runStart = col + 2;
+                }
+            }
+        }
+    }
+    
+    /**
+     * One round of cave smoothing, in place with two rows of scratch: a cell
+     * becomes a wall when at least 5 of its 8 neighbors are walls, counting the
+     * cells beyond the border as walls, and open otherwise.
+     */
+    private static void smooth (byte[] grid, int rows, int cols) {
+        byte[] above = new byte[cols], current = new byte[cols];
+        Arrays.fill(above, (byte) 'X');
+        System.arraycopy(grid, 0, current, 0, cols);
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                int walls = 0;
+                for (int dc = -1; dc <= 1; dc++) {
+                    int c = col + dc;
+                    boolean inside = c >= 0 && c < cols;
+                    walls += (!inside || above[c] == 'X') ? 1 : 0;
+                    walls += (!inside || row + 1 == rows || grid[(row + 1) * cols + c] == 'X') ? 1 : 0;
+                    walls += (dc != 0 && (!inside || current[c] == 'X')) ? 1 : 0;
+                }
+                grid[row * cols + col] = (byte) ((walls >= 5) ? 'X' : '.');
+            }
+            byte[] swap = above;
+            above = current;
+            current = swap;
+            if (row + 1 < rows) {
+                System.arraycopy(grid, (row + 1) * cols, current, 0, cols);
+            }
+        }
+    }
+    
+    /**
+     * Turns the given share of the open cells to mud, at random.
+     */
+    private static void muddy (byte[] grid, Random random, double mud) {
+        for (int cell = 0; cell < grid.length; cell++) {
+            if (grid[cell] == '.' && random.nextDouble() < mud) {
+                grid[cell] = 'M';
+            }
+        }
+    }
+
+}
@@ -0,0 +1,352 @@
+package pathfinder.informed;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.regex.Pattern;
+
+import differential.DifferentialReport;
+
+/**
+ * Checks every solver mode of pathfinder.informed against a reference Dijkstra
+ * over mazes of every MazeCorpus shape, at seeded random sizes. Each maze is
+ * solved from its own initial state and from a random open cell. Every path a
+ * mode returns is replayed with MazeProblem.testSolution, and its cost is then
+ * compared with the reference: it must be equal for the optimal modes, within
+ * the reported bound for the weighted and anytime ones, and no less for the
+ * hierarchical one. Every mode must find a path exactly when the reference does.
+ * 
+ * The reference shares nothing with the searches under test but the maze: it
+ * walks the grid with its own neighbor, cost, and key arithmetic, and keeps its
+ * frontier in a plain binary heap.
+ */
+public final class MazeDifferential {
+    
+    // Mazes above this many cells are not given to the external-memory mode, whose
+    // disk traffic would dominate the run
+    private static final int MAX_EXTERNAL_CELLS = 1 << 20;
+    
+    // The budgets of the memory-bounded and time-bounded modes
+    private static final long EXTERNAL_MEMORY = 16L << 20, ANYTIME_BUDGET = 10_000_000L;
+    
+    // The weights of the bounded modes; the fine ones are not multiples of 1/16,
+    // the fixed point the searches keep weights in, so a weight rounded up shows
+    private static final double WEIGHT = 2.0, ANYTIME_WEIGHT = 3.0, FINE_WEIGHT = 1.1, FINE_ANYTIME_WEIGHT = 1.3;
+    
+    // The cost given to a path that does not solve its maze
+    private static final int INVALID = -2;
+    
+    // The smallest mazes generated, in rows and columns
+    private static final int MIN_SIDE = 8;
+    
+    private final DifferentialReport report;
+    private final Pattern modes;
+    private final Path workDir;
+    
+    // Shared by every workload of a run, so that its stripes see concurrent use
+    private final RouteCache cache = new RouteCache(256, 64L << 20);
+    
+    /**
+     * @param   report  Collects the results of every mode
+     * @param   modes   The modes to run, matched against their names in full; the
+     *                  reference always runs
+     * @param   workDir The directory the external-memory mode keeps its files in
+     */
+    public MazeDifferential (DifferentialReport report, Pattern modes, Path workDir) {
+        this.report = report;
+        this.modes = modes;
+        this.workDir = workDir;
+    }
+    
+    /**
+     * Generates the given number of mazes of each shape, with sides drawn
+     * log-uniformly so that no maze has more than the given number of cells, and
+     * checks every mode on each of them, one maze per task on the executor.
+     * 
+     * @param   seed        The seed the sizes and mazes are drawn from
+     * @param   cases       The number of mazes of each shape
+     * @param   maxCells    The largest number of cells of any maze, e.g. 10^8
+     * @param   executor    The executor to run the mazes on
+     */
+    public void run (long seed, int cases, long maxCells, Executor executor) {
+        int maxSide = (int) Math.max(MIN_SIDE, Math.min(Integer.MAX_VALUE / MIN_SIDE, Math.sqrt(maxCells)));
+        Random random = new Random(seed);
+        List<CompletableFuture<?>> tasks = new ArrayList<>();
+        for (MazeCorpus.Shape shape : MazeCorpus.Shape.values()) {
+            for (int i = 0; i < cases; i++) {
+                int rows = side(random, maxSide), cols = side(random, maxSide);
+                while ((long) rows * cols > maxCells) {
+                    rows = Math.max(MIN_SIDE, rows / 2);
+                    cols = Math.max(MIN_SIDE, cols / 2);
+                }
+                int r = rows, c = cols;
+                long mazeSeed = random.nextLong();
+                tasks.add(CompletableFuture.runAsync(() -> check(shape, r, c, mazeSeed), executor));
+            }
+        }
+        CompletableFuture.allOf(tasks.toArray(new CompletableFuture<?>[0])).join();
+    }
+    
+    private static int side (Random random, int maxSide) {
+        double log = Math.log(MIN_SIDE) + random.nextDouble() * (Math.log(maxSide) - Math.log(MIN_SIDE));
+        return (int) Math.round(Math.exp(log));
+    }
+    
+    /**
+     * Generates one maze and checks every mode on it, from its initial state and
+     * from a random open cell.
+     */
+    private void check (MazeCorpus.Shape shape, int rows, int cols, long seed) {
+        String name = shape + " " + rows + "x" + cols + " seed " + seed;
+        MazeProblem maze = report.measure("generate", name, () -> MazeCorpus.problem(shape, rows, cols, seed));
+        if (maze == null) {
+            return;
+        }
+        check(maze, name);
+        Random random = new Random(seed);
+        for (int tries = 0; tries < 100; tries++) {
+            int cell = random.nextInt(maze.getCellCount());
+            if (maze.getType(cell) != MazeProblem.WALL) {
+                check(maze.withInitialState(maze.toState(cell)),
+                      name + " from (" + maze.colOf(cell) + ", " + maze.rowOf(cell) + ")");
+                break;
+            }
+        }
+    }
+    
+    private void check (MazeProblem problem, String name) {
+        Integer expected = report.measure("reference", name, () -> reference(problem));
+        if (expected == null) {
+            return;
+        }
+        int best = expected;
+        
+        exact("solve", name, problem, best, () -> cost(problem, Pathfinder.solve(problem)));
+        exact("solve/landmarks", name, problem, best,
+              () -> cost(problem, Pathfinder.solve(problem, LandmarkHeuristic.of(problem))));
+        exact("solve/distance-table", name, problem, best,
+              () -> cost(problem, Pathfinder.solve(problem, DistanceTableHeuristic.of(problem))));
+        exact("jump-points", name, problem, best, () -> cost(problem, Pathfinder.solveJumpPoints(problem)));
+        exact("compact", name, problem, best, () -> cost(problem, Pathfinder.solveCompact(problem)));
+        exact("bidirectional", name, problem, best, () -> cost(problem, Pathfinder.solveBidirectional(problem)));
+        exact("bidirectional/two-thread", name, problem, best,
+              () -> cost(problem, Pathfinder.solveBidirectional(problem, ForkJoinPool.commonPool())));
+        exact("incremental", name, problem, best, () -> {
+            IncrementalPlanner planner = new IncrementalPlanner(new DynamicMaze(problem));
+            try {
+                return cost(problem, planner.plan());
+            } finally {
+                planner.close();
+            }
+        });
+        exact("route-cache", name, problem, best, () -> cost(problem, cache.solve(problem)));
+        if (problem.getCellCount() <= MAX_EXTERNAL_CELLS) {
+            exact("external", name, problem, best,
+                  () -> cost(problem, Pathfinder.solveExternal(problem, workDir, EXTERNAL_MEMORY)));
+        }
+        if (problem.getKeyCount() == 0 && problem.INITIAL_CELL != -1) {
+            exact("path-queries", name, problem, best, () -> {
+                int[] goals = problem.getGoalCells(), starts = new int[goals.length];
+                Arrays.fill(starts, problem.INITIAL_CELL);
+                int cheapest = Integer.MAX_VALUE;
+                for (CompactPath path : PathQueries.solve(problem, starts, goals)) {
+                    int cost = cost(problem, path);
+                    if (cost == INVALID) {
+                        return INVALID;
+                    }
+                    cheapest = (cost == -1) ? cheapest : Math.min(cheapest, cost);
+                }
+                return (cheapest == Integer.MAX_VALUE) ? -1 : cheapest;
+            });
+        }
+        
+        bounded("weighted", name, problem, best, WEIGHT, () -> Pathfinder.solveWeighted(problem, WEIGHT));
+        bounded("anytime", name, problem, best, ANYTIME_WEIGHT,
+                () -> Pathfinder.solveAnytime(problem, ANYTIME_WEIGHT, ANYTIME_BUDGET));
+        bounded("weighted/fine", name, problem, best, FINE_WEIGHT, () -> Pathfinder.solveWeighted(problem, FINE_WEIGHT));
+        bounded("anytime/fine", name, problem, best, FINE_ANYTIME_WEIGHT,
+                () -> Pathfinder.solveAnytime(problem, FINE_ANYTIME_WEIGHT, ANYTIME_BUDGET));
+        
+        nearOptimal("hierarchical", name, best, () -> cost(problem, Pathfinder.solveHierarchical(problem)));
+    }
+    
+    /**
+     * Runs a mode that must return an optimal solution, or none when there is
+     * none, as measured by the given cost of its answer.
+     */
+    private void exact (String mode, String name, MazeProblem problem, int best, Callable<Integer> run) {
+        if (!modes.matcher(mode).matches()) {
+            return;
+        }
+        Integer cost = report.measure(mode, name, run);
+        if (cost != null) {
+            report.check(mode, name, cost != INVALID, "returned a path that does not solve the maze");
+            report.check(mode, name, cost == INVALID || cost == best, "cost " + cost + ", expected " + best);
+        }
+    }
+    
+    /**
+     * Runs a mode that must find a solution when there is one, but not
+     * necessarily an optimal one.
+     */
+    private void nearOptimal (String mode, String name, int best, Callable<Integer> run) {
+        if (!modes.matcher(mode).matches()) {
+            return;
+        }
+        Integer cost = report.measure(mode, name, run);
+        if (cost != null) {
+            report.check(mode, name, cost != INVALID, "returned a path that does not solve the maze");
+            report.check(mode, name, cost == INVALID || ((cost == -1) == (best == -1) && cost >= best),
+                         "cost " + cost + ", but the optimal cost is " + best);
+        }
+    }
+    
+    /**
+     * Runs a mode that must return a solution within its own reported bound of
+     * the optimal cost, and within the given weight.
+     */
+    private void bounded (String mode, String name, MazeProblem problem, int best, double weight,
+                          Callable<BoundedSolution> run) {
+        if (!modes.matcher(mode).matches()) {
+            return;
+        }
+        BoundedSolution sol = report.measure(mode, name, run);
+        if (sol == null) {
+            report.check(mode, name, best == -1, "found no path, but the optimal cost is " + best);
+            return;
+        }
+        int cost = cost(problem, sol.getPath());
+        report.check(mode, name, cost != INVALID, "returned a path that does not solve the maze");
+        report.check(mode, name, cost == INVALID || cost == sol.getCost(),
+                     "reported cost " + sol.getCost() + " for a path of cost " + cost);
+        report.check(mode, name, best != -1 && sol.getCost() <= sol.getBound() * best + 1e-9
+                                 && sol.getBound() <= weight && sol.getBound() >= 1,
+                     "cost " + sol.getCost() + " with bound " + sol.getBound() + ", but the optimal cost is " + best);
+    }
+    
+    /**
+     * @return  The cost of the given path if it solves the problem, -1 if there is
+     *          none, or INVALID if it does not solve the problem.
+     */
+    private static int cost (MazeProblem problem, ArrayList<String> path) {
+        if (path == null) {
+            return -1;
+        }
+        int[] result = problem.testSolution(path);
+        return (result[0] == 1) ? result[1] : INVALID;
+    }
+    
+    private static int cost (MazeProblem problem, CompactPath path) {
+        if (path == null) {
+            return -1;
+        }
+        int[] result = problem.testSolution(path);
+        return (result[0] == 1) ? result[1] : INVALID;
+    }
+    
+    /**
+     * Returns the optimal cost of the given problem by Dijkstra's algorithm over
+     * (cell, keyMask) states, or -1 if it has no solution.
+     */
+    static int reference (MazeProblem problem) {
+        int start = problem.INITIAL_CELL;
+        if (start == -1) {
+            return -1;
+        }
+        int rows = problem.getRows(), cols = problem.getCols();
+        int[] keyCells = problem.getKeyCells();
+        int keyCount = keyCells.length, allKeys = (1 << keyCount) - 1;
+        int[] dist = new int[problem.getCellCount() << keyCount];
+        Arrays.fill(dist, Integer.MAX_VALUE);
+        
+        int first = (start << keyCount) | keyBit(keyCells, start);
+        dist[first] = 0;
+        LongHeap open = new LongHeap();
+        open.push(first);
+        while (!open.isEmpty()) {
+            long entry = open.pop();
+            int d = (int) (entry >>> 32), state = (int) entry;
+            if (d > dist[state]) {
+                continue;
+            }
+            int cell = state >>> keyCount, mask = state & allKeys;
+            if (mask == allKeys && problem.isGoalCell(cell)) {
+                return d;
+            }
+            int row = cell / cols, col = cell % cols;
+            int[] next = {
+                (row > 0) ? cell - cols : -1, (row < rows - 1) ? cell + cols : -1,
+                (col > 0) ? cell - 1 : -1, (col < cols - 1) ? cell + 1 : -1
+            };
+            for (int n : next) {
+                if (n == -1 || problem.getType(n) == MazeProblem.WALL) {
+                    continue;
+                }
+                int nextState = (n << keyCount) | mask | keyBit(keyCells, n),
+                    nextDist = d + ((problem.getType(n) == MazeProblem.MUD) ? 3 : 1);
+                if (nextDist < dist[nextState]) {
+                    dist[nextState] = nextDist;
+                    open.push(((long) nextDist << 32) | nextState);
+                }
+            }
+        }
+        return -1;
+    }
+    
+    private static int keyBit (int[] keyCells, int cell) {
+        int key = Arrays.binarySearch(keyCells, cell);
+        return (key >= 0) ? 1 << key : 0;
+    }
+
+
+/**
+ * A binary min-heap of longs, for the reference Dijkstra.
+ */
+private static final class LongHeap {
+    
+    private long[] heap = new long[64];
+    private int size;
+    
+    boolean isEmpty () {
+        return size == 0;
+    }
+    
+    void push (long value) {
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, 2 * size);
+        }
+        int at = size++;
+        while (at > 0 && heap[(at - 1) / 2] > value) {
+            heap[at] = heap[(at - 1) / 2];
+            at = (at - 1) / 2;
+        }
+        heap[at] = value;
+    }
+    
+    long pop () {
+        long top = heap[0], last = heap[--size];
+        int at = 0;
+        while (2 * at + 1 < size) {
+            int child = 2 * at + 1;
+            if (child + 1 < size && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (heap[child] >= last) {
+                break;
+            }
+            heap[at] = heap[child];
+            at = child;
+        }
+        heap[at] = last;
+        return top;
+    }
+
+}
+
+}
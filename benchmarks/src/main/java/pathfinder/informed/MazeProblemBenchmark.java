@@ -0,0 +1,69 @@
+package pathfinder.informed;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Times the MazeState API of MazeProblem that callers outside the package use:
+ * getTransitions over every cell of a maze in row-major order, and testSolution
+ * over an optimal path found once per trial.
+ * 
+ * Run with -prof gc to report the bytes allocated per call as well.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MazeProblemBenchmark {
+    
+    @Param({ "OPEN", "SPIRAL", "MUD", "MULTI_GOAL" })
+    public MazeCorpus.Shape shape;
+    
+    @Param({ "64", "512" })
+    public int size;
+    
+    private MazeProblem problem;
+    private MazeState[] states;
+    private ArrayList<String> solution;
+    
+    @Setup
+    public void setup () {
+        problem = MazeCorpus.problem(MazeCorpus.generate(shape, size, 42));
+        states = new MazeState[problem.getCellCount()];
+        for (int cell = 0; cell < states.length; cell++) {
+            states[cell] = problem.toState(cell);
+        }
+        solution = Pathfinder.solve(problem);
+        if (solution == null) {
+            throw new IllegalStateException("The " + shape + " maze of size " + size + " has no solution");
+        }
+    }
+    
+    @Benchmark
+    public void getTransitions (Blackhole sink) {
+        for (MazeState state : states) {
+            sink.consume(problem.getTransitions(state));
+        }
+    }
+    
+    @Benchmark
+    public int[] testSolution () {
+        return problem.testSolution(solution);
+    }
+
+}
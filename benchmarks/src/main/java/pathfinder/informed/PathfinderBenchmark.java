@@ -0,0 +1,52 @@
+package pathfinder.informed;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Times Pathfinder.solve end to end over the maze corpus, from the initial state
+ * to a verified path. The maze is built once per trial, so the tables it derives
+ * on the first solve (distance fields, landmarks) are shared by every later one,
+ * as they are for a long-lived MazeProblem.
+ * 
+ * Run with -prof gc to report the bytes allocated per solve as well.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathfinderBenchmark {
+    
+    @Param({ "OPEN", "SPIRAL", "MUD", "MULTI_GOAL" })
+    public MazeCorpus.Shape shape;
+    
+    @Param({ "64", "512", "2048" })
+    public int size;
+    
+    private MazeProblem problem;
+    
+    @Setup
+    public void setup () {
+        problem = MazeCorpus.problem(MazeCorpus.generate(shape, size, 42));
+    }
+    
+    @Benchmark
+    public ArrayList<String> solve () {
+        return Pathfinder.solve(problem);
+    }
+
+}